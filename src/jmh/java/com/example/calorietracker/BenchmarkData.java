@@ -0,0 +1,157 @@
+package com.example.calorietracker;
+
+import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.model.Food;
+import com.example.calorietracker.model.Goal;
+import com.example.calorietracker.model.Meal;
+import com.example.calorietracker.model.MealFood;
+import com.example.calorietracker.model.NutritionAccumulator;
+import com.example.calorietracker.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированные данные для бенчмарков: одинаковый seed дает одинаковый набор при каждом запуске
+ */
+public final class BenchmarkData {
+
+    private static final String[] MEAL_TYPES = {"Завтрак", "Обед", "Ужин", "Перекус"};
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 30);
+
+    private final Random random;
+    private final User user;
+    private final List<Food> foods;
+    private long nextId = 1;
+
+    public BenchmarkData(long seed, int catalogSize) {
+        this.random = new Random(seed);
+        this.user = User.builder()
+                .id(1L)
+                .name("Иван Иванов")
+                .email("ivan@example.com")
+                .age(30)
+                .weight(75.0)
+                .height(180)
+                .goal(Goal.MAINTENANCE)
+                .dailyCalorieTarget(2600)
+                .build();
+        this.foods = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            foods.add(Food.builder()
+                    .id((long) i + 1)
+                    .name("Блюдо " + (i + 1))
+                    .caloriesPerServing(20 + random.nextInt(600))
+                    .proteins(grams(40))
+                    .fats(grams(35))
+                    .carbohydrates(grams(80))
+                    .build());
+        }
+    }
+
+    public User user() {
+        return user;
+    }
+
+    public Food food(long id) {
+        return foods.get((int) id - 1);
+    }
+
+    /**
+     * Прием пищи с составом из случайных блюд каталога и рассчитанными итогами
+     */
+    public Meal meal(int items) {
+        Meal meal = Meal.builder()
+                .id(nextId++)
+                .user(user)
+                .mealDate(DATE)
+                .mealTime(LocalTime.of(8 + random.nextInt(14), random.nextInt(60)))
+                .mealType(MEAL_TYPES[random.nextInt(MEAL_TYPES.length)])
+                .mealFoods(new ArrayList<>(items))
+                .build();
+        for (int i = 0; i < items; i++) {
+            meal.addMealFood(MealFood.builder()
+                    .id(nextId++)
+                    .food(foods.get(random.nextInt(foods.size())))
+                    .servings(servings())
+                    .build());
+        }
+        meal.calculateTotals();
+        return meal;
+    }
+
+    /**
+     * DTO приема пищи в том виде, в каком его собирает MealService
+     */
+    public MealDto mealDto(int items) {
+        Meal meal = meal(items);
+        MealDto mealDto = MealDto.builder()
+                .id(meal.getId())
+                .userId(user.getId())
+                .mealDate(meal.getMealDate())
+                .mealTime(meal.getMealTime())
+                .mealType(meal.getMealType())
+                .mealFoods(new ArrayList<>(items))
+                .totalCalories(meal.getTotalCalories())
+                .totalProteins(meal.getTotalProteins())
+                .totalFats(meal.getTotalFats())
+                .totalCarbohydrates(meal.getTotalCarbohydrates())
+                .build();
+        NutritionAccumulator portion = new NutritionAccumulator();
+        for (MealFood mealFood : meal.getMealFoods()) {
+            MealFoodDto mealFoodDto = MealFoodDto.builder()
+                    .id(mealFood.getId())
+                    .foodId(mealFood.getFood().getId())
+                    .servings(mealFood.getServings())
+                    .build();
+            mealFoodDto.calculateNutrition(foodDto(mealFood.getFood()), portion);
+            mealDto.getMealFoods().add(mealFoodDto);
+        }
+        return mealDto;
+    }
+
+    /**
+     * Дневной отчет с заданным числом приемов пищи
+     */
+    public DailyReportDto dailyReport(int meals, int itemsPerMeal) {
+        List<MealDto> mealDtos = new ArrayList<>(meals);
+        for (int i = 0; i < meals; i++) {
+            mealDtos.add(mealDto(itemsPerMeal));
+        }
+        DailyReportDto report = DailyReportDto.builder()
+                .userId(user.getId())
+                .userName(user.getName())
+                .date(DATE)
+                .dailyCalorieTarget(user.getDailyCalorieTarget())
+                .meals(mealDtos)
+                .build();
+        report.calculateTotals();
+        return report;
+    }
+
+    public static FoodDto foodDto(Food food) {
+        return FoodDto.builder()
+                .id(food.getId())
+                .name(food.getName())
+                .caloriesPerServing(food.getCaloriesPerServing())
+                .proteins(food.getProteins())
+                .fats(food.getFats())
+                .carbohydrates(food.getCarbohydrates())
+                .build();
+    }
+
+    private double grams(int max) {
+        return Math.round(random.nextDouble() * max * 10) / 10.0;
+    }
+
+    // Порции от 0.25 до 3 с шагом 0.25, как обычно вводят пользователи
+    private double servings() {
+        return (1 + random.nextInt(12)) * 0.25;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.calorietracker.dto;
+
+import com.example.calorietracker.BenchmarkData;
+import com.example.calorietracker.model.Food;
+import com.example.calorietracker.model.Meal;
+import com.example.calorietracker.model.MealFood;
+import com.example.calorietracker.model.NutritionAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчет пищевой ценности на уровнях порции, приема пищи и дня.
+ * Методы legacy воспроизводят прежний расчет для сравнения: сущность приема пищи округляла калории
+ * каждого блюда вниз и складывала граммы в double, дневной отчет суммировал упакованные значения
+ * четырьмя проходами stream.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NutritionBenchmark {
+
+    @Param({"3", "8", "20"})
+    public int itemsPerMeal;
+
+    @Param({"5"})
+    public int mealsPerDay;
+
+    private MealDto meal;
+    private List<FoodDto> mealFoods;
+    private DailyReportDto report;
+    private Meal mealEntity;
+    private final NutritionAccumulator portion = new NutritionAccumulator();
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(42L, 1_000);
+        report = data.dailyReport(mealsPerDay, itemsPerMeal);
+        meal = report.getMeals().get(0);
+        mealFoods = new ArrayList<>(itemsPerMeal);
+        for (MealFoodDto mealFood : meal.getMealFoods()) {
+            mealFoods.add(BenchmarkData.foodDto(data.food(mealFood.getFoodId())));
+        }
+        mealEntity = data.meal(itemsPerMeal);
+    }
+
+    @Benchmark
+    public void calculateNutrition(Blackhole blackhole) {
+        List<MealFoodDto> items = meal.getMealFoods();
+        for (int i = 0; i < items.size(); i++) {
+            MealFoodDto item = items.get(i);
+            item.calculateNutrition(mealFoods.get(i), portion);
+            blackhole.consume(item.getCalories());
+        }
+    }
+
+    @Benchmark
+    public Integer mealEntityCalculateTotals() {
+        mealEntity.calculateTotals();
+        return mealEntity.getTotalCalories();
+    }
+
+    @Benchmark
+    public Integer mealEntityLegacyTotals() {
+        int calories = 0;
+        double proteins = 0;
+        double fats = 0;
+        double carbohydrates = 0;
+        for (MealFood mealFood : mealEntity.getMealFoods()) {
+            Food food = mealFood.getFood();
+            calories += (int) (food.getCaloriesPerServing() * mealFood.getServings());
+            proteins += food.getProteins() * mealFood.getServings();
+            fats += food.getFats() * mealFood.getServings();
+            carbohydrates += food.getCarbohydrates() * mealFood.getServings();
+        }
+        mealEntity.setTotalCalories(calories);
+        mealEntity.setTotalProteins(proteins);
+        mealEntity.setTotalFats(fats);
+        mealEntity.setTotalCarbohydrates(carbohydrates);
+        return mealEntity.getTotalCalories();
+    }
+
+    @Benchmark
+    public Integer dailyReportCalculateTotals() {
+        report.calculateTotals();
+        return report.getTotalCaloriesConsumed();
+    }
+
+    @Benchmark
+    public void dailyReportLegacyStreamTotals(Blackhole blackhole) {
+        List<MealDto> meals = report.getMeals();
+        blackhole.consume(meals.stream().mapToInt(MealDto::getTotalCalories).sum());
+        blackhole.consume(meals.stream().mapToDouble(MealDto::getTotalProteins).sum());
+        blackhole.consume(meals.stream().mapToDouble(MealDto::getTotalFats).sum());
+        blackhole.consume(meals.stream().mapToDouble(MealDto::getTotalCarbohydrates).sum());
+    }
+}
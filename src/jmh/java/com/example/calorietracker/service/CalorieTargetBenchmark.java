@@ -0,0 +1,45 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.model.Goal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Расчет дневной нормы калорий при создании и обновлении пользователя
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalorieTargetBenchmark {
+
+    private UserService userService;
+
+    // Не final, чтобы JIT не свернул расчет в константу
+    private Integer age = 30;
+    private Double weight = 75.0;
+    private Integer height = 180;
+    private Goal goal = Goal.WEIGHT_LOSS;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, null, null);
+    }
+
+    @Benchmark
+    public Integer calculateDailyCalorieTarget() {
+        return userService.calculateDailyCalorieTarget(age, weight, height, goal);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.dto.FoodDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск блюд по названию в каталоге из 100 000 блюд: индекс триграмм против запроса LIKE,
+ * которым FoodService ищет, пока индекс не построен. Названия строятся по той же схеме,
+ * что и в генераторе набора данных: базовое блюдо, вариант приготовления и номер повтора.
+ * База - H2 в памяти процесса, без сетевых задержек, поэтому оценка для LIKE занижена.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FoodSearchBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int LIMIT = 20;
+
+    private static final String[] BASE_NAMES = {
+            "Овсяная каша", "Гречневая каша", "Рисовая каша", "Пшенная каша", "Куриная грудка", "Говядина",
+            "Индейка", "Свинина", "Котлета", "Лосось", "Треска", "Тунец", "Сельдь", "Творог", "Йогурт", "Кефир",
+            "Сыр", "Сырники", "Картофельное пюре", "Рис", "Макароны", "Булгур", "Борщ", "Щи", "Куриный суп",
+            "Солянка", "Овощной салат", "Винегрет", "Тушеные овощи", "Омлет", "Яблоко", "Банан", "Апельсин",
+            "Груша", "Хлеб", "Блины", "Пирожок", "Печенье", "Чай с сахаром", "Кофе с молоком", "Компот", "Сок"
+    };
+    private static final String[] VARIANTS = {
+            "", "по-домашнему", "на пару", "с зеленью", "без соли", "с овощами", "по-деревенски", "из столовой"
+    };
+
+    // Префикс, полное название, опечатка и название с вариантом приготовления
+    @Param({"кур", "Гречневая каша", "Тварог", "Котлета по-домашнему"})
+    public String query;
+
+    private FoodSearchIndex foodSearchIndex;
+    private Connection connection;
+    private PreparedStatement likeStatement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        List<FoodDto> foods = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            foods.add(FoodDto.builder()
+                    .id((long) i + 1)
+                    .name(name(i))
+                    .caloriesPerServing(100 + i % 400)
+                    .proteins(10.0)
+                    .fats(5.0)
+                    .carbohydrates(20.0)
+                    .build());
+        }
+        foodSearchIndex = new FoodSearchIndex(new FoodSearchProperties());
+        foodSearchIndex.rebuild(() -> foods);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:food_search;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE foods (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, " +
+                    "calories_per_serving INT NOT NULL, proteins DOUBLE PRECISION, fats DOUBLE PRECISION, " +
+                    "carbohydrates DOUBLE PRECISION)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO foods VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (FoodDto food : foods) {
+                insert.setLong(1, food.getId());
+                insert.setString(2, food.getName());
+                insert.setInt(3, food.getCaloriesPerServing());
+                insert.setDouble(4, food.getProteins());
+                insert.setDouble(5, food.getFats());
+                insert.setDouble(6, food.getCarbohydrates());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        // Тот же запрос, что строит findByNameContainingIgnoreCase: все совпадения читаются, лимит - в Java
+        likeStatement = connection.prepareStatement("SELECT id, name, calories_per_serving, proteins, fats, " +
+                "carbohydrates FROM foods WHERE UPPER(name) LIKE UPPER(?) ESCAPE '\\'");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<FoodDto> indexSearch() {
+        return foodSearchIndex.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public List<FoodDto> sqlLike() throws SQLException {
+        likeStatement.setString(1, "%" + query + "%");
+        List<FoodDto> result = new ArrayList<>();
+        try (ResultSet rows = likeStatement.executeQuery()) {
+            while (rows.next()) {
+                result.add(FoodDto.builder()
+                        .id(rows.getLong(1))
+                        .name(rows.getString(2))
+                        .caloriesPerServing(rows.getInt(3))
+                        .proteins(rows.getDouble(4))
+                        .fats(rows.getDouble(5))
+                        .carbohydrates(rows.getDouble(6))
+                        .build());
+            }
+        }
+        return result.size() > LIMIT ? result.subList(0, LIMIT) : result;
+    }
+
+    private static String name(int i) {
+        int base = i % BASE_NAMES.length;
+        int variant = (i / BASE_NAMES.length) % VARIANTS.length;
+        int repeat = i / (BASE_NAMES.length * VARIANTS.length);
+        return BASE_NAMES[base]
+                + (VARIANTS[variant].isEmpty() ? "" : " " + VARIANTS[variant])
+                + (repeat > 0 ? " №" + (repeat + 1) : "");
+    }
+}
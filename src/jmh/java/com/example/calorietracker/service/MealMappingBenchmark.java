@@ -0,0 +1,48 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.BenchmarkData;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.model.Meal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование приема пищи в DTO без обращения к базе: репозитории в маппинге не участвуют
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MealMappingBenchmark {
+
+    @Param({"3", "8", "20"})
+    public int itemsPerMeal;
+
+    private MealService mealService;
+    private Meal meal;
+
+    @Setup
+    public void setUp() {
+        FoodService foodService = new FoodService(null, null, null, null, null, null, null, null, null);
+        mealService = new MealService(null, null, null, foodService, null, null, null, null, null, null);
+        meal = new BenchmarkData(42L, 1_000).meal(itemsPerMeal);
+    }
+
+    @Benchmark
+    public MealDto mapToDto() {
+        return mealService.mapToDto(meal);
+    }
+}
@@ -2,11 +2,13 @@ package com.example.calorietracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CalorieTrackerApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(CalorieTrackerApplication.class, args);
     }
-}
\ No newline at end of file
+}
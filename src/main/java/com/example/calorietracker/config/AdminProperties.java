@@ -0,0 +1,27 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.admin")
+public class AdminProperties {
+
+    /**
+     * Токен доступа к /api/admin, передается в заголовке X-Admin-Token.
+     * Если токен не задан, административный API недоступен
+     */
+    private String token;
+
+    /**
+     * Длительность записи JFR, если она не указана в запросе
+     */
+    private Duration jfrDefaultDuration = Duration.ofMinutes(1);
+
+    /**
+     * Максимальная длительность записи JFR
+     */
+    private Duration jfrMaxDuration = Duration.ofMinutes(30);
+}
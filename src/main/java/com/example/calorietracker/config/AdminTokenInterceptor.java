@@ -0,0 +1,37 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.exception.UnauthorizedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Проверка токена администратора для /api/admin. Токены сравниваются за постоянное время
+ */
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    public static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private final AdminProperties properties;
+
+    public AdminTokenInterceptor(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String expected = properties.getToken();
+        if (expected == null || expected.isBlank()) {
+            throw new UnauthorizedException("Административный API отключен: не задан calorie-tracker.admin.token");
+        }
+        String actual = request.getHeader(TOKEN_HEADER);
+        if (actual == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                actual.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("Неверный токен администратора");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.calorietracker.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Доступ к административному API только по токену
+ */
+@Configuration
+public class AdminWebConfig implements WebMvcConfigurer {
+
+    private final AdminProperties properties;
+
+    public AdminWebConfig(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(properties))
+                .addPathPatterns("/api/admin/**");
+    }
+}
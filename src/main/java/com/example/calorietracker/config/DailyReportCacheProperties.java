@@ -0,0 +1,26 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.cache.daily-report")
+public class DailyReportCacheProperties {
+
+    /**
+     * Включение кэша дневных отчетов
+     */
+    private boolean enabled = true;
+
+    /**
+     * Максимальное количество отчетов в кэше
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Время жизни отчета в кэше
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
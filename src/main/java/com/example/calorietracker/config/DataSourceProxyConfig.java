@@ -0,0 +1,53 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.monitoring.QueryStatsListener;
+import com.example.calorietracker.monitoring.SlowQueryLog;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Обертка DataSource в datasource-proxy для слушателей JDBC-команд: учета обращений к базе
+ * и журнала медленных запросов. Если оба выключены, DataSource не оборачивается.
+ * ResultSet оборачивается только при включенном подсчете строк (calorie-tracker.query-budget.count-rows).
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryStatsListener> queryStatsListener,
+                                                                 ObjectProvider<QueryBudgetProperties> queryBudgetProperties,
+                                                                 ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                QueryStatsListener statsListener = queryStatsListener.getIfAvailable();
+                SlowQueryLog slowQueries = slowQueryLog.getIfAvailable();
+                if (statsListener == null && slowQueries == null) {
+                    return bean;
+                }
+
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                if (statsListener != null) {
+                    builder.listener(statsListener);
+                    if (queryBudgetProperties.getObject().isCountRows()) {
+                        builder.methodListener(statsListener)
+                                .proxyResultSet();
+                    }
+                }
+                if (slowQueries != null) {
+                    builder.listener(slowQueries);
+                }
+                return builder.build();
+            }
+        };
+    }
+}
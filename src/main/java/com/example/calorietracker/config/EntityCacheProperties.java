@@ -0,0 +1,39 @@
+package com.example.calorietracker.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.cache.entities")
+public class EntityCacheProperties {
+
+    /**
+     * Регион кэша второго уровня для блюд
+     */
+    private Region foods = new Region(50_000, Duration.ofHours(1));
+
+    /**
+     * Регион кэша второго уровня для пользователей
+     */
+    private Region users = new Region(10_000, Duration.ofMinutes(30));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+
+        /**
+         * Максимальное количество сущностей в регионе
+         */
+        private long maximumSize;
+
+        /**
+         * Время жизни сущности в регионе с момента записи
+         */
+        private Duration timeToLive;
+    }
+}
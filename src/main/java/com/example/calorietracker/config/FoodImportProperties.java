@@ -0,0 +1,19 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.foods.import")
+public class FoodImportProperties {
+
+    /**
+     * Максимальное количество строк в одном файле импорта
+     */
+    private int maxRows = 100000;
+
+    /**
+     * Количество блюд, сохраняемых между очистками контекста персистентности
+     */
+    private int chunkSize = 500;
+}
@@ -0,0 +1,57 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.food-search")
+public class FoodSearchProperties {
+
+    /**
+     * Поиск по индексу в памяти; при выключенном индексе поиск выполняется запросом к базе данных
+     */
+    private boolean indexEnabled = true;
+
+    /**
+     * Количество результатов поиска по умолчанию
+     */
+    private int defaultLimit = 20;
+
+    /**
+     * Максимальное количество результатов поиска
+     */
+    private int maxLimit = 100;
+
+    /**
+     * Минимальное сходство по триграммам для нечетких совпадений
+     */
+    private double minSimilarity = 0.3;
+
+    private Autocomplete autocomplete = new Autocomplete();
+
+    @Data
+    public static class Autocomplete {
+
+        /**
+         * Количество подсказок по умолчанию
+         */
+        private int defaultLimit = 10;
+
+        /**
+         * Максимальное количество подсказок
+         */
+        private int maxLimit = 50;
+
+        /**
+         * Задержка перестроения после изменения каталога; изменения за это время объединяются
+         */
+        private Duration rebuildDelay = Duration.ofSeconds(1);
+
+        /**
+         * Период обновления популярности блюд
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.meals.batch")
+public class MealBatchProperties {
+
+    /**
+     * Максимальное количество приемов пищи в одном пакетном запросе
+     */
+    private int maxSize = 5000;
+
+    /**
+     * Количество приемов пищи, сохраняемых между очистками контекста персистентности
+     */
+    private int chunkSize = 500;
+}
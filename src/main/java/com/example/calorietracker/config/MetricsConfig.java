@@ -0,0 +1,65 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.service.DailyReportCache;
+import com.example.calorietracker.service.ReportRequestCoalescer;
+import com.example.calorietracker.service.ReportRequestCoalescer.ReportType;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Predicate;
+
+/**
+ * Таймеры Micrometer для публичных методов сервисов, отмеченных @Timed на уровне класса.
+ * Каждый таймер хранит количество вызовов, их суммарное время и гистограмму задержек,
+ * тег exception отделяет вызовы, завершившиеся ошибкой.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "calorietracker.service";
+    public static final String REPORT_REQUESTS = "calorietracker.reports.requests";
+    public static final String DAILY_REPORTS_CACHE = "dailyReports";
+
+    // Преобразование в DTO вызывается другими сервисами на каждое блюдо и не является отдельной операцией
+    private static final String MAPPING_METHOD = "mapToDto";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        Predicate<ProceedingJoinPoint> skipMapping = joinPoint -> MAPPING_METHOD.equals(joinPoint.getSignature().getName());
+        return new TimedAspect(meterRegistry, skipMapping);
+    }
+
+    /**
+     * Запросы отчетов по типу: outcome=executed - отчет построен, outcome=coalesced - получен результат
+     * одновременного одинакового запроса
+     */
+    @Bean
+    public MeterBinder reportCoalescingMetrics(ReportRequestCoalescer coalescer) {
+        return registry -> {
+            for (ReportType type : ReportType.values()) {
+                FunctionCounter.builder(REPORT_REQUESTS, coalescer, c -> c.executionCount(type))
+                        .tag("type", type.name())
+                        .tag("outcome", "executed")
+                        .register(registry);
+                FunctionCounter.builder(REPORT_REQUESTS, coalescer, c -> c.coalescedCount(type))
+                        .tag("type", type.name())
+                        .tag("outcome", "coalesced")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Размер, попадания, промахи и вытеснения кэша дневных отчетов: метрики cache.* с тегом cache=dailyReports
+     */
+    @Bean
+    public MeterBinder dailyReportCacheMetrics(DailyReportCache dailyReportCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, dailyReportCache.synchronousView(), DAILY_REPORTS_CACHE);
+    }
+}
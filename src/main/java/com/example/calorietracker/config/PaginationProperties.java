@@ -0,0 +1,19 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.pagination")
+public class PaginationProperties {
+
+    /**
+     * Размер страницы по умолчанию
+     */
+    private int defaultSize = 50;
+
+    /**
+     * Максимальный размер страницы
+     */
+    private int maxSize = 200;
+}
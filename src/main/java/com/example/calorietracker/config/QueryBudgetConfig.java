@@ -0,0 +1,31 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.monitoring.QueryBudgetFilter;
+import com.example.calorietracker.monitoring.QueryStatsListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Учет JDBC-команд, строк и времени работы базы на каждый HTTP-запрос.
+ * Слушатель подключается к DataSource в DataSourceProxyConfig, фильтр открывает область учета на время запроса.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "calorie-tracker.query-budget", name = "enabled", matchIfMissing = true)
+public class QueryBudgetConfig {
+
+    @Bean
+    public QueryStatsListener queryStatsListener() {
+        return new QueryStatsListener();
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(QueryBudgetProperties properties) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(new QueryBudgetFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.query-budget")
+public class QueryBudgetProperties {
+
+    /**
+     * Включение учета обращений к базе на каждый HTTP-запрос
+     */
+    private boolean enabled = true;
+
+    /**
+     * Максимальное количество JDBC-команд на запрос
+     */
+    private long maxStatements = 20;
+
+    /**
+     * Максимальное количество прочитанных строк на запрос
+     */
+    private long maxRows = 10_000;
+
+    /**
+     * Максимальное суммарное время выполнения команд на запрос
+     */
+    private Duration maxDatabaseTime = Duration.ofMillis(500);
+
+    /**
+     * Подсчет прочитанных строк. Требует прокси на каждый ResultSet и обработки каждого вызова next(),
+     * поэтому по умолчанию выключен; без него max-rows не проверяется
+     */
+    private boolean countRows = false;
+
+    /**
+     * Пути потоковых ответов: их объем не ограничен, и бюджет к ним не применяется
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of(
+            "/api/reports/history/*/stream",
+            "/api/foods/export"));
+}
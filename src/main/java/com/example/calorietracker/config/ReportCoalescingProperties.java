@@ -0,0 +1,29 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.reports.coalescing")
+public class ReportCoalescingProperties {
+
+    /**
+     * Объединение одновременных одинаковых запросов дневного отчета
+     */
+    private boolean daily = true;
+
+    /**
+     * Объединение одновременных одинаковых запросов итогов за день
+     */
+    private boolean dailySummary = true;
+
+    /**
+     * Объединение одновременных одинаковых запросов истории питания
+     */
+    private boolean history = true;
+
+    /**
+     * Объединение одновременных одинаковых запросов сводной истории питания
+     */
+    private boolean historySummary = true;
+}
@@ -0,0 +1,42 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.monitoring.ServerTiming;
+import com.example.calorietracker.monitoring.ServerTimingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Заголовок Server-Timing: фильтр открывает область замеров после фильтра учета обращений к базе,
+ * JSON-конвертер замеряет фазу сериализации
+ */
+@Configuration
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(ServerTimingProperties properties) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.SERIALIZATION)) {
+                    super.writeInternal(object, type, outputMessage);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.server-timing")
+public class ServerTimingProperties {
+
+    /**
+     * Добавление заголовка Server-Timing ко всем ответам API
+     */
+    private boolean enabled = false;
+
+    /**
+     * Заголовок запроса, значение true которого включает Server-Timing для одного запроса
+     */
+    private String debugHeader = "X-Debug-Timing";
+
+    /**
+     * Пути потоковых ответов, которые нельзя буферизовать для добавления заголовка
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of(
+            "/api/reports/history/*/stream",
+            "/api/foods/export",
+            "/api/admin/jfr/stop"));
+}
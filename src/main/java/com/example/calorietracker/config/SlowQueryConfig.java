@@ -0,0 +1,19 @@
+package com.example.calorietracker.config;
+
+import com.example.calorietracker.monitoring.SlowQueryLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Журнал медленных запросов и статистика самых медленных видов запросов
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "calorie-tracker.slow-queries", name = "enabled", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties) {
+        return new SlowQueryLog(properties);
+    }
+}
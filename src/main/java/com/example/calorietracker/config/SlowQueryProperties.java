@@ -0,0 +1,46 @@
+package com.example.calorietracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "calorie-tracker.slow-queries")
+public class SlowQueryProperties {
+
+    /**
+     * Включение журнала медленных запросов и статистики по видам запросов
+     */
+    private boolean enabled = true;
+
+    /**
+     * Время выполнения, начиная с которого команда записывается в лог всегда
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Доля остальных команд, записываемых в лог выборочно (от 0 до 1)
+     */
+    private double sampleRate = 0.001;
+
+    /**
+     * Количество самых медленных видов запросов в статистике
+     */
+    private int topSize = 20;
+
+    /**
+     * Длительность окна статистики: учитываются текущее и предыдущее окно
+     */
+    private Duration window = Duration.ofMinutes(15);
+
+    /**
+     * Максимальное количество различных запросов в одном окне статистики
+     */
+    private int maxShapes = 1000;
+
+    /**
+     * Максимальная длина значения параметра в логе
+     */
+    private int maxParameterLength = 100;
+}
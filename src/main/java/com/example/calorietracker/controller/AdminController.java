@@ -0,0 +1,182 @@
+package com.example.calorietracker.controller;
+
+import com.example.calorietracker.config.EntityCacheConfig;
+import com.example.calorietracker.monitoring.SlowQueryLog;
+import com.example.calorietracker.service.FlightRecordingService;
+import com.example.calorietracker.service.ReportRequestCoalescer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Администрирование", description = "API для диагностики сервиса, доступ по заголовку X-Admin-Token")
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReportRequestCoalescer reportRequestCoalescer;
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+    private final FlightRecordingService flightRecordingService;
+
+    @Autowired
+    public AdminController(EntityManagerFactory entityManagerFactory, ReportRequestCoalescer reportRequestCoalescer,
+                           ObjectProvider<SlowQueryLog> slowQueryLog, FlightRecordingService flightRecordingService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.reportRequestCoalescer = reportRequestCoalescer;
+        this.slowQueryLog = slowQueryLog;
+        this.flightRecordingService = flightRecordingService;
+    }
+
+    @Operation(summary = "Статистика кэшей",
+            description = "Возвращает количество попаданий и промахов кэша второго уровня для блюд и пользователей. " +
+                    "Статистика кэша дневных отчетов публикуется метриками cache.* с тегом cache=dailyReports")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("foods", entityRegionStatistics(statistics, EntityCacheConfig.FOODS_REGION));
+        response.put("users", entityRegionStatistics(statistics, EntityCacheConfig.USERS_REGION));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Статистика объединения запросов отчетов",
+            description = "Возвращает для каждого типа отчета количество построений " +
+                    "и количество запросов, получивших результат одновременного одинакового запроса")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @GetMapping("/report-coalescing")
+    public ResponseEntity<Map<String, Object>> getReportCoalescingStatistics() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        for (ReportRequestCoalescer.ReportType type : ReportRequestCoalescer.ReportType.values()) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("enabled", reportRequestCoalescer.isEnabled(type));
+            report.put("executionCount", reportRequestCoalescer.executionCount(type));
+            report.put("coalescedCount", reportRequestCoalescer.coalescedCount(type));
+            response.put(type.name(), report);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Самые медленные запросы к базе",
+            description = "Возвращает виды SQL-запросов с наибольшим временем выполнения за текущее и предыдущее " +
+                    "окно статистики: количество выполнений, суммарное, среднее и максимальное время")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @GetMapping("/slow-queries")
+    public ResponseEntity<Map<String, Object>> getSlowQueries() {
+        SlowQueryLog queries = slowQueryLog.getIfAvailable();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", queries != null);
+        response.put("queries", queries == null ? List.of() : queries.topQueries().stream()
+                .map(AdminController::queryShape)
+                .toList());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Запуск записи JFR",
+            description = "Запускает запись Java Flight Recorder с профилем настроек default или profile. " +
+                    "По истечении длительности запись останавливается и хранится до выгрузки")
+    @ApiResponse(responseCode = "200", description = "Запись запущена")
+    @ApiResponse(responseCode = "400", description = "Запись уже ведется, неизвестный профиль или недопустимая длительность")
+    @PostMapping("/jfr/start")
+    public ResponseEntity<FlightRecordingService.RecordingStatus> startFlightRecording(
+            @Parameter(description = "Профиль настроек JFR", example = "profile")
+            @RequestParam(value = "settings", defaultValue = "profile") String settings,
+            @Parameter(description = "Длительность записи в секундах (по умолчанию 60, не больше 1800)", example = "60")
+            @RequestParam(value = "duration", required = false) Long durationSeconds) {
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null;
+        return ResponseEntity.ok(flightRecordingService.start(settings, duration));
+    }
+
+    @Operation(summary = "Состояние записи JFR", description = "Возвращает текущую запись JFR или пустой ответ")
+    @ApiResponse(responseCode = "200", description = "Запись ведется или ожидает выгрузки")
+    @ApiResponse(responseCode = "204", description = "Записи нет")
+    @GetMapping("/jfr")
+    public ResponseEntity<FlightRecordingService.RecordingStatus> getFlightRecording() {
+        return flightRecordingService.status()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @Operation(summary = "Остановка и выгрузка записи JFR",
+            description = "Останавливает запись, если она еще ведется, и передает файл .jfr")
+    @ApiResponse(responseCode = "200", description = "Файл записи передается")
+    @ApiResponse(responseCode = "400", description = "Запись не ведется")
+    @PostMapping("/jfr/stop")
+    public void stopFlightRecording(HttpServletResponse response) throws IOException {
+        Path file = flightRecordingService.stop();
+        try {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(Files.size(file));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + file.getFileName() + "\"");
+            Files.copy(file, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Map<String, Object> queryShape(SlowQueryLog.QueryShape shape) {
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("sql", shape.sql());
+        query.put("count", shape.count());
+        query.put("totalTimeMs", shape.totalTime().toMillis());
+        query.put("averageTimeMs", shape.averageTime().toNanos() / 1_000_000.0);
+        query.put("maxTimeMs", shape.maxTime().toNanos() / 1_000_000.0);
+        return query;
+    }
+
+    /**
+     * Статистика региона кэша второго уровня Hibernate
+     */
+    private static Map<String, Object> entityRegionStatistics(Statistics statistics, String regionName) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        CacheRegionStatistics regionStatistics = null;
+        try {
+            if (statistics.isStatisticsEnabled()) {
+                regionStatistics = statistics.getDomainDataRegionStatistics(regionName);
+            }
+        } catch (IllegalArgumentException e) {
+            // Кэш второго уровня выключен, и регион не создан
+        }
+        if (regionStatistics == null) {
+            region.put("enabled", false);
+            return region;
+        }
+
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        region.put("enabled", true);
+        region.put("size", regionStatistics.getElementCountInMemory());
+        region.put("hitCount", hits);
+        region.put("missCount", misses);
+        region.put("hitRate", hits + misses == 0 ? 1.0 : (double) hits / (hits + misses));
+        region.put("putCount", regionStatistics.getPutCount());
+        return region;
+    }
+}
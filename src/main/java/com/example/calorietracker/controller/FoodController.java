@@ -1,7 +1,12 @@
 package com.example.calorietracker.controller;
 
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.FoodImportResultDto;
+import com.example.calorietracker.dto.FoodSuggestionDto;
+import com.example.calorietracker.service.FoodImportService;
 import com.example.calorietracker.service.FoodService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -10,12 +15,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "Блюда", description = "API для управления блюдами")
@@ -23,11 +34,17 @@ import java.util.List;
 @RequestMapping("/api/foods")
 public class FoodController {
 
+    private static final String TEXT_CSV = "text/csv";
+
     private final FoodService foodService;
+    private final FoodImportService foodImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FoodController(FoodService foodService) {
+    public FoodController(FoodService foodService, FoodImportService foodImportService, ObjectMapper objectMapper) {
         this.foodService = foodService;
+        this.foodImportService = foodImportService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Создание нового блюда",
@@ -44,6 +61,25 @@ public class FoodController {
         return new ResponseEntity<>(foodService.createFood(foodDto), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Импорт каталога блюд",
+            description = "Добавляет и обновляет блюда из CSV с заголовком " +
+                    "name,caloriesPerServing,proteins,fats,carbohydrates или из NDJSON с объектом блюда на строку. " +
+                    "Блюда сопоставляются с каталогом по названию без учета регистра; " +
+                    "некорректные строки и повторы названий в файле отклоняются")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Импорт выполнен",
+                    content = @Content(schema = @Schema(implementation = FoodImportResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Файл пуст, превышает допустимый размер или без нужных столбцов")
+    })
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, NdjsonWriter.MEDIA_TYPE})
+    public ResponseEntity<FoodImportResultDto> importFoods(HttpServletRequest request) throws IOException {
+        FoodImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? FoodImportService.Format.CSV
+                : FoodImportService.Format.NDJSON;
+        return ResponseEntity.ok(foodImportService.importFoods(request.getInputStream(), format));
+    }
+
     @Operation(summary = "Обновление блюда",
             description = "Обновляет информацию о блюде")
     @ApiResponses(value = {
@@ -75,24 +111,75 @@ public class FoodController {
         return ResponseEntity.ok(foodService.getFoodById(foodId));
     }
 
-    @Operation(summary = "Получение списка всех блюд",
-            description = "Возвращает список всех доступных блюд")
-    @ApiResponse(responseCode = "200", description = "Список блюд успешно получен",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = FoodDto.class))))
+    @Operation(summary = "Получение списка блюд",
+            description = "Возвращает страницу блюд в порядке идентификаторов; " +
+                    "следующая страница запрашивается по курсору из ответа")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница блюд успешно получена",
+                    content = @Content(schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
+    })
     @GetMapping
-    public ResponseEntity<List<FoodDto>> getAllFoods() {
-        return ResponseEntity.ok(foodService.getAllFoods());
+    public ResponseEntity<CursorPageDto<FoodDto>> getFoods(
+            @Parameter(description = "Курсор из поля nextCursor предыдущей страницы")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы (по умолчанию 50, не больше 200)", example = "50")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(foodService.getFoods(cursor, size));
+    }
+
+    @Operation(summary = "Выгрузка каталога блюд",
+            description = "Возвращает весь каталог или блюда, измененные начиная с updatedSince, в формате NDJSON: " +
+                    "одна строка на блюдо, блюда передаются по мере чтения")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Каталог блюд передается",
+                    content = @Content(mediaType = NdjsonWriter.MEDIA_TYPE,
+                            schema = @Schema(implementation = FoodDto.class)))
+    })
+    @GetMapping("/export")
+    public void exportFoods(
+            @Parameter(description = "Выгрузить только блюда, измененные начиная с этого момента (YYYY-MM-DDTHH:MM:SS)",
+                    example = "2025-03-30T00:00:00")
+            @RequestParam(value = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            foodService.exportFoods(updatedSince, writer::write);
+        }
+    }
+
+    @Operation(summary = "Подсказки блюд при вводе названия",
+            description = "Возвращает блюда, одно из слов названия которых начинается с указанной строки, " +
+                    "в порядке популярности; в ответе только идентификатор, название и калорийность")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Подсказки успешно получены",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = FoodSuggestionDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Некорректное количество подсказок")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<FoodSuggestionDto>> autocompleteFoods(
+            @Parameter(description = "Начало названия или одного из его слов", required = true, example = "кур")
+            @RequestParam("prefix") String prefix,
+            @Parameter(description = "Максимальное количество подсказок (по умолчанию 10, не больше 50)", example = "10")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(foodService.autocompleteFoods(prefix, limit));
     }
 
     @Operation(summary = "Поиск блюд по названию",
-            description = "Возвращает список блюд, названия которых содержат указанную строку")
-    @ApiResponse(responseCode = "200", description = "Поиск выполнен успешно",
-            content = @Content(array = @ArraySchema(schema = @Schema(implementation = FoodDto.class))))
+            description = "Возвращает блюда, упорядоченные по релевантности: точные и префиксные совпадения, " +
+                    "вхождения строки, затем названия с опечатками")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поиск выполнен успешно",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = FoodDto.class)))),
+            @ApiResponse(responseCode = "400", description = "Некорректное количество результатов")
+    })
     @GetMapping("/search")
     public ResponseEntity<List<FoodDto>> searchFoodByName(
             @Parameter(description = "Строка для поиска в названиях блюд", required = true, example = "курин")
-            @RequestParam("name") String name) {
-        return ResponseEntity.ok(foodService.searchFoodByName(name));
+            @RequestParam("name") String name,
+            @Parameter(description = "Максимальное количество результатов (по умолчанию 20, не больше 100)", example = "20")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(foodService.searchFoodByName(name, limit));
     }
 
     @Operation(summary = "Удаление блюда",
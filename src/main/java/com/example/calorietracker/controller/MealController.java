@@ -1,5 +1,7 @@
 package com.example.calorietracker.controller;
 
+import com.example.calorietracker.dto.CursorPageDto;
+import com.example.calorietracker.dto.MealBatchResultDto;
 import com.example.calorietracker.dto.MealDto;
 import com.example.calorietracker.service.MealService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -47,6 +49,20 @@ public class MealController {
         return new ResponseEntity<>(mealService.createMeal(mealDto), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Пакетное создание приемов пищи",
+            description = "Создает до нескольких тысяч приемов пищи за один запрос и возвращает результат по каждому элементу")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет обработан",
+                    content = @Content(schema = @Schema(implementation = MealBatchResultDto.class))),
+            @ApiResponse(responseCode = "400", description = "Пакет пуст или превышает допустимый размер")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<MealBatchResultDto> createMeals(
+            @Parameter(description = "Список приемов пищи", required = true)
+            @RequestBody List<MealDto> mealDtos) {
+        return ResponseEntity.ok(mealService.createMeals(mealDtos));
+    }
+
     @Operation(summary = "Обновление приема пищи",
             description = "Обновляет информацию о приеме пищи и его составе")
     @ApiResponses(value = {
@@ -112,6 +128,26 @@ public class MealController {
         return ResponseEntity.ok(mealService.getUserMealsByDateRange(userId, startDate, endDate));
     }
 
+    @Operation(summary = "Получение ленты приемов пищи пользователя",
+            description = "Возвращает страницу приемов пищи пользователя в порядке даты, времени и идентификатора; " +
+                    "следующая страница запрашивается по курсору из ответа")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница приемов пищи успешно получена",
+                    content = @Content(schema = @Schema(implementation = CursorPageDto.class))),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @GetMapping("/user/{userId}/timeline")
+    public ResponseEntity<CursorPageDto<MealDto>> getUserMealTimeline(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Курсор из поля nextCursor предыдущей страницы")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы (по умолчанию 50, не больше 200)", example = "50")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(mealService.getUserMealTimeline(userId, cursor, size));
+    }
+
     @Operation(summary = "Удаление приема пищи",
             description = "Удаляет прием пищи по его идентификатору")
     @ApiResponses(value = {
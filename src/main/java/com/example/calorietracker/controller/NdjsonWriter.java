@@ -0,0 +1,65 @@
+package com.example.calorietracker.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Запись ответа в формате NDJSON: один JSON-объект на строку, без накопления всего ответа в памяти.
+ * Ответ открывается при первой записи, поэтому ошибки до нее возвращаются обычным обработчиком исключений
+ */
+class NdjsonWriter implements Closeable {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+    private final HttpServletResponse response;
+    private final ObjectWriter writer;
+    private JsonGenerator generator;
+
+    NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+        // Сброс в сокет происходит по заполнению буфера ответа, а не после каждой строки
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Запись одного объекта отдельной строкой
+     */
+    void write(Object value) {
+        try {
+            if (generator == null) {
+                open();
+            }
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open() throws IOException {
+        response.setContentType(MEDIA_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        generator = objectMapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        // Строки разделяются переводом строки, а не пробелом по умолчанию
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.calorietracker.controller;
 
 import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.DailySummaryDto;
+import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.service.ReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -10,11 +13,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -25,25 +30,37 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ObjectMapper objectMapper) {
         this.reportService = reportService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Получение отчета о питании за день",
-            description = "Возвращает детальный отчет о питании пользователя за указанную дату")
+            description = "Возвращает детальный отчет о питании пользователя за указанную дату; " +
+                    "при view=summary возвращаются только итоги, посчитанные в базе данных")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Отчет успешно получен",
-                    content = @Content(schema = @Schema(implementation = DailyReportDto.class))),
+                    content = @Content(schema = @Schema(oneOf = {DailyReportDto.class, DailySummaryDto.class}))),
+            @ApiResponse(responseCode = "400", description = "Неизвестный вид отчета"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     @GetMapping("/daily/{userId}/{date}")
-    public ResponseEntity<DailyReportDto> getDailyReport(
+    public ResponseEntity<?> getDailyReport(
             @Parameter(description = "ID пользователя", required = true, example = "1")
             @PathVariable("userId") Long userId,
             @Parameter(description = "Дата (YYYY-MM-DD)", required = true, example = "2025-03-30")
-            @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "Вид отчета: full или summary", example = "full")
+            @RequestParam(value = "view", defaultValue = VIEW_FULL) String view) {
+        if (isSummaryView(view)) {
+            return ResponseEntity.ok(reportService.getDailySummary(userId, date));
+        }
         return ResponseEntity.ok(reportService.getDailyReport(userId, date));
     }
 
@@ -60,38 +77,113 @@ public class ReportController {
             @Parameter(description = "Дата (YYYY-MM-DD)", required = true, example = "2025-03-30")
             @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
 
-        DailyReportDto report = reportService.getDailyReport(userId, date);
+        DailySummaryDto summary = reportService.getDailySummary(userId, date);
 
         Map<String, Object> response = Map.of(
                 "userId", userId,
                 "date", date,
-                "dailyCalorieTarget", report.getDailyCalorieTarget(),
-                "caloriesConsumed", report.getTotalCaloriesConsumed(),
-                "withinTarget", report.getWithinCalorieTarget(),
-                "calorieDeficit", report.getCalorieDeficit()
+                "dailyCalorieTarget", summary.getDailyCalorieTarget(),
+                "caloriesConsumed", summary.getTotalCaloriesConsumed(),
+                "withinTarget", summary.getWithinCalorieTarget(),
+                "calorieDeficit", summary.getCalorieDeficit()
         );
 
         return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Получение истории питания по дням за указанный период",
-            description = "Возвращает историю питания пользователя по дням за указанный период")
+            description = "Возвращает историю питания пользователя по дням за указанный период; " +
+                    "при view=summary возвращаются только итоги по дням")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "История питания успешно получена",
-                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = DailyReportDto.class)))),
+                    content = @Content(array = @ArraySchema(schema = @Schema(oneOf = {DailyReportDto.class, DailySummaryDto.class})))),
+            @ApiResponse(responseCode = "400", description = "Неизвестный вид отчета"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден")
     })
     @GetMapping("/history/{userId}")
-    public ResponseEntity<List<DailyReportDto>> getFeedingHistory(
+    public ResponseEntity<?> getFeedingHistory(
             @Parameter(description = "ID пользователя", required = true, example = "1")
             @PathVariable("userId") Long userId,
             @Parameter(description = "Дата начала периода (YYYY-MM-DD)", required = true, example = "2025-03-30")
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @Parameter(description = "Дата окончания периода (YYYY-MM-DD)", required = true, example = "2025-03-31")
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Вид отчета: full или summary", example = "full")
+            @RequestParam(value = "view", defaultValue = VIEW_FULL) String view) {
+        if (isSummaryView(view)) {
+            return ResponseEntity.ok(reportService.getDailySummaryHistory(userId, startDate, endDate));
+        }
         return ResponseEntity.ok(reportService.getFeedingHistoryByDateRange(userId, startDate, endDate));
     }
 
+    @Operation(summary = "Потоковое получение истории питания по дням",
+            description = "Возвращает историю питания за произвольный период в формате NDJSON: " +
+                    "одна строка с отчетом на каждый день, дни передаются по мере чтения")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "История питания передается",
+                    content = @Content(mediaType = NdjsonWriter.MEDIA_TYPE,
+                            schema = @Schema(implementation = DailyReportDto.class))),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @GetMapping("/history/{userId}/stream")
+    public void streamFeedingHistory(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Дата начала периода (YYYY-MM-DD)", required = true, example = "2024-01-01")
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Дата окончания периода (YYYY-MM-DD)", required = true, example = "2025-12-31")
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            reportService.streamFeedingHistory(userId, startDate, endDate, writer::write);
+        }
+    }
+
+    @Operation(summary = "Получение сводной истории питания по дням",
+            description = "Возвращает итоги питания по дням за период до 366 дней без списка приемов пищи")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Сводка успешно получена",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = DailySummaryDto.class)))),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @GetMapping("/history/{userId}/summary")
+    public ResponseEntity<List<DailySummaryDto>> getFeedingHistorySummary(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Дата начала периода (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Дата окончания периода (YYYY-MM-DD)", required = true, example = "2025-12-31")
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(reportService.getDailySummaryHistory(userId, startDate, endDate));
+    }
+
+    @Operation(summary = "Перестроение итогов по дням",
+            description = "Пересчитывает сохраненные итоги пользователя по дням за указанный период")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Итоги успешно перестроены"),
+            @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    })
+    @PostMapping("/daily-totals/{userId}/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDailyTotals(
+            @Parameter(description = "ID пользователя", required = true, example = "1")
+            @PathVariable("userId") Long userId,
+            @Parameter(description = "Дата начала периода (YYYY-MM-DD)", required = true, example = "2025-01-01")
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Дата окончания периода (YYYY-MM-DD)", required = true, example = "2025-12-31")
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        int daysRebuilt = reportService.rebuildDailyTotals(userId, startDate, endDate);
+
+        Map<String, Object> response = Map.of(
+                "userId", userId,
+                "startDate", startDate,
+                "endDate", endDate,
+                "daysRebuilt", daysRebuilt
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Получение дат, в которые пользователь принимал пищу",
             description = "Возвращает список дат, в которые пользователь принимал пищу")
     @ApiResponses(value = {
@@ -104,4 +196,14 @@ public class ReportController {
             @PathVariable("userId") Long userId) {
         return ResponseEntity.ok(reportService.getUserMealDates(userId));
     }
-}
\ No newline at end of file
+
+    private boolean isSummaryView(String view) {
+        if (VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            return true;
+        }
+        if (VIEW_FULL.equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new InvalidDataException("Неизвестный вид отчета: " + view + ". Допустимые значения: full, summary");
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.calorietracker.controller;
 
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.UserDto;
 import com.example.calorietracker.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,8 +16,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Tag(name = "Пользователи", description = "API для управления пользователями")
 @RestController
 @RequestMapping("/api/users")
@@ -74,12 +73,20 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(userId));
     }
 
-    @Operation(summary = "Получение списка всех пользователей",
-            description = "Возвращает список всех зарегистрированных пользователей")
-    @ApiResponse(responseCode = "200", description = "Список пользователей успешно получен")
+    @Operation(summary = "Получение списка пользователей",
+            description = "Возвращает страницу зарегистрированных пользователей в порядке идентификаторов; " +
+                    "следующая страница запрашивается по курсору из ответа")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница пользователей успешно получена"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер страницы")
+    })
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<CursorPageDto<UserDto>> getUsers(
+            @Parameter(description = "Курсор из поля nextCursor предыдущей страницы")
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @Parameter(description = "Размер страницы (по умолчанию 50, не больше 200)", example = "50")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(userService.getUsers(cursor, size));
     }
 
     @Operation(summary = "Удаление пользователя",
@@ -0,0 +1,27 @@
+package com.example.calorietracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Страница списка с курсором для перехода к следующей странице")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    @Schema(description = "Элементы страницы")
+    private List<T> items = new ArrayList<>();
+
+    @Schema(description = "Курсор следующей страницы; отсутствует на последней странице", example = "MjA")
+    private String nextCursor;
+
+    @Schema(description = "Признак наличия следующей страницы", example = "true")
+    private Boolean hasMore;
+}
@@ -1,5 +1,6 @@
 package com.example.calorietracker.dto;
 
+import com.example.calorietracker.model.NutritionAccumulator;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -50,11 +51,19 @@ public class DailyReportDto {
     @Schema(description = "Список приемов пищи за день")
     private List<MealDto> meals = new ArrayList<>();
 
+    /**
+     * Итог дня - сумма сохраненных итогов приемов пищи, как в daily_totals и агрегирующих запросах
+     */
     public void calculateTotals() {
-        this.totalCaloriesConsumed = meals.stream().mapToInt(MealDto::getTotalCalories).sum();
-        this.totalProteinsConsumed = meals.stream().mapToDouble(MealDto::getTotalProteins).sum();
-        this.totalFatsConsumed = meals.stream().mapToDouble(MealDto::getTotalFats).sum();
-        this.totalCarbohydratesConsumed = meals.stream().mapToDouble(MealDto::getTotalCarbohydrates).sum();
+        NutritionAccumulator totals = new NutritionAccumulator();
+        for (MealDto meal : meals) {
+            totals.addTotals(meal.getTotalCalories(), meal.getTotalProteins(), meal.getTotalFats(),
+                    meal.getTotalCarbohydrates());
+        }
+        this.totalCaloriesConsumed = totals.calories();
+        this.totalProteinsConsumed = totals.proteins();
+        this.totalFatsConsumed = totals.fats();
+        this.totalCarbohydratesConsumed = totals.carbohydrates();
 
         this.withinCalorieTarget = this.totalCaloriesConsumed <= this.dailyCalorieTarget;
         this.calorieDeficit = this.dailyCalorieTarget - this.totalCaloriesConsumed;
@@ -0,0 +1,52 @@
+package com.example.calorietracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Schema(description = "Итоги питания за день без списка приемов пищи")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySummaryDto {
+
+    @Schema(description = "Идентификатор пользователя", example = "1")
+    private Long userId;
+
+    @Schema(description = "Дата", example = "2025-03-30")
+    private LocalDate date;
+
+    @Schema(description = "Дневная норма калорий", example = "2100")
+    private Integer dailyCalorieTarget;
+
+    @Schema(description = "Количество приемов пищи", example = "4")
+    private Integer mealCount;
+
+    @Schema(description = "Общее количество потребленных калорий", example = "1850")
+    private Integer totalCaloriesConsumed;
+
+    @Schema(description = "Общее количество потребленных белков в граммах", example = "96.5")
+    private Double totalProteinsConsumed;
+
+    @Schema(description = "Общее количество потребленных жиров в граммах", example = "45.2")
+    private Double totalFatsConsumed;
+
+    @Schema(description = "Общее количество потребленных углеводов в граммах", example = "180.0")
+    private Double totalCarbohydratesConsumed;
+
+    @Schema(description = "Признак соответствия дневной нормы калорий", example = "true")
+    private Boolean withinCalorieTarget;
+
+    @Schema(description = "Дефицит калорий (отрицательное значение означает избыток)", example = "250")
+    private Integer calorieDeficit;
+
+    public void calculateTargetStatus() {
+        this.withinCalorieTarget = this.totalCaloriesConsumed <= this.dailyCalorieTarget;
+        this.calorieDeficit = this.dailyCalorieTarget - this.totalCaloriesConsumed;
+    }
+}
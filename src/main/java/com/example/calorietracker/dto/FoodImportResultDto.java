@@ -0,0 +1,53 @@
+package com.example.calorietracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Результат импорта каталога блюд")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodImportResultDto {
+
+    @Schema(description = "Количество строк с блюдами в файле", example = "4")
+    private Integer total;
+
+    @Schema(description = "Количество добавленных блюд", example = "2")
+    private Integer inserted;
+
+    @Schema(description = "Количество обновленных блюд", example = "1")
+    private Integer updated;
+
+    @Schema(description = "Количество блюд, совпавших с каталогом без изменений", example = "0")
+    private Integer unchanged;
+
+    @Schema(description = "Количество отклоненных строк", example = "1")
+    private Integer rejected;
+
+    @Schema(description = "Ошибки по отклоненным строкам в порядке файла")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Schema(description = "Ошибка в строке файла импорта")
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        @Schema(description = "Номер строки в файле", example = "5")
+        private Integer line;
+
+        @Schema(description = "Название блюда из строки", example = "Куриная грудка")
+        private String name;
+
+        @Schema(description = "Описание ошибки", example = "Название повторяет блюдо из строки 2")
+        private String error;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.calorietracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Подсказка блюда при вводе названия")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSuggestionDto {
+
+    @Schema(description = "Идентификатор блюда", example = "1")
+    private Long id;
+
+    @Schema(description = "Название блюда", example = "Куриная грудка")
+    private String name;
+
+    @Schema(description = "Количество калорий на порцию", example = "165")
+    private Integer caloriesPerServing;
+}
@@ -0,0 +1,50 @@
+package com.example.calorietracker.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Результат пакетного создания приемов пищи")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealBatchResultDto {
+
+    @Schema(description = "Количество приемов пищи в запросе", example = "3")
+    private Integer total;
+
+    @Schema(description = "Количество созданных приемов пищи", example = "2")
+    private Integer created;
+
+    @Schema(description = "Количество отклоненных приемов пищи", example = "1")
+    private Integer failed;
+
+    @Schema(description = "Результаты по каждому элементу в порядке запроса")
+    private List<ItemResult> items = new ArrayList<>();
+
+    @Schema(description = "Результат обработки одного приема пищи из пакета")
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+
+        @Schema(description = "Позиция элемента в запросе", example = "0")
+        private Integer index;
+
+        @Schema(description = "Признак успешного создания", example = "true")
+        private Boolean success;
+
+        @Schema(description = "Идентификатор созданного приема пищи", example = "101")
+        private Long mealId;
+
+        @Schema(description = "Описание ошибки", example = "Блюда не найдены с id : [42]")
+        private String error;
+    }
+}
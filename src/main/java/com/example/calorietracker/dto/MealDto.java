@@ -59,11 +59,4 @@ public class MealDto {
 
     @Schema(description = "Общее количество углеводов в граммах", example = "85.0")
     private Double totalCarbohydrates;
-
-    public void calculateTotals() {
-        this.totalCalories = mealFoods.stream().mapToInt(MealFoodDto::getCalories).sum();
-        this.totalProteins = mealFoods.stream().mapToDouble(MealFoodDto::getProteins).sum();
-        this.totalFats = mealFoods.stream().mapToDouble(MealFoodDto::getFats).sum();
-        this.totalCarbohydrates = mealFoods.stream().mapToDouble(MealFoodDto::getCarbohydrates).sum();
-    }
-}
\ No newline at end of file
+}
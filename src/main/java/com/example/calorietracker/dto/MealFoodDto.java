@@ -1,5 +1,6 @@
 package com.example.calorietracker.dto;
 
+import com.example.calorietracker.model.NutritionAccumulator;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -43,11 +44,16 @@ public class MealFoodDto {
     @Schema(description = "Количество углеводов с учетом порций в граммах", example = "0.0")
     private Double carbohydrates;
 
-    public void calculateNutrition(FoodDto food) {
+    /**
+     * Расчет пищевой ценности порции; накопитель очищается и переиспользуется для всех блюд одного преобразования
+     */
+    public void calculateNutrition(FoodDto food, NutritionAccumulator portion) {
+        portion.reset().addPortion(food.getCaloriesPerServing(),
+                food.getProteins(), food.getFats(), food.getCarbohydrates(), this.servings);
         this.foodName = food.getName();
-        this.calories = (int) (food.getCaloriesPerServing() * this.servings);
-        this.proteins = food.getProteins() * this.servings;
-        this.fats = food.getFats() * this.servings;
-        this.carbohydrates = food.getCarbohydrates() * this.servings;
+        this.calories = portion.calories();
+        this.proteins = portion.proteins();
+        this.fats = portion.fats();
+        this.carbohydrates = portion.carbohydrates();
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.calorietracker.event;
+
+import com.example.calorietracker.dto.FoodDto;
+
+/**
+ * Блюдо создано, изменено или удалено; для удаленного блюда food равно null
+ */
+public record FoodChangedEvent(Long foodId, Type type, FoodDto food) {
+
+    public static FoodChangedEvent created(FoodDto food) {
+        return new FoodChangedEvent(food.getId(), Type.CREATED, food);
+    }
+
+    public static FoodChangedEvent updated(FoodDto food) {
+        return new FoodChangedEvent(food.getId(), Type.UPDATED, food);
+    }
+
+    public static FoodChangedEvent deleted(Long foodId) {
+        return new FoodChangedEvent(foodId, Type.DELETED, null);
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
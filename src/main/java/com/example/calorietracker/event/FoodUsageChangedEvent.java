@@ -0,0 +1,9 @@
+package com.example.calorietracker.event;
+
+import java.util.Map;
+
+/**
+ * Изменилось число записей приемов пищи с блюдами: приращение по идентификатору блюда
+ */
+public record FoodUsageChangedEvent(Map<Long, Long> deltas) {
+}
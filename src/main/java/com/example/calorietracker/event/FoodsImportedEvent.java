@@ -0,0 +1,22 @@
+package com.example.calorietracker.event;
+
+import com.example.calorietracker.dto.FoodDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Порция импорта каталога добавила и изменила блюда; публикуется одно событие на порцию
+ */
+public record FoodsImportedEvent(List<FoodDto> created, List<FoodDto> updated) {
+
+    /**
+     * Изменения порции в виде отдельных событий по блюдам
+     */
+    public List<FoodChangedEvent> changes() {
+        List<FoodChangedEvent> changes = new ArrayList<>(created.size() + updated.size());
+        created.forEach(food -> changes.add(FoodChangedEvent.created(food)));
+        updated.forEach(food -> changes.add(FoodChangedEvent.updated(food)));
+        return changes;
+    }
+}
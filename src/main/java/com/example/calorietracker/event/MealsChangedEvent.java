@@ -0,0 +1,13 @@
+package com.example.calorietracker.event;
+
+import java.time.LocalDate;
+
+/**
+ * Приемы пищи пользователя за период были созданы, изменены или удалены
+ */
+public record MealsChangedEvent(Long userId, LocalDate startDate, LocalDate endDate) {
+
+    public MealsChangedEvent(Long userId, LocalDate date) {
+        this(userId, date, date);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.calorietracker.event;
+
+/**
+ * Изменились данные пользователя, влияющие на отчеты, или пользователь удален
+ */
+public record UserChangedEvent(Long userId) {
+}
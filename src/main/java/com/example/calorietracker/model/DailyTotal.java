@@ -0,0 +1,42 @@
+package com.example.calorietracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_totals")
+@IdClass(DailyTotalId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotal {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "meal_date", nullable = false)
+    private LocalDate mealDate;
+
+    @Column(name = "meal_count", nullable = false)
+    private Integer mealCount;
+
+    @Column(name = "total_calories", nullable = false)
+    private Integer totalCalories;
+
+    @Column(name = "total_proteins", nullable = false)
+    private Double totalProteins;
+
+    @Column(name = "total_fats", nullable = false)
+    private Double totalFats;
+
+    @Column(name = "total_carbohydrates", nullable = false)
+    private Double totalCarbohydrates;
+}
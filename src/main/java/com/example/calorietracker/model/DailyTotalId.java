@@ -0,0 +1,18 @@
+package com.example.calorietracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyTotalId implements Serializable {
+
+    private Long userId;
+
+    private LocalDate mealDate;
+}
@@ -1,9 +1,12 @@
 package com.example.calorietracker.model;
 
+import com.example.calorietracker.config.EntityCacheConfig;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,6 +18,8 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.FOODS_REGION)
 @Table(name = "foods")
 @Data
 @Builder
@@ -23,7 +28,8 @@ import java.time.LocalDateTime;
 public class Food {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foods_seq")
+    @SequenceGenerator(name = "foods_seq", sequenceName = "foods_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Название блюда не может быть пустым")
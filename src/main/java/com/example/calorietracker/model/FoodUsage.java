@@ -0,0 +1,25 @@
+package com.example.calorietracker.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+
+/**
+ * Число записей приемов пищи с блюдом, по нему ранжируются подсказки
+ */
+@Entity
+@Table(name = "food_usage")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodUsage {
+
+    @Id
+    @Column(name = "food_id", nullable = false)
+    private Long foodId;
+
+    @Column(name = "usage_count", nullable = false)
+    private Long usageCount;
+}
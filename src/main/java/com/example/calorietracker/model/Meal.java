@@ -25,8 +25,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Meal {
 
+    // Последовательность с шагом 50 позволяет Hibernate выделять id заранее и группировать INSERT в пакеты
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meals_seq")
+    @SequenceGenerator(name = "meals_seq", sequenceName = "meals_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -49,6 +51,19 @@ public class Meal {
     @OneToMany(mappedBy = "meal", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MealFood> mealFoods = new ArrayList<>();
 
+    // Итоги по приему пищи рассчитываются при записи, чтобы чтение не требовало состава и блюд
+    @Column(name = "total_calories", nullable = false)
+    private Integer totalCalories;
+
+    @Column(name = "total_proteins", nullable = false)
+    private Double totalProteins;
+
+    @Column(name = "total_fats", nullable = false)
+    private Double totalFats;
+
+    @Column(name = "total_carbohydrates", nullable = false)
+    private Double totalCarbohydrates;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -56,11 +71,20 @@ public class Meal {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
-    public int calculateTotalCalories() {
-        return mealFoods.stream()
-                .mapToInt(mealFood -> (int) (mealFood.getFood().getCaloriesPerServing() * mealFood.getServings()))
-                .sum();
+
+    public void calculateTotals() {
+        NutritionAccumulator totals = new NutritionAccumulator();
+        for (MealFood mealFood : mealFoods) {
+            Food food = mealFood.getFood();
+            totals.addPortion(food.getCaloriesPerServing(), food.getProteins(), food.getFats(),
+                    food.getCarbohydrates(), mealFood.getServings());
+        }
+        this.totalCalories = totals.calories();
+        this.totalProteins = totals.proteins();
+        this.totalFats = totals.fats();
+        this.totalCarbohydrates = totals.carbohydrates();
     }
+
     public void addMealFood(MealFood mealFood) {
         mealFoods.add(mealFood);
         mealFood.setMeal(this);
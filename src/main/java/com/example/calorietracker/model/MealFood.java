@@ -19,8 +19,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class MealFood {
 
+    // Последовательность с шагом 50 позволяет Hibernate выделять id заранее и группировать INSERT в пакеты
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_foods_seq")
+    @SequenceGenerator(name = "meal_foods_seq", sequenceName = "meal_foods_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,109 @@
+package com.example.calorietracker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Сумма пищевой ценности в фиксированной точке: все четыре показателя накапливаются в long за один проход
+ * без упаковки и без округления слагаемых. Округление выполняется один раз при чтении итога:
+ * калории до целых, граммы до сотых, половина округляется вверх.
+ */
+public final class NutritionAccumulator {
+
+    // Количество порций и пищевая ценность порции хранятся с точностью до тысячных
+    private static final long SERVINGS_SCALE = 1_000;
+    private static final long VALUE_SCALE = 1_000;
+    private static final long TOTAL_SCALE = SERVINGS_SCALE * VALUE_SCALE;
+    private static final long GRAMS_PRECISION = 100;
+    // Дробная часть ближе к половине, чем на эту величину, проверяется по десятичной записи
+    private static final double HALF_TOLERANCE = 1e-6;
+
+    private long calories;
+    private long proteins;
+    private long fats;
+    private long carbohydrates;
+
+    /**
+     * Добавление порций блюда с пищевой ценностью на одну порцию
+     */
+    public NutritionAccumulator addPortion(int caloriesPerServing, double proteinsPerServing, double fatsPerServing,
+                                           double carbohydratesPerServing, double servings) {
+        long scaledServings = toFixed(servings, SERVINGS_SCALE);
+        calories += caloriesPerServing * VALUE_SCALE * scaledServings;
+        proteins += toFixed(proteinsPerServing, VALUE_SCALE) * scaledServings;
+        fats += toFixed(fatsPerServing, VALUE_SCALE) * scaledServings;
+        carbohydrates += toFixed(carbohydratesPerServing, VALUE_SCALE) * scaledServings;
+        return this;
+    }
+
+    /**
+     * Добавление неокругленной суммы другого накопителя, например порции блюда в итог приема пищи
+     */
+    public NutritionAccumulator add(NutritionAccumulator other) {
+        calories += other.calories;
+        proteins += other.proteins;
+        fats += other.fats;
+        carbohydrates += other.carbohydrates;
+        return this;
+    }
+
+    /**
+     * Добавление итогов приема пищи, уже округленных до целых калорий и сотых граммов.
+     * Такие значения переводятся в фиксированную точку без потерь, поэтому сумма не округляется повторно
+     * и совпадает с ROUND(SUM(...), 2) по сохраненным итогам в daily_totals и агрегирующих запросах
+     */
+    public NutritionAccumulator addTotals(int totalCalories, double totalProteins, double totalFats,
+                                          double totalCarbohydrates) {
+        calories += totalCalories * TOTAL_SCALE;
+        proteins += toFixed(totalProteins, TOTAL_SCALE);
+        fats += toFixed(totalFats, TOTAL_SCALE);
+        carbohydrates += toFixed(totalCarbohydrates, TOTAL_SCALE);
+        return this;
+    }
+
+    public NutritionAccumulator reset() {
+        calories = 0;
+        proteins = 0;
+        fats = 0;
+        carbohydrates = 0;
+        return this;
+    }
+
+    public int calories() {
+        return Math.toIntExact(roundDiv(calories, TOTAL_SCALE));
+    }
+
+    public double proteins() {
+        return grams(proteins);
+    }
+
+    public double fats() {
+        return grams(fats);
+    }
+
+    public double carbohydrates() {
+        return grams(carbohydrates);
+    }
+
+    private static double grams(long total) {
+        return roundDiv(total, TOTAL_SCALE / GRAMS_PRECISION) / (double) GRAMS_PRECISION;
+    }
+
+    /**
+     * Перевод в фиксированную точку с округлением по десятичной записи числа, как ROUND в базе:
+     * 0.3335 * 1000 в double дает 333.49999999999994, но в базе 0.3335 округляется до 0.334
+     */
+    private static long toFixed(double value, long scale) {
+        double scaled = value * scale;
+        if (Math.abs(scaled - Math.floor(scaled) - 0.5) > HALF_TOLERANCE) {
+            return Math.round(scaled);
+        }
+        return BigDecimal.valueOf(value).multiply(BigDecimal.valueOf(scale))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    private static long roundDiv(long value, long divisor) {
+        return Math.floorDiv(value + divisor / 2, divisor);
+    }
+}
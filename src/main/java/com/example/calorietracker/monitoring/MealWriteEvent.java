@@ -0,0 +1,51 @@
+package com.example.calorietracker.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR для записи приемов пищи: длительность операции и объем записанных данных.
+ * Вне записи JFR событие выключено и почти ничего не стоит
+ */
+@Name("com.example.calorietracker.MealWrite")
+@Label("Meal Write")
+@Category("Calorie Tracker")
+@Description("Создание, пакетное создание, изменение или удаление приемов пищи")
+@StackTrace(false)
+public class MealWriteEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("User Id")
+    @Description("Пользователь; 0, если пакет содержит приемы пищи нескольких пользователей")
+    private long userId;
+
+    @Label("Meal Count")
+    private int mealCount;
+
+    @Label("Item Count")
+    @Description("Количество блюд во всех приемах пищи")
+    private int itemCount;
+
+    public static MealWriteEvent start(String operation) {
+        MealWriteEvent event = new MealWriteEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void finish(long userId, int mealCount, int itemCount) {
+        end();
+        if (shouldCommit()) {
+            this.userId = userId;
+            this.mealCount = mealCount;
+            this.itemCount = itemCount;
+            commit();
+        }
+    }
+}
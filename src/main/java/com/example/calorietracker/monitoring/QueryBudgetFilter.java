@@ -0,0 +1,55 @@
+package com.example.calorietracker.monitoring;
+
+import com.example.calorietracker.config.QueryBudgetProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Учет обращений к базе на каждый HTTP-запрос и предупреждение в лог при превышении бюджета.
+ * Потоковые ответы не ограничены по объему и исключаются (calorie-tracker.query-budget.excluded-paths)
+ */
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final QueryBudgetProperties properties;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public QueryBudgetFilter(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats.close();
+            if (exceedsBudget(stats)) {
+                log.warn("Запрос {} {} превысил бюджет обращений к базе: {}",
+                        request.getMethod(), request.getRequestURI(), stats);
+            }
+        }
+    }
+
+    private boolean exceedsBudget(QueryStats stats) {
+        return stats.getStatements() > properties.getMaxStatements()
+                || properties.isCountRows() && stats.getRows() > properties.getMaxRows()
+                || stats.getDatabaseTime().compareTo(properties.getMaxDatabaseTime()) > 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.calorietracker.monitoring;
+
+import java.time.Duration;
+
+/**
+ * Счетчики обращений к базе в пределах области текущего потока, обычно одного HTTP-запроса:
+ * число выполненных JDBC-команд, прочитанных строк и время выполнения.
+ * Области могут быть вложенными, обращения внутренней области учитываются и во всех внешних
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private long statements;
+    private long rows;
+    private long databaseNanos;
+    private boolean closed;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Начало новой области учета в текущем потоке
+     */
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Выполнение действия с подсчетом обращений к базе
+     */
+    public static QueryStats capture(Runnable action) {
+        try (QueryStats stats = begin()) {
+            action.run();
+            return stats;
+        }
+    }
+
+    static void recordStatement(long elapsedNanos) {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.databaseNanos += elapsedNanos;
+        }
+    }
+
+    static void recordRow() {
+        for (QueryStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.rows++;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Duration getDatabaseTime() {
+        return Duration.ofNanos(databaseNanos);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statements + ", rows=" + rows + ", databaseTime=" + getDatabaseTime().toMillis() + "ms";
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.calorietracker.monitoring;
+
+import com.example.calorietracker.dto.MealDto;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Событие JFR для построения отчета: длительность и размер данных, из которых отчет построен,
+ * чтобы медленные отчеты можно было связать с количеством приемов пищи и блюд
+ */
+@Name("com.example.calorietracker.ReportBuild")
+@Label("Report Build")
+@Category("Calorie Tracker")
+@Description("Построение отчета о питании за день или за период")
+@StackTrace(false)
+public class ReportBuildEvent extends Event {
+
+    @Label("Report Type")
+    private String reportType;
+
+    @Label("User Id")
+    private long userId;
+
+    @Label("Start Date")
+    private String startDate;
+
+    @Label("End Date")
+    private String endDate;
+
+    @Label("Day Count")
+    private int dayCount;
+
+    @Label("Meal Count")
+    private int mealCount;
+
+    @Label("Item Count")
+    @Description("Количество блюд во всех приемах пищи отчета")
+    private int itemCount;
+
+    public static ReportBuildEvent start(String reportType, Long userId, LocalDate startDate, LocalDate endDate) {
+        ReportBuildEvent event = new ReportBuildEvent();
+        event.reportType = reportType;
+        event.userId = userId;
+        event.startDate = startDate.toString();
+        event.endDate = endDate.toString();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Учет дня отчета с его приемами пищи; подсчет выполняется только во время записи JFR
+     */
+    public void addDay(List<MealDto> meals) {
+        if (!isEnabled()) {
+            return;
+        }
+        dayCount++;
+        mealCount += meals.size();
+        for (MealDto meal : meals) {
+            itemCount += meal.getMealFoods().size();
+        }
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
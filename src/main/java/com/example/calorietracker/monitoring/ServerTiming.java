@@ -0,0 +1,112 @@
+package com.example.calorietracker.monitoring;
+
+import java.util.Locale;
+
+/**
+ * Разбивка времени обработки запроса по фазам для заголовка Server-Timing: база данных, преобразование
+ * в DTO, расчет итогов и сериализация. Фазы измеряются только внутри области текущего потока,
+ * открытой ServerTimingFilter; без нее замеры ничего не стоят, кроме чтения ThreadLocal.
+ * Время обращений к базе внутри фазы относится к фазе db, вложенные фазы учитываются во внешней.
+ */
+public final class ServerTiming implements AutoCloseable {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final PhaseTimer NOOP = () -> { };
+
+    public enum Phase {
+        MAPPING("mapping"),
+        AGGREGATION("aggregation"),
+        SERIALIZATION("serialization");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    /**
+     * Замер одной фазы, закрывается в try-with-resources
+     */
+    @FunctionalInterface
+    public interface PhaseTimer extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private final long startedAt = System.nanoTime();
+    private final QueryStats queryStats = QueryStats.begin();
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long totalNanos = -1;
+    private boolean timing;
+
+    private ServerTiming() {
+    }
+
+    /**
+     * Начало области замеров в текущем потоке
+     */
+    public static ServerTiming begin() {
+        ServerTiming serverTiming = new ServerTiming();
+        CURRENT.set(serverTiming);
+        return serverTiming;
+    }
+
+    /**
+     * Начало замера фазы; вне области замеров или внутри другой фазы возвращает пустой замер
+     */
+    public static PhaseTimer start(Phase phase) {
+        ServerTiming serverTiming = CURRENT.get();
+        if (serverTiming == null || serverTiming.timing) {
+            return NOOP;
+        }
+        serverTiming.timing = true;
+        long startedAt = System.nanoTime();
+        long databaseStartedAt = serverTiming.queryStats.getDatabaseTime().toNanos();
+        return () -> {
+            long databaseNanos = serverTiming.queryStats.getDatabaseTime().toNanos() - databaseStartedAt;
+            serverTiming.phaseNanos[phase.ordinal()] += System.nanoTime() - startedAt - databaseNanos;
+            serverTiming.timing = false;
+        };
+    }
+
+    /**
+     * Значение заголовка Server-Timing; время вне перечисленных фаз выводится как app
+     */
+    public String header() {
+        long total = totalNanos >= 0 ? totalNanos : System.nanoTime() - startedAt;
+        long database = queryStats.getDatabaseTime().toNanos();
+        long other = total - database;
+
+        StringBuilder header = new StringBuilder();
+        header.append("db;desc=\"").append(queryStats.getStatements()).append(" statements\";dur=")
+                .append(millis(database));
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos[phase.ordinal()];
+            other -= nanos;
+            header.append(", ").append(phase.metricName).append(";dur=").append(millis(nanos));
+        }
+        header.append(", app;dur=").append(millis(Math.max(other, 0)));
+        header.append(", total;dur=").append(millis(total));
+        return header.toString();
+    }
+
+    @Override
+    public void close() {
+        if (totalNanos >= 0) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startedAt;
+        queryStats.close();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.calorietracker.monitoring;
+
+import com.example.calorietracker.config.ServerTimingProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Заголовок Server-Timing с разбивкой времени запроса по фазам. Тело ответа буферизуется,
+ * чтобы заголовок с временем сериализации попал в ответ до тела, поэтому потоковые ответы исключаются
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final ServerTimingProperties properties;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public ServerTimingFilter(ServerTimingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled() && !"true".equalsIgnoreCase(request.getHeader(properties.getDebugHeader()))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        ServerTiming serverTiming = ServerTiming.begin();
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            serverTiming.close();
+            responseWrapper.setHeader(ServerTiming.HEADER, serverTiming.header());
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+}
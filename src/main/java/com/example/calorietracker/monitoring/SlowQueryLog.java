@@ -0,0 +1,260 @@
+package com.example.calorietracker.monitoring;
+
+import com.example.calorietracker.config.SlowQueryProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Журнал медленных запросов на уровне JDBC: команды дольше порога пишутся в лог всегда,
+ * остальные - выборочно. В запись попадают параметры и метод сервиса, выполнивший команду.
+ * Лог пишется асинхронно (см. logback-spring.xml), статистика по видам запросов хранится
+ * за текущее и предыдущее окно. Когда видов больше maxShapes, новый вид вытесняет вид
+ * с наименьшим максимальным временем.
+ */
+@Slf4j
+public class SlowQueryLog implements QueryExecutionListener {
+
+    private static final String STARTED_AT = SlowQueryLog.class.getName() + ".startedAt";
+    private static final String SERVICE_PACKAGE = "com.example.calorietracker.service.";
+    private static final int MAX_LOGGED_PARAMETER_SETS = 3;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final SlowQueryProperties properties;
+    private final AtomicReference<Windows> windows;
+    // Вид запроса по тексту SQL: Hibernate повторяет одни и те же строки, регулярные выражения выполняются один раз
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        this.properties = properties;
+        this.windows = new AtomicReference<>(new Windows(new Window(System.nanoTime()), null));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (startedAt == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        String sql = sql(queryInfoList);
+        record(sql, elapsedNanos);
+
+        if (elapsedNanos >= properties.getThreshold().toNanos()) {
+            log.warn("Медленный запрос {} мс в {}: {} параметры: {}", Duration.ofNanos(elapsedNanos).toMillis(),
+                    callingServiceMethod(), sql, parameters(queryInfoList));
+        } else if (properties.getSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            log.info("Запрос {} мс в {}: {} параметры: {}", Duration.ofNanos(elapsedNanos).toMillis(),
+                    callingServiceMethod(), sql, parameters(queryInfoList));
+        }
+    }
+
+    /**
+     * Самые медленные виды запросов за текущее и предыдущее окно, отсортированные по максимальному времени.
+     * Запросы, отличающиеся только литералами и длиной списка параметров IN, объединяются.
+     */
+    public List<QueryShape> topQueries() {
+        Windows current = windows.get();
+        Map<String, QueryShape> shapes = new HashMap<>();
+        merge(shapes, current.current());
+        if (current.previous() != null) {
+            merge(shapes, current.previous());
+        }
+        return shapes.values().stream()
+                .sorted(Comparator.comparing(QueryShape::maxTime).reversed())
+                .limit(properties.getTopSize())
+                .collect(Collectors.toList());
+    }
+
+    void record(String sql, long elapsedNanos) {
+        String shape = cachedShape(sql);
+        Window window = currentWindow();
+        QueryTimes times = window.queries.get(shape);
+        if (times == null) {
+            if (window.queries.size() >= properties.getMaxShapes()) {
+                evictFastest(window);
+            }
+            times = window.queries.computeIfAbsent(shape, key -> new QueryTimes());
+        }
+        times.record(elapsedNanos);
+    }
+
+    private String cachedShape(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = shape(sql);
+            if (shapes.size() < properties.getMaxShapes()) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Удаление вида запроса с наименьшим максимальным временем: в topQueries он попал бы последним
+     */
+    private static void evictFastest(Window window) {
+        String fastest = null;
+        long fastestNanos = Long.MAX_VALUE;
+        for (Map.Entry<String, QueryTimes> entry : window.queries.entrySet()) {
+            long maxNanos = entry.getValue().maxNanos.get();
+            if (maxNanos < fastestNanos) {
+                fastest = entry.getKey();
+                fastestNanos = maxNanos;
+            }
+        }
+        if (fastest != null) {
+            window.queries.remove(fastest);
+        }
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?, ...)");
+    }
+
+    private Window currentWindow() {
+        long now = System.nanoTime();
+        Windows current = windows.get();
+        if (now - current.current().startedAt < properties.getWindow().toNanos()) {
+            return current.current();
+        }
+        // Окно сменяет тот поток, чей CAS прошел первым, остальные пишут уже в новое окно
+        Windows rotated = new Windows(new Window(now), current.current());
+        return windows.compareAndSet(current, rotated) ? rotated.current() : windows.get().current();
+    }
+
+    private static void merge(Map<String, QueryShape> shapes, Window window) {
+        window.queries.forEach((shape, times) -> shapes.merge(shape,
+                new QueryShape(shape, times.count.sum(), Duration.ofNanos(times.totalNanos.sum()),
+                        Duration.ofNanos(times.maxNanos.get())),
+                QueryShape::combine));
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return queryInfoList.get(0).getQuery();
+        }
+        return queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+    private String parameters(List<QueryInfo> queryInfoList) {
+        StringBuilder builder = new StringBuilder();
+        int logged = 0;
+        int total = 0;
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (List<ParameterSetOperation> parameterSet : queryInfo.getParametersList()) {
+                total++;
+                if (logged < MAX_LOGGED_PARAMETER_SETS) {
+                    appendParameterSet(builder, parameterSet);
+                    logged++;
+                }
+            }
+        }
+        if (total > logged) {
+            builder.append(" и еще ").append(total - logged).append(" наборов");
+        }
+        return builder.toString();
+    }
+
+    private void appendParameterSet(StringBuilder builder, List<ParameterSetOperation> parameterSet) {
+        builder.append('(');
+        for (int i = 0; i < parameterSet.size(); i++) {
+            ParameterSetOperation operation = parameterSet.get(i);
+            if (i > 0) {
+                builder.append(", ");
+            }
+            Object[] args = operation.getArgs();
+            Object value = "setNull".equals(operation.getMethod().getName()) || args.length < 2 ? null : args[1];
+            builder.append(truncate(String.valueOf(value)));
+        }
+        builder.append(')');
+    }
+
+    private String truncate(String value) {
+        int maxLength = properties.getMaxParameterLength();
+        return value.length() <= maxLength ? value : value.substring(0, maxLength) + "...";
+    }
+
+    /**
+     * Первый метод сервиса в стеке вызова; прокси Spring пропускаются
+     */
+    private static String callingServiceMethod() {
+        Optional<String> method = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(SERVICE_PACKAGE.length()) + "." + frame.getMethodName()));
+        return method.orElse("неизвестном методе");
+    }
+
+    /**
+     * Итоги одного вида запроса
+     */
+    public record QueryShape(String sql, long count, Duration totalTime, Duration maxTime) {
+
+        public Duration averageTime() {
+            return count == 0 ? Duration.ZERO : totalTime.dividedBy(count);
+        }
+
+        private QueryShape combine(QueryShape other) {
+            return new QueryShape(sql, count + other.count, totalTime.plus(other.totalTime),
+                    maxTime.compareTo(other.maxTime) >= 0 ? maxTime : other.maxTime);
+        }
+    }
+
+    private record Windows(Window current, Window previous) {
+    }
+
+    private static final class Window {
+
+        private final long startedAt;
+        private final Map<String, QueryTimes> queries = new ConcurrentHashMap<>();
+
+        private Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class QueryTimes {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
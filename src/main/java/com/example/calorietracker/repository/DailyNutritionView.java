@@ -0,0 +1,21 @@
+package com.example.calorietracker.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Итоги питательных веществ за день, агрегированные по сохраненным итогам приемов пищи
+ */
+public interface DailyNutritionView {
+
+    LocalDate getMealDate();
+
+    Long getMealCount();
+
+    Long getTotalCalories();
+
+    Double getTotalProteins();
+
+    Double getTotalFats();
+
+    Double getTotalCarbohydrates();
+}
@@ -0,0 +1,40 @@
+package com.example.calorietracker.repository;
+
+import com.example.calorietracker.model.DailyTotal;
+import com.example.calorietracker.model.DailyTotalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyTotalRepository extends JpaRepository<DailyTotal, DailyTotalId> {
+    List<DailyTotal> findByUserIdAndMealDateBetweenOrderByMealDate(Long userId, LocalDate startDate, LocalDate endDate);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyTotal d WHERE d.userId = :userId AND d.mealDate BETWEEN :startDate AND :endDate")
+    int deleteRange(Long userId, LocalDate startDate, LocalDate endDate);
+    // Итоги дня - сумма итогов приемов пищи; ROUND убирает погрешность сложения double, как в NutritionAccumulator
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO DailyTotal (userId, mealDate, mealCount, totalCalories, totalProteins, totalFats, totalCarbohydrates) " +
+            "SELECT m.user.id, m.mealDate, CAST(COUNT(m) AS Integer), CAST(SUM(m.totalCalories) AS Integer), " +
+            "ROUND(SUM(m.totalProteins), 2), ROUND(SUM(m.totalFats), 2), ROUND(SUM(m.totalCarbohydrates), 2) " +
+            "FROM Meal m WHERE m.user.id = :userId AND m.mealDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY m.user.id, m.mealDate")
+    int insertRange(Long userId, LocalDate startDate, LocalDate endDate);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyTotal d WHERE EXISTS (SELECT 1 FROM Meal m JOIN m.mealFoods mf " +
+            "WHERE mf.food.id IN :foodIds AND m.user.id = d.userId AND m.mealDate = d.mealDate)")
+    int deleteByFoodIds(Collection<Long> foodIds);
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO DailyTotal (userId, mealDate, mealCount, totalCalories, totalProteins, totalFats, totalCarbohydrates) " +
+            "SELECT m.user.id, m.mealDate, CAST(COUNT(m) AS Integer), CAST(SUM(m.totalCalories) AS Integer), " +
+            "ROUND(SUM(m.totalProteins), 2), ROUND(SUM(m.totalFats), 2), ROUND(SUM(m.totalCarbohydrates), 2) " +
+            "FROM Meal m WHERE EXISTS (SELECT 1 FROM Meal m2 JOIN m2.mealFoods mf " +
+            "WHERE mf.food.id IN :foodIds AND m2.user.id = m.user.id AND m2.mealDate = m.mealDate) " +
+            "GROUP BY m.user.id, m.mealDate")
+    int insertByFoodIds(Collection<Long> foodIds);
+}
@@ -0,0 +1,7 @@
+package com.example.calorietracker.repository;
+
+/**
+ * Блюдо и количество его использований в приемах пищи
+ */
+public record FoodPopularityRow(Long id, String name, Integer caloriesPerServing, Long usageCount) {
+}
@@ -1,14 +1,50 @@
 package com.example.calorietracker.repository;
 
 import com.example.calorietracker.model.Food;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FoodRepository extends JpaRepository<Food, Long> {
     Optional<Food> findByNameIgnoreCase(String name);
     List<Food> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+    List<Food> findByNameStartingWithIgnoreCaseOrderByName(String prefix, Pageable pageable);
+    // Блюда с названиями из списка без учета регистра; названия передаются в нижнем регистре
+    @Query("SELECT f FROM Food f WHERE LOWER(f.name) IN :names")
+    List<Food> findByLowerNameIn(Collection<String> names);
+    // Страница блюд после указанного идентификатора
+    List<Food> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    // Популярность блюд по количеству записей в приемах пищи из food_usage, без чтения meal_foods
+    @Query("SELECT new com.example.calorietracker.repository.FoodPopularityRow(" +
+            "f.id, f.name, f.caloriesPerServing, COALESCE(u.usageCount, 0L)) " +
+            "FROM Food f LEFT JOIN FoodUsage u ON u.foodId = f.id")
+    List<FoodPopularityRow> findAllWithUsageCount();
+    // Потоковое чтение каталога для экспорта: блюда загружаются только для чтения, без снимков для проверки изменений.
+    // CacheMode.IGNORE не кладет блюда в регион foods кэша второго уровня, иначе выгрузка вытесняла бы из него популярные блюда
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT f FROM Food f ORDER BY f.id")
+    Stream<Food> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT f FROM Food f WHERE f.updatedAt >= :updatedSince ORDER BY f.id")
+    Stream<Food> streamUpdatedSince(LocalDateTime updatedSince);
+}
@@ -0,0 +1,7 @@
+package com.example.calorietracker.repository;
+
+/**
+ * Количество записей приемов пищи с блюдом
+ */
+public record FoodUsageCount(Long foodId, Long usageCount) {
+}
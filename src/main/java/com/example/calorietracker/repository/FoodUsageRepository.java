@@ -0,0 +1,15 @@
+package com.example.calorietracker.repository;
+
+import com.example.calorietracker.model.FoodUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FoodUsageRepository extends JpaRepository<FoodUsage, Long> {
+    // Возвращает 0, если строки блюда еще нет
+    @Modifying
+    @Query("UPDATE FoodUsage u SET u.usageCount = u.usageCount + :delta WHERE u.foodId = :foodId")
+    int addUsage(Long foodId, long delta);
+}
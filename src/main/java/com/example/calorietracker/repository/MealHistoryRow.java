@@ -0,0 +1,26 @@
+package com.example.calorietracker.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Строка истории питания: прием пищи и одно блюдо из его состава (поля блюда пусты, если состав пуст)
+ */
+public record MealHistoryRow(
+        Long mealId,
+        LocalDate mealDate,
+        LocalTime mealTime,
+        String mealType,
+        Integer totalCalories,
+        Double totalProteins,
+        Double totalFats,
+        Double totalCarbohydrates,
+        Long mealFoodId,
+        Double servings,
+        Long foodId,
+        String foodName,
+        Integer caloriesPerServing,
+        Double proteins,
+        Double fats,
+        Double carbohydrates) {
+}
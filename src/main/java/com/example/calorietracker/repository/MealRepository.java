@@ -1,17 +1,97 @@
 package com.example.calorietracker.repository;
 
 import com.example.calorietracker.model.Meal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MealRepository extends JpaRepository<Meal, Long> {
+    // Блюда и их состав загружаются одним запросом вместе с приемами пищи, без N+1
+    @Override
+    @EntityGraph(attributePaths = {"mealFoods", "mealFoods.food"})
+    Optional<Meal> findById(Long id);
+    // Пользователь приема пищи без загрузки самого приема: нужен для блокировки до чтения его состава
+    @Query("SELECT m.user.id FROM Meal m WHERE m.id = :id")
+    Optional<Long> findUserIdById(Long id);
+    @EntityGraph(attributePaths = {"mealFoods", "mealFoods.food"})
     List<Meal> findByUserIdAndMealDateOrderByMealTime(Long userId, LocalDate mealDate);
+    @EntityGraph(attributePaths = {"mealFoods", "mealFoods.food"})
     List<Meal> findByUserIdAndMealDateBetweenOrderByMealDateAscMealTimeAsc(Long userId, LocalDate startDate, LocalDate endDate);
+    @EntityGraph(attributePaths = {"mealFoods", "mealFoods.food"})
+    List<Meal> findByIdIn(Collection<Long> ids);
+    // Лента приемов пищи по (дата, время, id): сначала выбираются ключи страницы, затем сами приемы пищи
+    @Query("SELECT new com.example.calorietracker.repository.MealTimelineKey(m.mealDate, m.mealTime, m.id) " +
+            "FROM Meal m WHERE m.user.id = :userId ORDER BY m.mealDate, m.mealTime, m.id")
+    List<MealTimelineKey> findTimelineKeys(Long userId, Pageable pageable);
+    @Query("SELECT new com.example.calorietracker.repository.MealTimelineKey(m.mealDate, m.mealTime, m.id) " +
+            "FROM Meal m WHERE m.user.id = :userId AND m.mealDate >= :mealDate " +
+            "AND (m.mealDate > :mealDate OR m.mealTime > :mealTime OR (m.mealTime = :mealTime AND m.id > :id)) " +
+            "ORDER BY m.mealDate, m.mealTime, m.id")
+    List<MealTimelineKey> findTimelineKeysAfter(Long userId, LocalDate mealDate, LocalTime mealTime, Long id,
+                                                Pageable pageable);
     @Query("SELECT DISTINCT m.mealDate FROM Meal m WHERE m.user.id = :userId ORDER BY m.mealDate")
     List<LocalDate> findDistinctMealDatesByUserIdOrderByMealDate(Long userId);
-}
\ No newline at end of file
+    // Суммы граммов округляются до сотых, как в NutritionAccumulator и daily_totals
+    @Query("SELECT m.mealDate AS mealDate, COUNT(m) AS mealCount, SUM(m.totalCalories) AS totalCalories, " +
+            "ROUND(SUM(m.totalProteins), 2) AS totalProteins, ROUND(SUM(m.totalFats), 2) AS totalFats, " +
+            "ROUND(SUM(m.totalCarbohydrates), 2) AS totalCarbohydrates " +
+            "FROM Meal m WHERE m.user.id = :userId AND m.mealDate = :mealDate GROUP BY m.mealDate")
+    Optional<DailyNutritionView> sumTotalsByUserIdAndMealDate(Long userId, LocalDate mealDate);
+    // Норма и итоги за день одним запросом; пустой результат означает отсутствие пользователя
+    @Query("SELECT u.id AS userId, u.dailyCalorieTarget AS dailyCalorieTarget, COUNT(m) AS mealCount, " +
+            "COALESCE(SUM(m.totalCalories), 0) AS totalCalories, " +
+            "ROUND(COALESCE(SUM(m.totalProteins), 0.0), 2) AS totalProteins, " +
+            "ROUND(COALESCE(SUM(m.totalFats), 0.0), 2) AS totalFats, " +
+            "ROUND(COALESCE(SUM(m.totalCarbohydrates), 0.0), 2) AS totalCarbohydrates " +
+            "FROM User u LEFT JOIN Meal m ON m.user = u AND m.mealDate = :mealDate " +
+            "WHERE u.id = :userId GROUP BY u.id, u.dailyCalorieTarget")
+    Optional<UserDayTotalsView> sumUserDayTotals(Long userId, LocalDate mealDate);
+    // Количество записей приемов пищи пользователя по блюдам
+    @Query("SELECT new com.example.calorietracker.repository.FoodUsageCount(mf.food.id, COUNT(mf)) " +
+            "FROM MealFood mf WHERE mf.meal.user.id = :userId GROUP BY mf.food.id")
+    List<FoodUsageCount> countFoodUsageByUserId(Long userId);
+    // Построчное чтение истории курсором: DTO вместо сущностей, контекст персистентности не растет
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.calorietracker.repository.MealHistoryRow(" +
+            "m.id, m.mealDate, m.mealTime, m.mealType, " +
+            "m.totalCalories, m.totalProteins, m.totalFats, m.totalCarbohydrates, " +
+            "mf.id, mf.servings, f.id, f.name, f.caloriesPerServing, f.proteins, f.fats, f.carbohydrates) " +
+            "FROM Meal m LEFT JOIN m.mealFoods mf LEFT JOIN mf.food f " +
+            "WHERE m.user.id = :userId AND m.mealDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY m.mealDate, m.mealTime, m.id, mf.id")
+    Stream<MealHistoryRow> streamHistoryRows(Long userId, LocalDate startDate, LocalDate endDate);
+    // Пересчет сохраненных итогов всех приемов пищи, содержащих любое из блюд, одним запросом.
+    // Как в NutritionAccumulator и 007: порции и ценность порции приводятся к numeric с точностью до тысячных,
+    // итог округляется один раз - калории до целых, граммы до сотых. Приведение округляет по десятичной записи
+    // числа, а ROUND над double округляет двоичное значение, и 0.3335 (в double 0.33349999...) дало бы 0.333
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Meal m SET " +
+            "m.totalCalories = (SELECT CAST(ROUND(COALESCE(SUM(" +
+            "CAST(mf1.servings AS BigDecimal(19, 3)) * f1.caloriesPerServing), 0), 0) AS Integer) " +
+            "FROM MealFood mf1 JOIN mf1.food f1 WHERE mf1.meal = m), " +
+            "m.totalProteins = (SELECT CAST(ROUND(COALESCE(SUM(" +
+            "CAST(mf2.servings AS BigDecimal(19, 3)) * CAST(f2.proteins AS BigDecimal(19, 3))), 0), 2) AS Double) " +
+            "FROM MealFood mf2 JOIN mf2.food f2 WHERE mf2.meal = m), " +
+            "m.totalFats = (SELECT CAST(ROUND(COALESCE(SUM(" +
+            "CAST(mf3.servings AS BigDecimal(19, 3)) * CAST(f3.fats AS BigDecimal(19, 3))), 0), 2) AS Double) " +
+            "FROM MealFood mf3 JOIN mf3.food f3 WHERE mf3.meal = m), " +
+            "m.totalCarbohydrates = (SELECT CAST(ROUND(COALESCE(SUM(" +
+            "CAST(mf4.servings AS BigDecimal(19, 3)) * CAST(f4.carbohydrates AS BigDecimal(19, 3))), 0), 2) AS Double) " +
+            "FROM MealFood mf4 JOIN mf4.food f4 WHERE mf4.meal = m) " +
+            "WHERE m.id IN (SELECT mf.meal.id FROM MealFood mf WHERE mf.food.id IN :foodIds)")
+    int recalculateTotalsByFoodIds(Collection<Long> foodIds);
+}
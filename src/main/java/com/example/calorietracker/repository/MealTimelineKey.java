@@ -0,0 +1,10 @@
+package com.example.calorietracker.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Ключ приема пищи в ленте пользователя
+ */
+public record MealTimelineKey(LocalDate mealDate, LocalTime mealTime, Long id) {
+}
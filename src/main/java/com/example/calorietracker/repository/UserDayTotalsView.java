@@ -0,0 +1,21 @@
+package com.example.calorietracker.repository;
+
+/**
+ * Норма калорий пользователя и итоги его приемов пищи за день, агрегированные в базе данных
+ */
+public interface UserDayTotalsView {
+
+    Long getUserId();
+
+    Integer getDailyCalorieTarget();
+
+    Long getMealCount();
+
+    Long getTotalCalories();
+
+    Double getTotalProteins();
+
+    Double getTotalFats();
+
+    Double getTotalCarbohydrates();
+}
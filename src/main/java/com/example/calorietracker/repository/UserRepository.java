@@ -1,13 +1,30 @@
 package com.example.calorietracker.repository;
 
 import com.example.calorietracker.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    // Страница пользователей после указанного идентификатора
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    // Блокировка пользователя на время записи его приемов пищи: записи одного пользователя идут по очереди.
+    // Берется до вставки приемов пищи, иначе FOR UPDATE ждет KEY SHARE от внешнего ключа соседней транзакции
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(Long id);
+    // Блокировка нескольких пользователей в порядке идентификаторов, чтобы пакеты не ждали друг друга по кругу
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdForUpdate(Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
+import com.example.calorietracker.exception.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Постраничная выдача по ключу: курсор хранит ключ последнего элемента страницы в непрозрачном виде,
+ * поэтому любая страница читается по индексу так же быстро, как первая.
+ */
+final class CursorPagination {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Размер страницы из запроса или размер по умолчанию
+     */
+    static int resolveSize(Integer size, PaginationProperties properties) {
+        int pageSize = size != null ? size : properties.getDefaultSize();
+        if (pageSize < 1 || pageSize > properties.getMaxSize()) {
+            throw new InvalidDataException("Размер страницы должен быть от 1 до " + properties.getMaxSize());
+        }
+        return pageSize;
+    }
+
+    static String encode(Object... keyParts) {
+        String key = Arrays.stream(keyParts).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <K> K decode(String cursor, int partCount, Function<String[], K> parser) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\" + SEPARATOR, -1);
+            if (parts.length != partCount) {
+                throw new IllegalArgumentException("Unexpected cursor length");
+            }
+            return parser.apply(parts);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidDataException("Некорректный курсор страницы");
+        }
+    }
+
+    /**
+     * Курсор с идентификатором; без курсора выдача начинается с начала
+     */
+    static long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        return decode(cursor, 1, parts -> Long.parseLong(parts[0]));
+    }
+
+    /**
+     * Страница из строк, прочитанных с запасом в одну строку для определения наличия следующей страницы
+     */
+    static <E, T> CursorPageDto<T> toPage(List<E> rows, int size, Function<E, T> mapper,
+                                          Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<E> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        return CursorPageDto.<T>builder()
+                .items(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .nextCursor(hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.DailyReportCacheProperties;
+import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.event.MealsChangedEvent;
+import com.example.calorietracker.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Кэш дневных отчетов по паре (пользователь, дата).
+ * Записи удаляются после фиксации транзакции, изменившей приемы пищи этого дня или данные пользователя.
+ * Строящийся отчет лежит в кэше незавершенным future еще до чтения базы, поэтому удаление
+ * по событию снимает и его: отчет, прочитанный до фиксации, в кэше не останется.
+ */
+@Component
+public class DailyReportCache {
+
+    private final boolean enabled;
+    private final AsyncCache<Key, DailyReportDto> cache;
+
+    @Autowired
+    public DailyReportCache(DailyReportCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Получение отчета из кэша или его построение при промахе
+     */
+    public DailyReportDto get(Long userId, LocalDate date, Supplier<DailyReportDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        // Отчет строится в вызывающем потоке вне блокировок кэша, остальные запросы того же дня ждут его future
+        CompletableFuture<DailyReportDto> pending = new CompletableFuture<>();
+        CompletableFuture<DailyReportDto> report = cache.get(new Key(userId, date), (key, executor) -> pending);
+        if (report == pending) {
+            try {
+                pending.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return report.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Синхронное представление кэша для метрик попаданий, промахов и вытеснений
+     */
+    public Cache<?, ?> synchronousView() {
+        return cache.synchronous();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealsChanged(MealsChangedEvent event) {
+        if (event.startDate().equals(event.endDate())) {
+            cache.synchronous().invalidate(new Key(event.userId(), event.startDate()));
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(event.userId())
+                && !key.date().isBefore(event.startDate())
+                && !key.date().isAfter(event.endDate()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        // Новое блюдо еще не входит ни в один отчет
+        if (event.type() == FoodChangedEvent.Type.CREATED) {
+            return;
+        }
+        // Блюдо может входить в отчеты любых пользователей
+        cache.synchronous().invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodsImported(FoodsImportedEvent event) {
+        if (!event.updated().isEmpty()) {
+            cache.synchronous().invalidateAll();
+        }
+    }
+
+    record Key(Long userId, LocalDate date) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.model.DailyTotal;
+import com.example.calorietracker.model.DailyTotalId;
+import com.example.calorietracker.repository.DailyNutritionView;
+import com.example.calorietracker.repository.DailyTotalRepository;
+import com.example.calorietracker.repository.MealRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class DailyTotalService {
+
+    private final DailyTotalRepository dailyTotalRepository;
+    private final MealRepository mealRepository;
+
+    @Autowired
+    public DailyTotalService(DailyTotalRepository dailyTotalRepository, MealRepository mealRepository) {
+        this.dailyTotalRepository = dailyTotalRepository;
+        this.mealRepository = mealRepository;
+    }
+
+    /**
+     * Пересчет итогов пользователя за день в текущей транзакции.
+     * Вызывающий код должен держать блокировку пользователя (UserRepository.findByIdForUpdate):
+     * строки дня может еще не быть, и без нее две первые записи дня обе вставили бы новую строку.
+     */
+    @Transactional
+    public void refreshDay(Long userId, LocalDate date) {
+        Optional<DailyTotal> existing = dailyTotalRepository.findById(new DailyTotalId(userId, date));
+        Optional<DailyNutritionView> totals = mealRepository.sumTotalsByUserIdAndMealDate(userId, date);
+
+        if (totals.isEmpty()) {
+            existing.ifPresent(dailyTotalRepository::delete);
+            return;
+        }
+
+        DailyTotal dailyTotal = existing.orElseGet(() -> DailyTotal.builder()
+                .userId(userId)
+                .mealDate(date)
+                .build());
+        DailyNutritionView view = totals.get();
+        dailyTotal.setMealCount(view.getMealCount().intValue());
+        dailyTotal.setTotalCalories(view.getTotalCalories().intValue());
+        dailyTotal.setTotalProteins(view.getTotalProteins());
+        dailyTotal.setTotalFats(view.getTotalFats());
+        dailyTotal.setTotalCarbohydrates(view.getTotalCarbohydrates());
+        dailyTotalRepository.save(dailyTotal);
+    }
+
+    /**
+     * Полное перестроение итогов пользователя за период, возвращает количество дней с приемами пищи.
+     * Как и refreshDay, выполняется под блокировкой пользователя.
+     */
+    @Transactional
+    public int rebuild(Long userId, LocalDate startDate, LocalDate endDate) {
+        dailyTotalRepository.deleteRange(userId, startDate, endDate);
+        return dailyTotalRepository.insertRange(userId, startDate, endDate);
+    }
+
+    /**
+     * Перестроение итогов всех дней, в которые употреблялось хотя бы одно из блюд
+     */
+    @Transactional
+    public void refreshForFoods(Collection<Long> foodIds) {
+        dailyTotalRepository.deleteByFoodIds(foodIds);
+        dailyTotalRepository.insertByFoodIds(foodIds);
+    }
+
+    /**
+     * Получение сохраненных итогов пользователя за период
+     */
+    public List<DailyTotal> getDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        return dailyTotalRepository.findByUserIdAndMealDateBetweenOrderByMealDate(userId, startDate, endDate);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.AdminProperties;
+import com.example.calorietracker.exception.InvalidDataException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Запись Java Flight Recorder по запросу администратора без перезапуска сервиса.
+ * Одновременно ведется не больше одной записи; по истечении длительности запись останавливается сама
+ * и хранится до выгрузки.
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    private static final String RECORDING_NAME = "calorie-tracker";
+
+    private final AdminProperties properties;
+    private final AtomicReference<ActiveRecording> current = new AtomicReference<>();
+
+    @Autowired
+    public FlightRecordingService(AdminProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Запуск записи с профилем настроек JFR (default или profile)
+     */
+    public RecordingStatus start(String settings, Duration duration) {
+        Duration recordingDuration = duration != null ? duration : properties.getJfrDefaultDuration();
+        if (recordingDuration.isNegative() || recordingDuration.isZero()
+                || recordingDuration.compareTo(properties.getJfrMaxDuration()) > 0) {
+            throw new InvalidDataException("Длительность записи должна быть от 1 секунды до "
+                    + properties.getJfrMaxDuration().toSeconds() + " секунд");
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new InvalidDataException("Неизвестный профиль настроек JFR: " + settings);
+        }
+
+        Recording recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setDuration(recordingDuration);
+        ActiveRecording active = new ActiveRecording(recording, settings);
+        if (!current.compareAndSet(null, active)) {
+            recording.close();
+            throw new InvalidDataException("Запись JFR уже ведется, сначала остановите ее");
+        }
+        recording.start();
+        log.info("Запущена запись JFR {} с профилем {} на {}", recording.getId(), settings, recordingDuration);
+        return active.status();
+    }
+
+    /**
+     * Состояние текущей записи
+     */
+    public Optional<RecordingStatus> status() {
+        return Optional.ofNullable(current.get()).map(ActiveRecording::status);
+    }
+
+    /**
+     * Остановка записи и сохранение ее во временный файл; файл удаляет вызывающий код после выгрузки
+     */
+    public Path stop() {
+        ActiveRecording active = current.getAndSet(null);
+        if (active == null) {
+            throw new InvalidDataException("Запись JFR не ведется");
+        }
+        Recording recording = active.recording();
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile(RECORDING_NAME + "-" + recording.getId() + "-", ".jfr");
+            recording.dump(file);
+            log.info("Запись JFR {} остановлена, размер {} байт", recording.getId(), Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить запись JFR", e);
+        } finally {
+            recording.close();
+        }
+    }
+
+    public record RecordingStatus(long id, String state, String settings, Instant startTime, Duration duration) {
+    }
+
+    private record ActiveRecording(Recording recording, String settings) {
+
+        private RecordingStatus status() {
+            return new RecordingStatus(recording.getId(), recording.getState().name(), settings,
+                    recording.getStartTime(), recording.getDuration());
+        }
+    }
+}
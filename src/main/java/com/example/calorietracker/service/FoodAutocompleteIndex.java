@@ -0,0 +1,243 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.dto.FoodSuggestionDto;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.repository.FoodPopularityRow;
+import com.example.calorietracker.repository.FoodRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Подсказки блюд по префиксу из неизменяемого отсортированного массива слов названий.
+ * Массив перестраивается в фоне после изменений каталога и периодически для учета популярности,
+ * готовый снимок подменяется атомарно. Популярность читается из food_usage (см. FoodUsageCounter).
+ */
+@Slf4j
+@Component
+public class FoodAutocompleteIndex {
+
+    // Для префиксов из одной-двух букв диапазон слишком широк, лучшие блюда для них считаются заранее
+    private static final int SHORT_PREFIX_LENGTH = 2;
+
+    private final FoodRepository foodRepository;
+    private final FoodUsageCounter foodUsageCounter;
+    private final FoodSearchProperties.Autocomplete properties;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "food-autocomplete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public FoodAutocompleteIndex(FoodRepository foodRepository, FoodUsageCounter foodUsageCounter,
+                                 FoodSearchProperties properties) {
+        this.foodRepository = foodRepository;
+        this.foodUsageCounter = foodUsageCounter;
+        this.properties = properties.getAutocomplete();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long interval = properties.getRefreshInterval().toMillis();
+        executor.execute(this::rebuildQuietly);
+        executor.scheduleWithFixedDelay(this::rebuildQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodsImported(FoodsImportedEvent event) {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        // Несколько изменений подряд приводят к одному перестроению
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuildQuietly();
+            }, properties.getRebuildDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Подсказки для префикса любого слова названия, от популярных блюд к редким
+     */
+    public List<FoodSuggestionDto> suggest(String prefix, int limit) {
+        Snapshot current = snapshot.get();
+        String normalizedPrefix = FoodSearchIndex.normalize(prefix);
+        if (current == null || normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int[] ranks;
+        if (normalizedPrefix.length() <= SHORT_PREFIX_LENGTH) {
+            ranks = current.shortPrefixTop().getOrDefault(normalizedPrefix, new int[0]);
+        } else {
+            ranks = topRanks(current, normalizedPrefix, limit);
+        }
+
+        List<FoodSuggestionDto> suggestions = new ArrayList<>(Math.min(limit, ranks.length));
+        for (int i = 0; i < ranks.length && i < limit; i++) {
+            suggestions.add(current.foods()[ranks[i]]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Синхронное перестроение снимка из таблицы блюд с учетом накопленных изменений популярности
+     */
+    void rebuild() {
+        long startedAt = System.nanoTime();
+        foodUsageCounter.flush();
+        Snapshot built = build(foodRepository.findAllWithUsageCount(), properties.getMaxLimit());
+        snapshot.set(built);
+        log.debug("Индекс подсказок перестроен: {} блюд, {} слов за {} мс", built.foods().length,
+                built.keys().length, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Остается предыдущий снимок, следующая попытка будет по расписанию или при изменении каталога
+            log.warn("Не удалось перестроить индекс подсказок", e);
+        }
+    }
+
+    // Лучшие блюда по префиксу: ранг блюда равен его позиции, поэтому нужны наименьшие различные ранги
+    private static int[] topRanks(Snapshot current, String prefix, int limit) {
+        String[] keys = current.keys();
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        Set<Integer> seen = new HashSet<>();
+
+        for (int i = lowerBound(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            int rank = current.owners()[i];
+            if (!seen.add(rank)) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(rank);
+            } else if (rank < top.peek()) {
+                top.poll();
+                top.add(rank);
+            }
+        }
+
+        return top.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    static Snapshot build(List<FoodPopularityRow> rows, int shortPrefixLimit) {
+        // Ранг блюда: популярность по убыванию, затем более короткие названия, затем по алфавиту
+        List<FoodPopularityRow> ranked = new ArrayList<>(rows);
+        ranked.sort(Comparator.comparingLong(FoodPopularityRow::usageCount).reversed()
+                .thenComparingInt(row -> row.name().length())
+                .thenComparing(FoodPopularityRow::name)
+                .thenComparing(FoodPopularityRow::id));
+
+        FoodSuggestionDto[] foods = new FoodSuggestionDto[ranked.size()];
+        List<Token> tokens = new ArrayList<>(ranked.size() * 2);
+        Map<String, List<Integer>> shortPrefixes = new HashMap<>();
+
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            FoodPopularityRow row = ranked.get(rank);
+            foods[rank] = FoodSuggestionDto.builder()
+                    .id(row.id())
+                    .name(row.name())
+                    .caloriesPerServing(row.caloriesPerServing())
+                    .build();
+
+            // Ключ - остаток названия с начала каждого слова, чтобы префикс мог продолжаться на следующие слова
+            String normalizedName = FoodSearchIndex.normalize(row.name());
+            Set<String> foodShortPrefixes = new LinkedHashSet<>();
+            for (int start = 0; start < normalizedName.length(); start++) {
+                if (start > 0 && normalizedName.charAt(start - 1) != ' ') {
+                    continue;
+                }
+                String key = normalizedName.substring(start);
+                tokens.add(new Token(key, rank));
+                for (int length = 1; length <= SHORT_PREFIX_LENGTH && length <= key.length(); length++) {
+                    foodShortPrefixes.add(key.substring(0, length));
+                }
+            }
+
+            // Блюда обходятся в порядке ранга, поэтому списки получаются уже отсортированными
+            for (String shortPrefix : foodShortPrefixes) {
+                List<Integer> list = shortPrefixes.computeIfAbsent(shortPrefix, key -> new ArrayList<>());
+                if (list.size() < shortPrefixLimit) {
+                    list.add(rank);
+                }
+            }
+        }
+
+        tokens.sort(Comparator.comparing(Token::key).thenComparingInt(Token::rank));
+        String[] keys = new String[tokens.size()];
+        int[] owners = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            keys[i] = tokens.get(i).key();
+            owners[i] = tokens.get(i).rank();
+        }
+
+        Map<String, int[]> shortPrefixTop = new HashMap<>(shortPrefixes.size() * 2);
+        shortPrefixes.forEach((key, ranks) -> shortPrefixTop.put(key,
+                ranks.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new Snapshot(keys, owners, foods, shortPrefixTop);
+    }
+
+    record Snapshot(String[] keys, int[] owners, FoodSuggestionDto[] foods, Map<String, int[]> shortPrefixTop) {
+    }
+
+    private record Token(String key, int rank) {
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodImportProperties;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.FoodImportResultDto;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.exception.InvalidDataException;
+import com.example.calorietracker.model.Food;
+import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.MealRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт каталога блюд из CSV или NDJSON.
+ * Блюда сопоставляются с каталогом по названию без учета регистра: новые добавляются, существующие обновляются.
+ * Существующие блюда загружаются одним запросом на порцию, изменения сохраняются порциями с JDBC batching.
+ */
+@Service
+public class FoodImportService {
+
+    /**
+     * Формат файла импорта
+     */
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "caloriesPerServing", "proteins", "fats", "carbohydrates");
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final FoodRepository foodRepository;
+    private final MealRepository mealRepository;
+    private final DailyTotalService dailyTotalService;
+    private final FoodService foodService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final FoodImportProperties importProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public FoodImportService(FoodRepository foodRepository, MealRepository mealRepository,
+                             DailyTotalService dailyTotalService, FoodService foodService,
+                             EntityManager entityManager, Validator validator, ObjectMapper objectMapper,
+                             FoodImportProperties importProperties, ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager) {
+        this.foodRepository = foodRepository;
+        this.mealRepository = mealRepository;
+        this.dailyTotalService = dailyTotalService;
+        this.foodService = foodService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importProperties = importProperties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Импорт блюд из файла. Некорректные строки и повторы названий внутри файла отклоняются
+     * с указанием номера строки, остальные блюда добавляются или обновляются.
+     * Весь файл сохраняется в одной транзакции. Если параллельный импорт или создание блюда добавили
+     * то же название после чтения каталога, уникальный индекс по lower(name) отклоняет вставку,
+     * и транзакция повторяется: повтор находит добавленное блюдо и обновляет его
+     */
+    public FoodImportResultDto importFoods(InputStream input, Format format) throws IOException {
+        List<ImportRow> rows = format == Format.CSV ? readCsv(input) : readNdjson(input);
+        if (rows.isEmpty()) {
+            throw new InvalidDataException("Файл импорта не содержит ни одного блюда");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> importRows(rows));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new InvalidDataException(
+                            "Каталог блюд одновременно изменяется другим запросом, повторите импорт");
+                }
+            }
+        }
+    }
+
+    /**
+     * Сохранение прочитанных строк; вызывается заново при каждой попытке импорта
+     */
+    private FoodImportResultDto importRows(List<ImportRow> rows) {
+        FoodImportResultDto result = FoodImportResultDto.builder()
+                .total(rows.size())
+                .inserted(0)
+                .updated(0)
+                .unchanged(0)
+                .rejected(0)
+                .errors(new ArrayList<>())
+                .build();
+
+        // Проверка строк и отбор первого вхождения каждого названия
+        Map<String, ImportRow> uniqueRows = new LinkedHashMap<>();
+        for (ImportRow row : rows) {
+            String error = row.error() != null ? row.error() : validateRow(row.food());
+            if (error == null) {
+                ImportRow firstRow = uniqueRows.putIfAbsent(nameKey(row.food().getName()), row);
+                if (firstRow != null) {
+                    error = "Название повторяет блюдо из строки " + firstRow.line();
+                }
+            }
+            if (error != null) {
+                result.getErrors().add(FoodImportResultDto.RowError.builder()
+                        .line(row.line())
+                        .name(row.food() != null ? row.food().getName() : null)
+                        .error(error)
+                        .build());
+            }
+        }
+        result.setRejected(result.getErrors().size());
+
+        // Сохранение порциями
+        List<ImportRow> chunk = new ArrayList<>(importProperties.getChunkSize());
+        for (ImportRow row : uniqueRows.values()) {
+            chunk.add(row);
+            if (chunk.size() >= importProperties.getChunkSize()) {
+                importChunk(chunk, result);
+            }
+        }
+        importChunk(chunk, result);
+
+        return result;
+    }
+
+    /**
+     * Сохранение порции блюд: существующие блюда загружаются одним запросом, один flush отправляет
+     * INSERT и UPDATE пакетами, после чего контекст очищается, чтобы его размер не зависел от размера файла
+     */
+    private void importChunk(List<ImportRow> chunk, FoodImportResultDto result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<String> names = chunk.stream()
+                .map(row -> nameKey(row.food().getName()))
+                .collect(Collectors.toSet());
+        Map<String, Food> existingFoods = foodRepository.findByLowerNameIn(names).stream()
+                .collect(Collectors.toMap(food -> nameKey(food.getName()), Function.identity(),
+                        (first, second) -> first.getId() < second.getId() ? first : second));
+
+        List<Food> insertedFoods = new ArrayList<>();
+        List<Food> updatedFoods = new ArrayList<>();
+        List<Long> recalculatedFoodIds = new ArrayList<>();
+        for (ImportRow row : chunk) {
+            FoodDto foodDto = row.food();
+            Food food = existingFoods.get(nameKey(foodDto.getName()));
+            if (food == null) {
+                insertedFoods.add(Food.builder()
+                        .name(foodDto.getName())
+                        .caloriesPerServing(foodDto.getCaloriesPerServing())
+                        .proteins(foodDto.getProteins())
+                        .fats(foodDto.getFats())
+                        .carbohydrates(foodDto.getCarbohydrates())
+                        .build());
+                continue;
+            }
+
+            boolean nameChanged = !food.getName().equals(foodDto.getName());
+            boolean nutritionChanged = !Objects.equals(food.getCaloriesPerServing(), foodDto.getCaloriesPerServing())
+                    || !Objects.equals(food.getProteins(), foodDto.getProteins())
+                    || !Objects.equals(food.getFats(), foodDto.getFats())
+                    || !Objects.equals(food.getCarbohydrates(), foodDto.getCarbohydrates());
+            if (!nameChanged && !nutritionChanged) {
+                result.setUnchanged(result.getUnchanged() + 1);
+                continue;
+            }
+
+            food.setName(foodDto.getName());
+            food.setCaloriesPerServing(foodDto.getCaloriesPerServing());
+            food.setProteins(foodDto.getProteins());
+            food.setFats(foodDto.getFats());
+            food.setCarbohydrates(foodDto.getCarbohydrates());
+            updatedFoods.add(food);
+            if (nutritionChanged) {
+                recalculatedFoodIds.add(food.getId());
+            }
+        }
+
+        foodRepository.saveAll(insertedFoods);
+        foodRepository.flush();
+
+        // Пересчет сохраненных итогов приемов пищи и дней с измененными блюдами
+        if (!recalculatedFoodIds.isEmpty()) {
+            mealRepository.recalculateTotalsByFoodIds(recalculatedFoodIds);
+            dailyTotalService.refreshForFoods(recalculatedFoodIds);
+        }
+
+        // Одно событие на порцию: кэши и индексы обновляются один раз, а не по разу на строку
+        if (!insertedFoods.isEmpty() || !updatedFoods.isEmpty()) {
+            eventPublisher.publishEvent(new FoodsImportedEvent(
+                    insertedFoods.stream().map(foodService::mapToDto).toList(),
+                    updatedFoods.stream().map(foodService::mapToDto).toList()));
+        }
+        result.setInserted(result.getInserted() + insertedFoods.size());
+        result.setUpdated(result.getUpdated() + updatedFoods.size());
+
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    /**
+     * Проверка данных блюда, возвращает описание ошибки или null
+     */
+    private String validateRow(FoodDto foodDto) {
+        Set<ConstraintViolation<FoodDto>> violations = validator.validate(foodDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Чтение CSV с заголовком; порядок столбцов определяется заголовком
+     */
+    private List<ImportRow> readCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ImportRow> rows = new ArrayList<>();
+        Map<String, Integer> columns = null;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1) {
+                line = stripBom(line);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values = splitCsvLine(line);
+            if (columns == null) {
+                columns = readCsvHeader(values);
+                continue;
+            }
+            checkRowCount(rows.size() + 1);
+            rows.add(parseCsvRow(lineNumber, values, columns));
+        }
+        return rows;
+    }
+
+    private static Map<String, Integer> readCsvHeader(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            for (String column : CSV_COLUMNS) {
+                if (column.equalsIgnoreCase(name)) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+        }
+        List<String> missing = CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new InvalidDataException("В заголовке CSV отсутствуют столбцы: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static ImportRow parseCsvRow(int lineNumber, List<String> values, Map<String, Integer> columns) {
+        FoodDto foodDto = FoodDto.builder()
+                .name(trimToNull(csvValue(values, columns, "name")))
+                .build();
+        try {
+            foodDto.setCaloriesPerServing(parseNumber(values, columns, "caloriesPerServing", Integer::valueOf));
+            foodDto.setProteins(parseNumber(values, columns, "proteins", Double::valueOf));
+            foodDto.setFats(parseNumber(values, columns, "fats", Double::valueOf));
+            foodDto.setCarbohydrates(parseNumber(values, columns, "carbohydrates", Double::valueOf));
+        } catch (IllegalArgumentException e) {
+            return new ImportRow(lineNumber, foodDto, e.getMessage());
+        }
+        return new ImportRow(lineNumber, foodDto, null);
+    }
+
+    private static <T> T parseNumber(List<String> values, Map<String, Integer> columns, String column,
+                                     Function<String, T> parser) {
+        String value = trimToNull(csvValue(values, columns, column));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": некорректное число '" + value + "'");
+        }
+    }
+
+    private static String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        return index < values.size() ? values.get(index) : null;
+    }
+
+    /**
+     * Разбор строки CSV: значения через запятую, в кавычках допускаются запятые и удвоенные кавычки
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Чтение NDJSON: одно блюдо в формате FoodDto на строку
+     */
+    private List<ImportRow> readNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ImportRow> rows = new ArrayList<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1) {
+                line = stripBom(line);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            checkRowCount(rows.size() + 1);
+            try {
+                FoodDto foodDto = objectMapper.readValue(line, FoodDto.class);
+                if (foodDto == null) {
+                    rows.add(new ImportRow(lineNumber, null, "Строка должна содержать объект блюда"));
+                    continue;
+                }
+                foodDto.setId(null);
+                foodDto.setName(trimToNull(foodDto.getName()));
+                rows.add(new ImportRow(lineNumber, foodDto, null));
+            } catch (JsonProcessingException e) {
+                rows.add(new ImportRow(lineNumber, null, "Некорректный JSON: " + e.getOriginalMessage()));
+            }
+        }
+        return rows;
+    }
+
+    private void checkRowCount(int rowCount) {
+        if (rowCount > importProperties.getMaxRows()) {
+            throw new InvalidDataException("Файл импорта не может содержать более "
+                    + importProperties.getMaxRows() + " блюд");
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record ImportRow(int line, FoodDto food, String error) {
+    }
+}
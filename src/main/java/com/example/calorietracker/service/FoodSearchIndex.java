@@ -0,0 +1,455 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Индекс триграмм по названиям блюд для ранжированного поиска с учетом опечаток.
+ * Строится при старте приложения и обновляется после фиксации транзакций, изменивших каталог.
+ */
+@Component
+public class FoodSearchIndex {
+
+    // Уровни совпадения в порядке убывания релевантности
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int FUZZY = 4;
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::tier)
+            .thenComparingInt(Match::typos)
+            .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+            .thenComparingInt(match -> match.entry().normalizedName().length())
+            .thenComparing(match -> match.entry().normalizedName())
+            .thenComparing(match -> match.entry().food().getId());
+
+    private final double minSimilarity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // Изменения, пришедшие во время перестроения, повторяются поверх загруженного снимка
+    private final List<FoodChangedEvent> pendingChanges = new ArrayList<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @Autowired
+    public FoodSearchIndex(FoodSearchProperties properties) {
+        this.minSimilarity = properties.getMinSimilarity();
+    }
+
+    /**
+     * Полное перестроение индекса; загрузка каталога выполняется без блокировки поиска
+     */
+    public void rebuild(Supplier<? extends Collection<FoodDto>> loader) {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Collection<FoodDto> foods;
+        try {
+            foods = loader.get();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pendingChanges.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+            for (FoodDto food : foods) {
+                add(food);
+            }
+            for (FoodChangedEvent change : pendingChanges) {
+                apply(change);
+            }
+            pendingChanges.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск блюд по названию: точные и префиксные совпадения выше вхождений, вхождения выше нечетких.
+     * Сначала ищутся названия, содержащие запрос целиком, - пересечением списков триграмм от самого короткого.
+     * Нечеткий поиск по объединению списков нужен, только если таких названий меньше limit:
+     * любое вхождение ранжируется выше любого нечеткого совпадения.
+     */
+    public List<FoodDto> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> queryTrigrams = trigrams(normalizedQuery);
+        String[] queryWords = normalizedQuery.split(" ");
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            int contained = collectContaining(normalizedQuery, queryWords, queryTrigrams, top, limit);
+            if (contained < limit) {
+                top.clear();
+                collectSimilar(normalizedQuery, queryWords, queryTrigrams, top, limit);
+            }
+
+            List<Match> matches = new ArrayList<>(top);
+            matches.sort(RANKING);
+            return matches.stream()
+                    .map(match -> match.entry().food())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Названия, содержащие запрос целиком; возвращает их количество, лучшие limit остаются в top.
+     * Такое название содержит все триграммы внутри слов запроса, поэтому кандидаты - пересечение их списков.
+     */
+    private int collectContaining(String normalizedQuery, String[] queryWords, Set<String> queryTrigrams,
+                                  PriorityQueue<Match> top, int limit) {
+        List<Set<Long>> required = new ArrayList<>();
+        for (String word : queryWords) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                Set<Long> ids = postings.get(word.substring(i, i + 3));
+                if (ids == null) {
+                    return 0;
+                }
+                required.add(ids);
+            }
+        }
+        // У слов короче трех символов нет внутренних триграмм, кандидатов отбирает нечеткий поиск
+        if (required.isEmpty()) {
+            return 0;
+        }
+        required.sort(Comparator.comparingInt(Set::size));
+
+        int contained = 0;
+        Set<Long> smallest = required.get(0);
+        List<Set<Long>> others = required.subList(1, required.size());
+        for (Long id : smallest) {
+            if (!containsAll(others, id)) {
+                continue;
+            }
+            Entry entry = entries.get(id);
+            int tier = matchTier(entry.normalizedName(), normalizedQuery);
+            if (tier == FUZZY) {
+                continue;
+            }
+            contained++;
+            offer(top, new Match(entry, tier, 0, similarity(queryTrigrams, entry, commonTrigrams(queryTrigrams, entry))),
+                    limit);
+        }
+        return contained;
+    }
+
+    /**
+     * Все совпадения, включая нечеткие: кандидаты - блюда хотя бы с одной общей триграммой
+     */
+    private void collectSimilar(String normalizedQuery, String[] queryWords, Set<String> queryTrigrams,
+                                PriorityQueue<Match> top, int limit) {
+        // Количество общих триграмм для каждого кандидата
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                for (Long id : ids) {
+                    hits.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+            Entry entry = entries.get(hit.getKey());
+            int common = hit.getValue();
+            double similarity = similarity(queryTrigrams, entry, common);
+
+            int tier = matchTier(entry.normalizedName(), normalizedQuery);
+            int typos = 0;
+            if (tier == FUZZY) {
+                // Опечатка в слове разрушает не более трех его триграмм, остальные кандидаты отсекаются сразу
+                if (common * 3 < queryTrigrams.size()) {
+                    continue;
+                }
+                typos = typoDistance(queryWords, entry.words());
+                if (typos < 0 && similarity < minSimilarity) {
+                    continue;
+                }
+                if (typos < 0) {
+                    typos = Integer.MAX_VALUE;
+                }
+            }
+            offer(top, new Match(entry, tier, typos, similarity), limit);
+        }
+    }
+
+    private static int commonTrigrams(Set<String> queryTrigrams, Entry entry) {
+        int common = 0;
+        for (String trigram : queryTrigrams) {
+            if (entry.trigrams().contains(trigram)) {
+                common++;
+            }
+        }
+        return common;
+    }
+
+    private static double similarity(Set<String> queryTrigrams, Entry entry, int common) {
+        return (double) common / (queryTrigrams.size() + entry.trigrams().size() - common);
+    }
+
+    private static boolean containsAll(List<Set<Long>> postingLists, Long id) {
+        for (Set<Long> ids : postingLists) {
+            if (!ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Добавление в кучу лучших limit совпадений; в вершине кучи худшее из них
+     */
+    private static void offer(PriorityQueue<Match> top, Match match, int limit) {
+        if (top.size() < limit) {
+            top.add(match);
+        } else if (RANKING.compare(match, top.peek()) < 0) {
+            top.poll();
+            top.add(match);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        applyAll(List.of(event));
+    }
+
+    /**
+     * Изменения порции импорта применяются под одной блокировкой записи
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodsImported(FoodsImportedEvent event) {
+        applyAll(event.changes());
+    }
+
+    private void applyAll(List<FoodChangedEvent> changes) {
+        lock.writeLock().lock();
+        try {
+            for (FoodChangedEvent change : changes) {
+                apply(change);
+            }
+            if (rebuilding) {
+                pendingChanges.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(FoodChangedEvent event) {
+        remove(event.foodId());
+        if (event.type() != FoodChangedEvent.Type.DELETED) {
+            add(event.food());
+        }
+    }
+
+    private void add(FoodDto food) {
+        String normalizedName = normalize(food.getName());
+        Set<String> nameTrigrams = trigrams(normalizedName);
+        entries.put(food.getId(), new Entry(food, normalizedName, normalizedName.split(" "), nameTrigrams));
+        for (String trigram : nameTrigrams) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(food.getId());
+        }
+    }
+
+    private void remove(Long foodId) {
+        Entry entry = entries.remove(foodId);
+        if (entry == null) {
+            return;
+        }
+        for (String trigram : entry.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(foodId);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Нормализация: нижний регистр, ё как е, знаки препинания как пробелы
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Триграммы слов, дополненных двумя пробелами в начале и одним в конце, как в pg_trgm
+     */
+    static Set<String> trigrams(String normalizedText) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String word : normalizedText.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    private static int matchTier(String normalizedName, String normalizedQuery) {
+        if (normalizedName.equals(normalizedQuery)) {
+            return EXACT;
+        }
+        if (normalizedName.startsWith(normalizedQuery)) {
+            return NAME_PREFIX;
+        }
+        if (normalizedName.contains(" " + normalizedQuery)) {
+            return WORD_PREFIX;
+        }
+        if (normalizedName.contains(normalizedQuery)) {
+            return SUBSTRING;
+        }
+        return FUZZY;
+    }
+
+    /**
+     * Сумма опечаток по словам запроса или -1, если какое-то слово не совпадает ни с одним словом названия.
+     * Слово названия сравнивается по префиксам близкой длины, так как оно может быть недописано.
+     */
+    static int typoDistance(String[] queryWords, String[] nameWords) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int allowed = allowedTypos(queryWord.length());
+            int best = -1;
+            for (String nameWord : nameWords) {
+                int minLength = Math.max(1, queryWord.length() - allowed);
+                int maxLength = Math.min(nameWord.length(), queryWord.length() + allowed);
+                for (int length = minLength; length <= maxLength; length++) {
+                    int distance = editDistance(queryWord, nameWord.substring(0, length), allowed);
+                    if (distance >= 0 && (best < 0 || distance < best)) {
+                        best = distance;
+                    }
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static int allowedTypos(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        return length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Расстояние Левенштейна или -1, если оно больше max
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return -1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= max ? previous[b.length()] : -1;
+    }
+
+    private record Entry(FoodDto food, String normalizedName, String[] words, Set<String> trigrams) {
+    }
+
+    private record Match(Entry entry, int tier, int typos, double similarity) {
+    }
+}
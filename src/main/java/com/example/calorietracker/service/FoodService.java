@@ -1,25 +1,76 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.config.MetricsConfig;
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.FoodSuggestionDto;
+import com.example.calorietracker.event.FoodChangedEvent;
 import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.Food;
 import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.MealRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class FoodService {
 
     private final FoodRepository foodRepository;
+    private final MealRepository mealRepository;
+    private final DailyTotalService dailyTotalService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FoodSearchIndex foodSearchIndex;
+    private final FoodAutocompleteIndex foodAutocompleteIndex;
+    private final FoodSearchProperties searchProperties;
+    private final PaginationProperties paginationProperties;
+    private final EntityManager entityManager;
 
     @Autowired
-    public FoodService(FoodRepository foodRepository) {
+    public FoodService(FoodRepository foodRepository, MealRepository mealRepository,
+                       DailyTotalService dailyTotalService, ApplicationEventPublisher eventPublisher,
+                       FoodSearchIndex foodSearchIndex, FoodAutocompleteIndex foodAutocompleteIndex,
+                       FoodSearchProperties searchProperties, PaginationProperties paginationProperties,
+                       EntityManager entityManager) {
         this.foodRepository = foodRepository;
+        this.mealRepository = mealRepository;
+        this.dailyTotalService = dailyTotalService;
+        this.eventPublisher = eventPublisher;
+        this.foodSearchIndex = foodSearchIndex;
+        this.foodAutocompleteIndex = foodAutocompleteIndex;
+        this.searchProperties = searchProperties;
+        this.paginationProperties = paginationProperties;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Построение поискового индекса по каталогу блюд после запуска приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        if (searchProperties.isIndexEnabled()) {
+            foodSearchIndex.rebuild(() -> foodRepository.findAll().stream()
+                    .map(this::mapToDto)
+                    .collect(Collectors.toList()));
+        }
     }
 
     /**
@@ -28,12 +79,16 @@ public class FoodService {
     @Transactional
     public FoodDto createFood(FoodDto foodDto) {
         foodRepository.findByNameIgnoreCase(foodDto.getName()).ifPresent(food -> {
-            throw new InvalidDataException("Блюдо с названием '" + foodDto.getName() + "' уже существует");
+            throw duplicateName(foodDto.getName());
         });
 
         Food food = mapToEntity(foodDto);
-        Food savedFood = foodRepository.save(food);
-        return mapToDto(savedFood);
+        Food savedFood = saveWithUniqueName(food);
+        FoodDto savedFoodDto = mapToDto(savedFood);
+
+        eventPublisher.publishEvent(FoodChangedEvent.created(savedFoodDto));
+
+        return savedFoodDto;
     }
 
     /**
@@ -46,18 +101,35 @@ public class FoodService {
 
         if (!food.getName().equalsIgnoreCase(foodDto.getName())) {
             foodRepository.findByNameIgnoreCase(foodDto.getName()).ifPresent(existingFood -> {
-                throw new InvalidDataException("Блюдо с названием '" + foodDto.getName() + "' уже существует");
+                throw duplicateName(foodDto.getName());
             });
         }
 
+        boolean nameChanged = !food.getName().equals(foodDto.getName());
+        boolean nutritionChanged = !Objects.equals(food.getCaloriesPerServing(), foodDto.getCaloriesPerServing())
+                || !Objects.equals(food.getProteins(), foodDto.getProteins())
+                || !Objects.equals(food.getFats(), foodDto.getFats())
+                || !Objects.equals(food.getCarbohydrates(), foodDto.getCarbohydrates());
+
         food.setName(foodDto.getName());
         food.setCaloriesPerServing(foodDto.getCaloriesPerServing());
         food.setProteins(foodDto.getProteins());
         food.setFats(foodDto.getFats());
         food.setCarbohydrates(foodDto.getCarbohydrates());
 
-        Food updatedFood = foodRepository.save(food);
-        return mapToDto(updatedFood);
+        Food updatedFood = saveWithUniqueName(food);
+
+        // Пересчет сохраненных итогов приемов пищи и дней с этим блюдом
+        if (nutritionChanged) {
+            mealRepository.recalculateTotalsByFoodIds(List.of(foodId));
+            dailyTotalService.refreshForFoods(List.of(foodId));
+        }
+        FoodDto updatedFoodDto = mapToDto(updatedFood);
+        if (nameChanged || nutritionChanged) {
+            eventPublisher.publishEvent(FoodChangedEvent.updated(updatedFoodDto));
+        }
+
+        return updatedFoodDto;
     }
 
     /**
@@ -70,23 +142,79 @@ public class FoodService {
     }
 
     /**
-     * Получение списка всех блюд
+     * Получение страницы блюд в порядке идентификаторов
      */
-    public List<FoodDto> getAllFoods() {
-        return foodRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<FoodDto> getFoods(String cursor, Integer size) {
+        int pageSize = CursorPagination.resolveSize(size, paginationProperties);
+        long afterId = CursorPagination.decodeId(cursor);
+
+        List<Food> foods = foodRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+
+        return CursorPagination.toPage(foods, pageSize, this::mapToDto,
+                food -> CursorPagination.encode(food.getId()));
+    }
+
+    /**
+     * Потоковая выгрузка каталога блюд, при указании updatedSince - только блюд, измененных с этого момента.
+     * Блюда читаются курсором и передаются получателю по одному, поэтому память не зависит от размера каталога
+     */
+    @Transactional(readOnly = true)
+    public void exportFoods(LocalDateTime updatedSince, Consumer<FoodDto> sink) {
+        try (Stream<Food> foods = updatedSince != null
+                ? foodRepository.streamUpdatedSince(updatedSince)
+                : foodRepository.streamAll()) {
+            foods.forEach(food -> {
+                sink.accept(mapToDto(food));
+                // Выгруженное блюдо больше не нужно, контекст персистентности не должен расти вместе с каталогом
+                entityManager.detach(food);
+            });
+        }
     }
 
     /**
-     * Поиск блюд по названию
+     * Поиск блюд по названию с ранжированием и ограничением количества результатов
      */
-    public List<FoodDto> searchFoodByName(String name) {
+    public List<FoodDto> searchFoodByName(String name, Integer limit) {
+        int resultLimit = limit != null ? limit : searchProperties.getDefaultLimit();
+        if (resultLimit < 1 || resultLimit > searchProperties.getMaxLimit()) {
+            throw new InvalidDataException("Количество результатов должно быть от 1 до " + searchProperties.getMaxLimit());
+        }
+
+        if (searchProperties.isIndexEnabled() && foodSearchIndex.isReady()) {
+            return foodSearchIndex.search(name, resultLimit);
+        }
+
+        // Пока индекс не построен, поиск выполняется запросом к базе данных
         return foodRepository.findByNameContainingIgnoreCase(name).stream()
+                .limit(resultLimit)
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Подсказки блюд по началу слова в названии, упорядоченные по популярности
+     */
+    public List<FoodSuggestionDto> autocompleteFoods(String prefix, Integer limit) {
+        FoodSearchProperties.Autocomplete autocomplete = searchProperties.getAutocomplete();
+        int resultLimit = limit != null ? limit : autocomplete.getDefaultLimit();
+        if (resultLimit < 1 || resultLimit > autocomplete.getMaxLimit()) {
+            throw new InvalidDataException("Количество подсказок должно быть от 1 до " + autocomplete.getMaxLimit());
+        }
+
+        if (foodAutocompleteIndex.isReady()) {
+            return foodAutocompleteIndex.suggest(prefix, resultLimit);
+        }
+
+        // Пока индекс не построен, подсказки берутся запросом к базе данных по началу названия
+        return foodRepository.findByNameStartingWithIgnoreCaseOrderByName(prefix, PageRequest.of(0, resultLimit)).stream()
+                .map(food -> FoodSuggestionDto.builder()
+                        .id(food.getId())
+                        .name(food.getName())
+                        .caloriesPerServing(food.getCaloriesPerServing())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     /**
      * Удаление блюда
      */
@@ -96,6 +224,8 @@ public class FoodService {
             throw new ResourceNotFoundException("Блюдо", "id", foodId);
         }
         foodRepository.deleteById(foodId);
+
+        eventPublisher.publishEvent(FoodChangedEvent.deleted(foodId));
     }
 
     /**
@@ -112,6 +242,24 @@ public class FoodService {
                 .build();
     }
 
+    /**
+     * Сохранение с немедленной проверкой уникального индекса по lower(name). Название, записанное
+     * параллельной транзакцией после проверки выше, отклоняется как дубликат, а не ошибкой фиксации
+     */
+    private Food saveWithUniqueName(Food food) {
+        try {
+            Food savedFood = foodRepository.save(food);
+            foodRepository.flush();
+            return savedFood;
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateName(food.getName());
+        }
+    }
+
+    private InvalidDataException duplicateName(String name) {
+        return new InvalidDataException("Блюдо с названием '" + name + "' уже существует");
+    }
+
     /**
      * Преобразование DTO в сущность
      */
@@ -0,0 +1,98 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.event.FoodUsageChangedEvent;
+import com.example.calorietracker.model.FoodUsage;
+import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.FoodUsageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Популярность блюд в таблице food_usage. Приращения от записей приемов пищи копятся в памяти
+ * после фиксации транзакций и записываются одним проходом перед перестроением подсказок:
+ * запись приема пищи не блокирует строки популярных блюд, а перестроение не читает meal_foods.
+ */
+@Slf4j
+@Component
+public class FoodUsageCounter {
+
+    private final FoodUsageRepository foodUsageRepository;
+    private final FoodRepository foodRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FoodUsageCounter(FoodUsageRepository foodUsageRepository, FoodRepository foodRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.foodUsageRepository = foodUsageRepository;
+        this.foodRepository = foodRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodUsageChanged(FoodUsageChangedEvent event) {
+        event.deltas().forEach(this::add);
+    }
+
+    /**
+     * Запись накопленных приращений. При ошибке они возвращаются в очередь до следующей попытки
+     */
+    public void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Long foodId : pending.keySet()) {
+            Long delta = pending.remove(foodId);
+            if (delta != null && delta != 0) {
+                deltas.put(foodId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas));
+        } catch (RuntimeException e) {
+            deltas.forEach(this::add);
+            log.warn("Не удалось записать популярность {} блюд", deltas.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void apply(Map<Long, Long> deltas) {
+        List<Long> missingIds = new ArrayList<>();
+        deltas.forEach((foodId, delta) -> {
+            if (foodUsageRepository.addUsage(foodId, delta) == 0) {
+                missingIds.add(foodId);
+            }
+        });
+        if (missingIds.isEmpty()) {
+            return;
+        }
+
+        // Строка создается при первом использовании блюда; удаленные за это время блюда пропускаются
+        List<FoodUsage> created = foodRepository.findAllById(missingIds).stream()
+                .map(food -> new FoodUsage(food.getId(), Math.max(0, deltas.get(food.getId()))))
+                .toList();
+        foodUsageRepository.saveAll(created);
+    }
+
+    private void add(Long foodId, Long delta) {
+        pending.merge(foodId, delta, Long::sum);
+    }
+}
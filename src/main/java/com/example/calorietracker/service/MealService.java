@@ -1,41 +1,84 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.MealBatchProperties;
+import com.example.calorietracker.config.MetricsConfig;
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealBatchResultDto;
 import com.example.calorietracker.dto.MealDto;
 import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.event.FoodUsageChangedEvent;
+import com.example.calorietracker.event.MealsChangedEvent;
 import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.Food;
 import com.example.calorietracker.model.Meal;
 import com.example.calorietracker.model.MealFood;
+import com.example.calorietracker.model.NutritionAccumulator;
 import com.example.calorietracker.model.User;
+import com.example.calorietracker.monitoring.MealWriteEvent;
+import com.example.calorietracker.monitoring.ServerTiming;
 import com.example.calorietracker.repository.FoodRepository;
 import com.example.calorietracker.repository.MealRepository;
+import com.example.calorietracker.repository.MealTimelineKey;
 import com.example.calorietracker.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class MealService {
 
     private final MealRepository mealRepository;
     private final UserRepository userRepository;
     private final FoodRepository foodRepository;
     private final FoodService foodService;
+    private final DailyTotalService dailyTotalService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final MealBatchProperties batchProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaginationProperties paginationProperties;
 
     @Autowired
     public MealService(MealRepository mealRepository, UserRepository userRepository,
-                       FoodRepository foodRepository, FoodService foodService) {
+                       FoodRepository foodRepository, FoodService foodService,
+                       DailyTotalService dailyTotalService, EntityManager entityManager,
+                       Validator validator, MealBatchProperties batchProperties,
+                       ApplicationEventPublisher eventPublisher, PaginationProperties paginationProperties) {
         this.mealRepository = mealRepository;
         this.userRepository = userRepository;
         this.foodRepository = foodRepository;
         this.foodService = foodService;
+        this.dailyTotalService = dailyTotalService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.batchProperties = batchProperties;
+        this.eventPublisher = eventPublisher;
+        this.paginationProperties = paginationProperties;
     }
 
     /**
@@ -43,7 +86,9 @@ public class MealService {
      */
     @Transactional
     public MealDto createMeal(MealDto mealDto) {
-        User user = userRepository.findById(mealDto.getUserId())
+        MealWriteEvent event = MealWriteEvent.start("CREATE");
+        // Пользователь блокируется первым запросом транзакции: записи одного пользователя идут по очереди
+        User user = userRepository.findByIdForUpdate(mealDto.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", mealDto.getUserId()));
 
         // Проверка наличия блюд в приеме пищи
@@ -61,61 +106,198 @@ public class MealService {
                 .build();
 
         // Добавление блюд в прием пищи
+        Map<Long, Food> foods = resolveFoods(mealDto.getMealFoods());
         for (MealFoodDto mealFoodDto : mealDto.getMealFoods()) {
-            Food food = foodRepository.findById(mealFoodDto.getFoodId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Блюдо", "id", mealFoodDto.getFoodId()));
-
-            MealFood mealFood = MealFood.builder()
-                    .meal(meal)
-                    .food(food)
-                    .servings(mealFoodDto.getServings())
-                    .build();
+            meal.addMealFood(buildMealFood(meal, foods.get(mealFoodDto.getFoodId()), mealFoodDto));
+        }
 
-            meal.addMealFood(mealFood);
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+            meal.calculateTotals();
         }
 
         // Сохранение приема пищи
         Meal savedMeal = mealRepository.save(meal);
+        dailyTotalService.refreshDay(user.getId(), savedMeal.getMealDate());
+        eventPublisher.publishEvent(new MealsChangedEvent(user.getId(), savedMeal.getMealDate()));
+        Map<Long, Long> foodUsage = new HashMap<>();
+        countFoodUsage(savedMeal.getMealFoods(), 1, foodUsage);
+        publishFoodUsage(foodUsage);
+        event.finish(user.getId(), 1, savedMeal.getMealFoods().size());
         return mapToDto(savedMeal);
     }
 
+    /**
+     * Пакетное создание приемов пищи.
+     * Все элементы проверяются заранее, пользователи и блюда загружаются одним запросом на пакет,
+     * а корректные элементы сохраняются порциями с JDBC batching. Ошибки возвращаются по каждому элементу.
+     */
+    @Transactional
+    public MealBatchResultDto createMeals(List<MealDto> mealDtos) {
+        MealWriteEvent event = MealWriteEvent.start("BATCH_CREATE");
+        if (mealDtos == null || mealDtos.isEmpty()) {
+            throw new InvalidDataException("Пакет должен содержать хотя бы один прием пищи");
+        }
+        if (mealDtos.size() > batchProperties.getMaxSize()) {
+            throw new InvalidDataException("Пакет не может содержать более "
+                    + batchProperties.getMaxSize() + " приемов пищи");
+        }
+
+        String[] errors = new String[mealDtos.size()];
+        Long[] mealIds = new Long[mealDtos.size()];
+
+        // Проверка данных каждого элемента
+        for (int i = 0; i < mealDtos.size(); i++) {
+            errors[i] = validateBatchItem(mealDtos.get(i));
+        }
+
+        // Загрузка пользователей и блюд всего пакета
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> foodIds = new LinkedHashSet<>();
+        for (int i = 0; i < mealDtos.size(); i++) {
+            if (errors[i] == null) {
+                userIds.add(mealDtos.get(i).getUserId());
+                mealDtos.get(i).getMealFoods().forEach(mealFoodDto -> foodIds.add(mealFoodDto.getFoodId()));
+            }
+        }
+        Map<Long, User> users = userRepository.findAllByIdForUpdate(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Food> foods = foodRepository.findAllById(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+
+        // Сохранение корректных элементов порциями
+        Map<Long, LocalDate[]> dateRangesByUser = new HashMap<>();
+        Map<Long, Long> foodUsage = new HashMap<>();
+        List<Meal> chunk = new ArrayList<>(batchProperties.getChunkSize());
+        List<Integer> chunkIndexes = new ArrayList<>(batchProperties.getChunkSize());
+        for (int i = 0; i < mealDtos.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            MealDto mealDto = mealDtos.get(i);
+            User user = users.get(mealDto.getUserId());
+            if (user == null) {
+                errors[i] = String.format("Пользователь не найден с id : '%s'", mealDto.getUserId());
+                continue;
+            }
+            List<Long> missingFoodIds = mealDto.getMealFoods().stream()
+                    .map(MealFoodDto::getFoodId)
+                    .filter(foodId -> !foods.containsKey(foodId))
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (!missingFoodIds.isEmpty()) {
+                errors[i] = "Блюда не найдены с id : " + missingFoodIds;
+                continue;
+            }
+
+            Meal meal = Meal.builder()
+                    .user(user)
+                    .mealDate(mealDto.getMealDate())
+                    .mealTime(mealDto.getMealTime())
+                    .mealType(mealDto.getMealType())
+                    .mealFoods(new ArrayList<>())
+                    .build();
+            for (MealFoodDto mealFoodDto : mealDto.getMealFoods()) {
+                meal.addMealFood(buildMealFood(meal, foods.get(mealFoodDto.getFoodId()), mealFoodDto));
+            }
+            try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+                meal.calculateTotals();
+            }
+            chunk.add(meal);
+            chunkIndexes.add(i);
+            countFoodUsage(meal.getMealFoods(), 1, foodUsage);
+            dateRangesByUser.merge(user.getId(),
+                    new LocalDate[]{mealDto.getMealDate(), mealDto.getMealDate()},
+                    (range, date) -> new LocalDate[]{
+                            range[0].isBefore(date[0]) ? range[0] : date[0],
+                            range[1].isAfter(date[1]) ? range[1] : date[1]});
+
+            if (chunk.size() >= batchProperties.getChunkSize()) {
+                persistChunk(chunk, chunkIndexes, mealIds);
+            }
+        }
+        persistChunk(chunk, chunkIndexes, mealIds);
+
+        // Итоги по дням перестраиваются одним проходом на пользователя
+        dateRangesByUser.forEach((userId, range) -> {
+            dailyTotalService.rebuild(userId, range[0], range[1]);
+            eventPublisher.publishEvent(new MealsChangedEvent(userId, range[0], range[1]));
+        });
+        publishFoodUsage(foodUsage);
+
+        // Формирование результата по каждому элементу
+        List<MealBatchResultDto.ItemResult> items = new ArrayList<>(mealDtos.size());
+        int created = 0;
+        int createdItems = 0;
+        for (int i = 0; i < mealDtos.size(); i++) {
+            boolean success = errors[i] == null;
+            if (success) {
+                created++;
+                createdItems += mealDtos.get(i).getMealFoods().size();
+            }
+            items.add(MealBatchResultDto.ItemResult.builder()
+                    .index(i)
+                    .success(success)
+                    .mealId(mealIds[i])
+                    .error(errors[i])
+                    .build());
+        }
+
+        Long batchUserId = dateRangesByUser.size() == 1 ? dateRangesByUser.keySet().iterator().next() : 0L;
+        event.finish(batchUserId, created, createdItems);
+
+        return MealBatchResultDto.builder()
+                .total(mealDtos.size())
+                .created(created)
+                .failed(mealDtos.size() - created)
+                .items(items)
+                .build();
+    }
+
     /**
      * Обновление приема пищи
      */
     @Transactional
     public MealDto updateMeal(Long mealId, MealDto mealDto) {
-        Meal meal = mealRepository.findById(mealId)
-                .orElseThrow(() -> new ResourceNotFoundException("Прием пищи", "id", mealId));
+        MealWriteEvent event = MealWriteEvent.start("UPDATE");
 
         // Проверка наличия блюд в приеме пищи
         if (mealDto.getMealFoods() == null || mealDto.getMealFoods().isEmpty()) {
             throw new InvalidDataException("Прием пищи должен содержать хотя бы одно блюдо");
         }
 
+        Meal meal = findMealForUpdate(mealId);
+        LocalDate previousDate = meal.getMealDate();
+
         // Обновление полей
         meal.setMealDate(mealDto.getMealDate());
         meal.setMealTime(mealDto.getMealTime());
         meal.setMealType(mealDto.getMealType());
 
-        // Удаление существующих блюд
-        meal.getMealFoods().clear();
+        // Сопоставление блюд из DTO с существующими записями
+        Map<Long, Food> foods = resolveFoods(mealDto.getMealFoods());
+        Map<Long, Long> foodUsage = new HashMap<>();
+        countFoodUsage(meal.getMealFoods(), -1, foodUsage);
+        reconcileMealFoods(meal, mealDto.getMealFoods(), foods);
+        countFoodUsage(meal.getMealFoods(), 1, foodUsage);
 
-        // Добавление блюд из DTO
-        for (MealFoodDto mealFoodDto : mealDto.getMealFoods()) {
-            Food food = foodRepository.findById(mealFoodDto.getFoodId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Блюдо", "id", mealFoodDto.getFoodId()));
-
-            MealFood mealFood = MealFood.builder()
-                    .meal(meal)
-                    .food(food)
-                    .servings(mealFoodDto.getServings())
-                    .build();
-
-            meal.addMealFood(mealFood);
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+            meal.calculateTotals();
         }
 
         // Сохранение обновленного приема пищи
         Meal updatedMeal = mealRepository.save(meal);
+
+        // Пересчет итогов дня, а при переносе приема пищи - и итогов прежнего дня
+        Long userId = updatedMeal.getUser().getId();
+        dailyTotalService.refreshDay(userId, updatedMeal.getMealDate());
+        eventPublisher.publishEvent(new MealsChangedEvent(userId, updatedMeal.getMealDate()));
+        if (!previousDate.equals(updatedMeal.getMealDate())) {
+            dailyTotalService.refreshDay(userId, previousDate);
+            eventPublisher.publishEvent(new MealsChangedEvent(userId, previousDate));
+        }
+        publishFoodUsage(foodUsage);
+
+        event.finish(userId, 1, updatedMeal.getMealFoods().size());
         return mapToDto(updatedMeal);
     }
 
@@ -136,10 +318,7 @@ public class MealService {
             throw new ResourceNotFoundException("Пользователь", "id", userId);
         }
 
-        List<Meal> meals = mealRepository.findByUserIdAndMealDateOrderByMealTime(userId, date);
-        return meals.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return findMealsByDate(userId, date);
     }
 
     /**
@@ -150,6 +329,66 @@ public class MealService {
             throw new ResourceNotFoundException("Пользователь", "id", userId);
         }
 
+        return findMealsByDateRange(userId, startDate, endDate);
+    }
+
+    /**
+     * Получение ленты приемов пищи пользователя по дате, времени и идентификатору
+     */
+    public CursorPageDto<MealDto> getUserMealTimeline(Long userId, String cursor, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Пользователь", "id", userId);
+        }
+
+        int pageSize = CursorPagination.resolveSize(size, paginationProperties);
+        PageRequest rowLimit = PageRequest.of(0, pageSize + 1);
+
+        List<MealTimelineKey> keys;
+        if (cursor == null || cursor.isBlank()) {
+            keys = mealRepository.findTimelineKeys(userId, rowLimit);
+        } else {
+            MealTimelineKey after = CursorPagination.decode(cursor, 3, parts -> new MealTimelineKey(
+                    LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2])));
+            keys = mealRepository.findTimelineKeysAfter(userId, after.mealDate(), after.mealTime(), after.id(), rowLimit);
+        }
+
+        boolean hasMore = keys.size() > pageSize;
+        List<MealTimelineKey> pageKeys = hasMore ? keys.subList(0, pageSize) : keys;
+
+        // Приемы пищи с блюдами загружаются отдельно по ключам страницы и упорядочиваются как в ленте
+        List<Long> mealIds = pageKeys.stream()
+                .map(MealTimelineKey::id)
+                .collect(Collectors.toList());
+        Map<Long, Meal> mealsById = mealIds.isEmpty() ? Map.of() : mealRepository.findByIdIn(mealIds).stream()
+                .collect(Collectors.toMap(Meal::getId, Function.identity()));
+        List<MealDto> items = mealIds.stream()
+                .map(mealsById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+
+        MealTimelineKey last = pageKeys.isEmpty() ? null : pageKeys.get(pageKeys.size() - 1);
+        return CursorPageDto.<MealDto>builder()
+                .items(items)
+                .nextCursor(hasMore ? CursorPagination.encode(last.mealDate(), last.mealTime(), last.id()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Загрузка приемов пищи за день вместе с блюдами без проверки пользователя
+     */
+    List<MealDto> findMealsByDate(Long userId, LocalDate date) {
+        List<Meal> meals = mealRepository.findByUserIdAndMealDateOrderByMealTime(userId, date);
+        return meals.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Загрузка приемов пищи за период вместе с блюдами без проверки пользователя
+     */
+    List<MealDto> findMealsByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
         List<Meal> meals = mealRepository.findByUserIdAndMealDateBetweenOrderByMealDateAscMealTimeAsc(
                 userId, startDate, endDate);
         return meals.stream()
@@ -162,44 +401,223 @@ public class MealService {
      */
     @Transactional
     public void deleteMeal(Long mealId) {
-        if (!mealRepository.existsById(mealId)) {
-            throw new ResourceNotFoundException("Прием пищи", "id", mealId);
+        MealWriteEvent event = MealWriteEvent.start("DELETE");
+        Meal meal = findMealForUpdate(mealId);
+        mealRepository.delete(meal);
+        dailyTotalService.refreshDay(meal.getUser().getId(), meal.getMealDate());
+        eventPublisher.publishEvent(new MealsChangedEvent(meal.getUser().getId(), meal.getMealDate()));
+        Map<Long, Long> foodUsage = new HashMap<>();
+        countFoodUsage(meal.getMealFoods(), -1, foodUsage);
+        publishFoodUsage(foodUsage);
+        event.finish(meal.getUser().getId(), 1, meal.getMealFoods().size());
+    }
+
+    /**
+     * Загрузка приема пищи после блокировки его пользователя: прежние дата и состав читаются
+     * уже после фиксации конкурирующих изменений, а не из снимка до блокировки
+     */
+    private Meal findMealForUpdate(Long mealId) {
+        Long userId = mealRepository.findUserIdById(mealId)
+                .orElseThrow(() -> new ResourceNotFoundException("Прием пищи", "id", mealId));
+        lockUser(userId);
+        return mealRepository.findById(mealId)
+                .orElseThrow(() -> new ResourceNotFoundException("Прием пищи", "id", mealId));
+    }
+
+    /**
+     * Блокировка пользователя до изменения его приемов пищи и пересчета итогов дня
+     */
+    private void lockUser(Long userId) {
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
+    }
+
+    /**
+     * Учет записей состава в приращениях популярности блюд: +1 для нового состава, -1 для прежнего
+     */
+    private static void countFoodUsage(Collection<MealFood> mealFoods, long sign, Map<Long, Long> foodUsage) {
+        for (MealFood mealFood : mealFoods) {
+            foodUsage.merge(mealFood.getFood().getId(), sign, Long::sum);
+        }
+    }
+
+    private void publishFoodUsage(Map<Long, Long> foodUsage) {
+        foodUsage.values().removeIf(delta -> delta == 0);
+        if (!foodUsage.isEmpty()) {
+            eventPublisher.publishEvent(new FoodUsageChangedEvent(foodUsage));
         }
-        mealRepository.deleteById(mealId);
     }
 
     /**
-     * Преобразование сущности в DTO
+     * Проверка элемента пакета, возвращает описание ошибки или null
      */
-    private MealDto mapToDto(Meal meal) {
-        MealDto mealDto = MealDto.builder()
-                .id(meal.getId())
-                .userId(meal.getUser().getId())
-                .mealDate(meal.getMealDate())
-                .mealTime(meal.getMealTime())
-                .mealType(meal.getMealType())
-                .mealFoods(new ArrayList<>())
-                .build();
+    private String validateBatchItem(MealDto mealDto) {
+        if (mealDto == null) {
+            return "Прием пищи не может быть пустым";
+        }
+        Set<ConstraintViolation<MealDto>> violations = validator.validate(mealDto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (mealDto.getUserId() == null) {
+            return "userId: ID пользователя не может быть пустым";
+        }
+        if (mealDto.getMealFoods() == null || mealDto.getMealFoods().isEmpty()) {
+            return "Прием пищи должен содержать хотя бы одно блюдо";
+        }
+        return null;
+    }
 
-        // Преобразование MealFood в MealFoodDto
+    /**
+     * Сохранение порции приемов пищи: один flush отправляет INSERT пакетами,
+     * после чего контекст очищается, чтобы его размер не зависел от размера пакета
+     */
+    private void persistChunk(List<Meal> chunk, List<Integer> chunkIndexes, Long[] mealIds) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        mealRepository.saveAll(chunk);
+        entityManager.flush();
+        for (int i = 0; i < chunk.size(); i++) {
+            mealIds[chunkIndexes.get(i)] = chunk.get(i).getId();
+        }
+        entityManager.clear();
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    /**
+     * Загрузка всех блюд из DTO одним запросом
+     */
+    private Map<Long, Food> resolveFoods(List<MealFoodDto> mealFoodDtos) {
+        Set<Long> foodIds = mealFoodDtos.stream()
+                .map(MealFoodDto::getFoodId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, Food> foods = foodRepository.findAllById(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+
+        // Все отсутствующие блюда сообщаются одной ошибкой
+        List<Long> missingIds = foodIds.stream()
+                .filter(foodId -> !foods.containsKey(foodId))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Блюда не найдены с id : " + missingIds);
+        }
+
+        return foods;
+    }
+
+    /**
+     * Обновление состава приема пищи с минимальным количеством изменений.
+     * Записи сопоставляются по id, а при его отсутствии - по блюду; неизмененные записи
+     * не затрагиваются, измененные обновляются, удаляются только отсутствующие в DTO.
+     */
+    private void reconcileMealFoods(Meal meal, List<MealFoodDto> mealFoodDtos, Map<Long, Food> foods) {
+        Map<Long, MealFood> unmatched = new LinkedHashMap<>();
         for (MealFood mealFood : meal.getMealFoods()) {
-            MealFoodDto mealFoodDto = MealFoodDto.builder()
-                    .id(mealFood.getId())
-                    .foodId(mealFood.getFood().getId())
-                    .foodName(mealFood.getFood().getName())
-                    .servings(mealFood.getServings())
-                    .build();
+            unmatched.put(mealFood.getId(), mealFood);
+        }
+
+        // Первый проход: сопоставление по идентификатору записи
+        Map<MealFoodDto, MealFood> matched = new IdentityHashMap<>();
+        for (MealFoodDto mealFoodDto : mealFoodDtos) {
+            if (mealFoodDto.getId() == null) {
+                continue;
+            }
+            MealFood mealFood = unmatched.remove(mealFoodDto.getId());
+            if (mealFood == null) {
+                throw new InvalidDataException("Запись с id " + mealFoodDto.getId()
+                        + " не относится к приему пищи с id " + meal.getId());
+            }
+            matched.put(mealFoodDto, mealFood);
+        }
 
-            // Расчет питательных веществ для данной порции
-            FoodDto foodDto = foodService.mapToDto(mealFood.getFood());
-            mealFoodDto.calculateNutrition(foodDto);
+        // Второй проход: записи без id сопоставляются с оставшимися записями того же блюда
+        for (MealFoodDto mealFoodDto : mealFoodDtos) {
+            if (mealFoodDto.getId() != null) {
+                continue;
+            }
+            unmatched.values().stream()
+                    .filter(mealFood -> mealFood.getFood().getId().equals(mealFoodDto.getFoodId()))
+                    .findFirst()
+                    .ifPresent(mealFood -> {
+                        unmatched.remove(mealFood.getId());
+                        matched.put(mealFoodDto, mealFood);
+                    });
+        }
 
-            mealDto.getMealFoods().add(mealFoodDto);
+        // Удаляются только записи, которых больше нет в составе
+        for (MealFood mealFood : unmatched.values()) {
+            meal.removeMealFood(mealFood);
         }
 
-        // Расчет общих питательных веществ для приема пищи
-        mealDto.calculateTotals();
+        for (MealFoodDto mealFoodDto : mealFoodDtos) {
+            Food food = foods.get(mealFoodDto.getFoodId());
+            MealFood mealFood = matched.get(mealFoodDto);
+            if (mealFood == null) {
+                meal.addMealFood(buildMealFood(meal, food, mealFoodDto));
+                continue;
+            }
+            // Изменения попадают в UPDATE только при отличии значений
+            if (!mealFood.getFood().getId().equals(food.getId())) {
+                mealFood.setFood(food);
+            }
+            if (!mealFood.getServings().equals(mealFoodDto.getServings())) {
+                mealFood.setServings(mealFoodDto.getServings());
+            }
+        }
+    }
 
-        return mealDto;
+    private MealFood buildMealFood(Meal meal, Food food, MealFoodDto mealFoodDto) {
+        return MealFood.builder()
+                .meal(meal)
+                .food(food)
+                .servings(mealFoodDto.getServings())
+                .build();
+    }
+
+    /**
+     * Преобразование сущности в DTO
+     */
+    MealDto mapToDto(Meal meal) {
+        // Время преобразования, включая загрузку блюд, попадает в фазу mapping заголовка Server-Timing
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.MAPPING)) {
+            MealDto mealDto = MealDto.builder()
+                    .id(meal.getId())
+                    .userId(meal.getUser().getId())
+                    .mealDate(meal.getMealDate())
+                    .mealTime(meal.getMealTime())
+                    .mealType(meal.getMealType())
+                    .mealFoods(new ArrayList<>())
+                    .totalCalories(meal.getTotalCalories())
+                    .totalProteins(meal.getTotalProteins())
+                    .totalFats(meal.getTotalFats())
+                    .totalCarbohydrates(meal.getTotalCarbohydrates())
+                    .build();
+
+            // Преобразование MealFood в MealFoodDto
+            NutritionAccumulator portion = new NutritionAccumulator();
+            for (MealFood mealFood : meal.getMealFoods()) {
+                MealFoodDto mealFoodDto = MealFoodDto.builder()
+                        .id(mealFood.getId())
+                        .foodId(mealFood.getFood().getId())
+                        .foodName(mealFood.getFood().getName())
+                        .servings(mealFood.getServings())
+                        .build();
+
+                // Расчет питательных веществ для данной порции
+                FoodDto foodDto = foodService.mapToDto(mealFood.getFood());
+                mealFoodDto.calculateNutrition(foodDto, portion);
+
+                mealDto.getMealFoods().add(mealFoodDto);
+            }
+
+            // Общие питательные вещества берутся из сохраненных итогов приема пищи
+            return mealDto;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.ReportCoalescingProperties;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.event.MealsChangedEvent;
+import com.example.calorietracker.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых запросов отчетов: первый запрос строит отчет,
+ * остальные ждут его результата или ошибки вместо повторного выполнения запросов к базе.
+ * Результат не сохраняется после завершения построения, за это отвечает кэш отчетов.
+ * После фиксации изменений, затрагивающих отчет, его построение перестает быть общим:
+ * оно могло прочитать данные до фиксации, поэтому следующий запрос строит отчет заново.
+ */
+@Component
+public class ReportRequestCoalescer {
+
+    public enum ReportType {
+        DAILY, DAILY_SUMMARY, HISTORY, HISTORY_SUMMARY
+    }
+
+    private final ReportCoalescingProperties properties;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<ReportType, LongAdder> executions = new EnumMap<>(ReportType.class);
+    private final Map<ReportType, LongAdder> coalesced = new EnumMap<>(ReportType.class);
+
+    @Autowired
+    public ReportRequestCoalescer(ReportCoalescingProperties properties) {
+        this.properties = properties;
+        for (ReportType type : ReportType.values()) {
+            executions.put(type, new LongAdder());
+            coalesced.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Построение отчета или ожидание уже выполняющегося построения с теми же параметрами
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(ReportType type, Long userId, LocalDate startDate, LocalDate endDate,
+                         Supplier<T> computation) {
+        if (!isEnabled(type)) {
+            executions.get(type).increment();
+            return computation.get();
+        }
+
+        Key key = new Key(type, userId, startDate, endDate);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.get(type).increment();
+            return (T) await(running);
+        }
+
+        executions.get(type).increment();
+        try {
+            T result = computation.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public boolean isEnabled(ReportType type) {
+        return switch (type) {
+            case DAILY -> properties.isDaily();
+            case DAILY_SUMMARY -> properties.isDailySummary();
+            case HISTORY -> properties.isHistory();
+            case HISTORY_SUMMARY -> properties.isHistorySummary();
+        };
+    }
+
+    /**
+     * Количество выполненных построений отчета
+     */
+    public long executionCount(ReportType type) {
+        return executions.get(type).sum();
+    }
+
+    /**
+     * Количество запросов, получивших результат чужого построения
+     */
+    public long coalescedCount(ReportType type) {
+        return coalesced.get(type).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealsChanged(MealsChangedEvent event) {
+        inFlight.keySet().removeIf(key -> key.userId().equals(event.userId())
+                && !key.startDate().isAfter(event.endDate())
+                && !key.endDate().isBefore(event.startDate()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        inFlight.keySet().removeIf(key -> key.userId().equals(event.userId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodChanged(FoodChangedEvent event) {
+        // Новое блюдо еще не входит ни в один отчет
+        if (event.type() == FoodChangedEvent.Type.CREATED) {
+            return;
+        }
+        inFlight.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFoodsImported(FoodsImportedEvent event) {
+        if (!event.updated().isEmpty()) {
+            inFlight.clear();
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Ожидающие запросы получают то же исключение, что и запрос, строивший отчет
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(ReportType type, Long userId, LocalDate startDate, LocalDate endDate) {
+    }
+}
@@ -1,70 +1,132 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.MetricsConfig;
 import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.DailySummaryDto;
+import com.example.calorietracker.dto.FoodDto;
 import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
 import com.example.calorietracker.exception.ResourceNotFoundException;
+import com.example.calorietracker.model.DailyTotal;
+import com.example.calorietracker.model.NutritionAccumulator;
 import com.example.calorietracker.model.User;
+import com.example.calorietracker.monitoring.ReportBuildEvent;
+import com.example.calorietracker.monitoring.ServerTiming;
+import com.example.calorietracker.repository.MealHistoryRow;
 import com.example.calorietracker.repository.MealRepository;
+import com.example.calorietracker.repository.UserDayTotalsView;
 import com.example.calorietracker.repository.UserRepository;
+import com.example.calorietracker.service.ReportRequestCoalescer.ReportType;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class ReportService {
 
     private final UserRepository userRepository;
     private final MealRepository mealRepository;
     private final MealService mealService;
+    private final DailyTotalService dailyTotalService;
+    private final DailyReportCache dailyReportCache;
+    private final ReportRequestCoalescer coalescer;
 
     @Autowired
-    public ReportService(UserRepository userRepository, MealRepository mealRepository, MealService mealService) {
+    public ReportService(UserRepository userRepository, MealRepository mealRepository, MealService mealService,
+                         DailyTotalService dailyTotalService, DailyReportCache dailyReportCache,
+                         ReportRequestCoalescer coalescer) {
         this.userRepository = userRepository;
         this.mealRepository = mealRepository;
         this.mealService = mealService;
+        this.dailyTotalService = dailyTotalService;
+        this.dailyReportCache = dailyReportCache;
+        this.coalescer = coalescer;
     }
 
     /**
-     * Создание отчета о питании за день
+     * Получение отчета о питании за день из кэша или его создание
      */
     public DailyReportDto getDailyReport(Long userId, LocalDate date) {
+        return coalescer.execute(ReportType.DAILY, userId, date, date,
+                () -> dailyReportCache.get(userId, date, () -> buildDailyReport(userId, date)));
+    }
+
+    /**
+     * Создание отчета о питании за день
+     */
+    private DailyReportDto buildDailyReport(Long userId, LocalDate date) {
+        ReportBuildEvent event = ReportBuildEvent.start(ReportType.DAILY.name(), userId, date, date);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
 
-        List<MealDto> meals = mealService.getUserMealsByDate(userId, date);
+        // Пользователь уже загружен, поэтому повторная проверка существования не нужна
+        List<MealDto> meals = mealService.findMealsByDate(userId, date);
 
-        DailyReportDto report = DailyReportDto.builder()
-                .userId(user.getId())
-                .userName(user.getName())
+        DailyReportDto report = toDailyReport(user, date, meals);
+        event.addDay(meals);
+        event.finish();
+        return report;
+    }
+
+    /**
+     * Получение итогов питания за день агрегирующим запросом без загрузки приемов пищи
+     */
+    public DailySummaryDto getDailySummary(Long userId, LocalDate date) {
+        return coalescer.execute(ReportType.DAILY_SUMMARY, userId, date, date,
+                () -> buildDailySummary(userId, date));
+    }
+
+    private DailySummaryDto buildDailySummary(Long userId, LocalDate date) {
+        UserDayTotalsView totals = mealRepository.sumUserDayTotals(userId, date)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
+
+        DailySummaryDto summary = DailySummaryDto.builder()
+                .userId(totals.getUserId())
                 .date(date)
-                .dailyCalorieTarget(user.getDailyCalorieTarget())
-                .meals(meals)
+                .dailyCalorieTarget(totals.getDailyCalorieTarget())
+                .mealCount(totals.getMealCount().intValue())
+                .totalCaloriesConsumed(totals.getTotalCalories().intValue())
+                .totalProteinsConsumed(totals.getTotalProteins())
+                .totalFatsConsumed(totals.getTotalFats())
+                .totalCarbohydratesConsumed(totals.getTotalCarbohydrates())
                 .build();
 
-        // Расчет общих питательных веществ и проверка соответствия норме калорий
-        report.calculateTotals();
+        summary.calculateTargetStatus();
 
-        return report;
+        return summary;
     }
 
     /**
      * Проверка соответствия дневной нормы калорий
      */
     public boolean isWithinCalorieTarget(Long userId, LocalDate date) {
-        DailyReportDto report = getDailyReport(userId, date);
-        return report.getWithinCalorieTarget();
+        return getDailySummary(userId, date).getWithinCalorieTarget();
     }
 
     /**
      * Получение истории питания по дням за указанный период
      */
     public List<DailyReportDto> getFeedingHistoryByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return coalescer.execute(ReportType.HISTORY, userId, startDate, endDate,
+                () -> buildFeedingHistory(userId, startDate, endDate));
+    }
+
+    private List<DailyReportDto> buildFeedingHistory(Long userId, LocalDate startDate, LocalDate endDate) {
+        ReportBuildEvent event = ReportBuildEvent.start(ReportType.HISTORY.name(), userId, startDate, endDate);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
 
@@ -82,33 +144,151 @@ public class ReportService {
         List<DailyReportDto> history = new ArrayList<>();
 
         // Получение всех приемов пищи за период
-        List<MealDto> allMeals = mealService.getUserMealsByDateRange(userId, startDate, endDate);
+        List<MealDto> allMeals = mealService.findMealsByDateRange(userId, startDate, endDate);
 
         // Группировка приемов пищи по датам
         Map<LocalDate, List<MealDto>> mealsByDate = new HashMap<>();
-        for (MealDto meal : allMeals) {
-            mealsByDate.computeIfAbsent(meal.getMealDate(), k -> new ArrayList<>()).add(meal);
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+            for (MealDto meal : allMeals) {
+                mealsByDate.computeIfAbsent(meal.getMealDate(), k -> new ArrayList<>()).add(meal);
+            }
         }
 
         // Создание отчетов для каждого дня
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
             List<MealDto> dailyMeals = mealsByDate.getOrDefault(date, new ArrayList<>());
+            history.add(toDailyReport(user, date, dailyMeals));
+            event.addDay(dailyMeals);
+        }
+
+        event.finish();
+        return history;
+    }
+
+    /**
+     * Потоковая выдача истории питания по дням за произвольный период: каждый день передается в sink,
+     * как только прочитаны все его приемы пищи
+     */
+    @Transactional(readOnly = true)
+    public void streamFeedingHistory(Long userId, LocalDate startDate, LocalDate endDate,
+                                     Consumer<DailyReportDto> sink) {
+        ReportBuildEvent event = ReportBuildEvent.start("HISTORY_STREAM", userId, startDate, endDate);
+        Consumer<DailyReportDto> reportSink = report -> {
+            event.addDay(report.getMeals());
+            sink.accept(report);
+        };
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
+
+        // Проверка корректности диапазона дат
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Дата начала не может быть позже даты окончания");
+        }
+
+        LocalDate nextDate = startDate;
+        LocalDate currentDate = null;
+        List<MealDto> dayMeals = new ArrayList<>();
+        MealDto currentMeal = null;
+        NutritionAccumulator portion = new NutritionAccumulator();
+
+        // Строки упорядочены по дате, времени и приему пищи, поэтому в памяти держится только текущий день
+        try (Stream<MealHistoryRow> rows = mealRepository.streamHistoryRows(userId, startDate, endDate)) {
+            Iterator<MealHistoryRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                MealHistoryRow row = iterator.next();
+
+                if (currentMeal == null || !currentMeal.getId().equals(row.mealId())) {
+                    if (currentDate != null && !currentDate.equals(row.mealDate())) {
+                        nextDate = emitHistoryDays(user, nextDate, currentDate, dayMeals, reportSink);
+                        dayMeals = new ArrayList<>();
+                    }
+                    currentDate = row.mealDate();
+                    currentMeal = toMealDto(userId, row);
+                    dayMeals.add(currentMeal);
+                }
+
+                if (row.mealFoodId() != null) {
+                    currentMeal.getMealFoods().add(toMealFoodDto(row, portion));
+                }
+            }
+        }
+
+        if (currentDate != null) {
+            nextDate = emitHistoryDays(user, nextDate, currentDate, dayMeals, reportSink);
+        }
+
+        // Дни без приемов пищи в конце периода
+        for (LocalDate date = nextDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            reportSink.accept(toDailyReport(user, date, new ArrayList<>()));
+        }
+
+        event.finish();
+    }
+
+    /**
+     * Получение итогов питания по дням за период без загрузки приемов пищи
+     */
+    public List<DailySummaryDto> getDailySummaryHistory(Long userId, LocalDate startDate, LocalDate endDate) {
+        return coalescer.execute(ReportType.HISTORY_SUMMARY, userId, startDate, endDate,
+                () -> buildDailySummaryHistory(userId, startDate, endDate));
+    }
+
+    private List<DailySummaryDto> buildDailySummaryHistory(Long userId, LocalDate startDate, LocalDate endDate) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Пользователь", "id", userId));
+
+        // Проверка корректности диапазона дат
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Дата начала не может быть позже даты окончания");
+        }
+
+        long daysBetween = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (daysBetween > 366) {
+            throw new IllegalArgumentException("Максимальный период для сводки - 366 дней");
+        }
+
+        // Итоги читаются из daily_totals, дни без приемов пищи заполняются нулями
+        Map<LocalDate, DailyTotal> totalsByDate = dailyTotalService.getDailyTotals(userId, startDate, endDate).stream()
+                .collect(Collectors.toMap(DailyTotal::getMealDate, Function.identity()));
+
+        List<DailySummaryDto> history = new ArrayList<>((int) daysBetween);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DailyTotal dailyTotal = totalsByDate.get(date);
 
-            DailyReportDto dailyReport = DailyReportDto.builder()
+            DailySummaryDto summary = DailySummaryDto.builder()
                     .userId(user.getId())
-                    .userName(user.getName())
                     .date(date)
                     .dailyCalorieTarget(user.getDailyCalorieTarget())
-                    .meals(dailyMeals)
+                    .mealCount(dailyTotal != null ? dailyTotal.getMealCount() : 0)
+                    .totalCaloriesConsumed(dailyTotal != null ? dailyTotal.getTotalCalories() : 0)
+                    .totalProteinsConsumed(dailyTotal != null ? dailyTotal.getTotalProteins() : 0.0)
+                    .totalFatsConsumed(dailyTotal != null ? dailyTotal.getTotalFats() : 0.0)
+                    .totalCarbohydratesConsumed(dailyTotal != null ? dailyTotal.getTotalCarbohydrates() : 0.0)
                     .build();
 
-            dailyReport.calculateTotals();
-            history.add(dailyReport);
+            summary.calculateTargetStatus();
+            history.add(summary);
         }
 
         return history;
     }
 
+    /**
+     * Перестроение сохраненных итогов пользователя по дням за период
+     */
+    @Transactional
+    public int rebuildDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        // Блокировка пользователя не дает перестроению столкнуться с пересчетом дня при записи приема пищи
+        if (userRepository.findByIdForUpdate(userId).isEmpty()) {
+            throw new ResourceNotFoundException("Пользователь", "id", userId);
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Дата начала не может быть позже даты окончания");
+        }
+        return dailyTotalService.rebuild(userId, startDate, endDate);
+    }
+
     /**
      * Получение дат, в которые пользователь принимал пищу
      */
@@ -118,4 +298,65 @@ public class ReportService {
         }
         return mealRepository.findDistinctMealDatesByUserIdOrderByMealDate(userId);
     }
+
+    // Выдача пустых дней перед датой и самой даты с ее приемами пищи; возвращает следующую дату
+    private LocalDate emitHistoryDays(User user, LocalDate fromDate, LocalDate date, List<MealDto> meals,
+                                      Consumer<DailyReportDto> sink) {
+        for (LocalDate emptyDate = fromDate; emptyDate.isBefore(date); emptyDate = emptyDate.plusDays(1)) {
+            sink.accept(toDailyReport(user, emptyDate, new ArrayList<>()));
+        }
+        sink.accept(toDailyReport(user, date, meals));
+        return date.plusDays(1);
+    }
+
+    private DailyReportDto toDailyReport(User user, LocalDate date, List<MealDto> meals) {
+        DailyReportDto report = DailyReportDto.builder()
+                .userId(user.getId())
+                .userName(user.getName())
+                .date(date)
+                .dailyCalorieTarget(user.getDailyCalorieTarget())
+                .meals(meals)
+                .build();
+
+        // Расчет общих питательных веществ и проверка соответствия норме калорий
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+            report.calculateTotals();
+        }
+
+        return report;
+    }
+
+    private MealDto toMealDto(Long userId, MealHistoryRow row) {
+        return MealDto.builder()
+                .id(row.mealId())
+                .userId(userId)
+                .mealDate(row.mealDate())
+                .mealTime(row.mealTime())
+                .mealType(row.mealType())
+                .mealFoods(new ArrayList<>())
+                .totalCalories(row.totalCalories())
+                .totalProteins(row.totalProteins())
+                .totalFats(row.totalFats())
+                .totalCarbohydrates(row.totalCarbohydrates())
+                .build();
+    }
+
+    private MealFoodDto toMealFoodDto(MealHistoryRow row, NutritionAccumulator portion) {
+        MealFoodDto mealFoodDto = MealFoodDto.builder()
+                .id(row.mealFoodId())
+                .foodId(row.foodId())
+                .servings(row.servings())
+                .build();
+
+        mealFoodDto.calculateNutrition(FoodDto.builder()
+                .id(row.foodId())
+                .name(row.foodName())
+                .caloriesPerServing(row.caloriesPerServing())
+                .proteins(row.proteins())
+                .fats(row.fats())
+                .carbohydrates(row.carbohydrates())
+                .build(), portion);
+
+        return mealFoodDto;
+    }
 }
\ No newline at end of file
@@ -1,26 +1,45 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.MetricsConfig;
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.event.FoodUsageChangedEvent;
+import com.example.calorietracker.event.UserChangedEvent;
 import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.Goal;
 import com.example.calorietracker.model.User;
+import com.example.calorietracker.repository.FoodUsageCount;
+import com.example.calorietracker.repository.MealRepository;
 import com.example.calorietracker.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
+    private final MealRepository mealRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaginationProperties paginationProperties;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MealRepository mealRepository,
+                       ApplicationEventPublisher eventPublisher, PaginationProperties paginationProperties) {
         this.userRepository = userRepository;
+        this.mealRepository = mealRepository;
+        this.eventPublisher = eventPublisher;
+        this.paginationProperties = paginationProperties;
     }
 
     /**
@@ -56,6 +75,9 @@ public class UserService {
             throw new InvalidDataException("Пользователь с таким email уже существует");
         }
 
+        String previousName = user.getName();
+        Integer previousTarget = user.getDailyCalorieTarget();
+
         user.setName(userDto.getName());
         user.setEmail(userDto.getEmail());
         user.setAge(userDto.getAge());
@@ -71,6 +93,12 @@ public class UserService {
         user.setDailyCalorieTarget(dailyCalorieTarget);
 
         User updatedUser = userRepository.save(user);
+
+        // Имя и норма калорий входят в отчеты пользователя
+        if (!dailyCalorieTarget.equals(previousTarget) || !user.getName().equals(previousName)) {
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
+        }
+
         return mapToDto(updatedUser);
     }
 
@@ -84,12 +112,16 @@ public class UserService {
     }
 
     /**
-     * Получение списка всех пользователей
+     * Получение страницы пользователей в порядке идентификаторов
      */
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<UserDto> getUsers(String cursor, Integer size) {
+        int pageSize = CursorPagination.resolveSize(size, paginationProperties);
+        long afterId = CursorPagination.decodeId(cursor);
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+
+        return CursorPagination.toPage(users, pageSize, this::mapToDto,
+                user -> CursorPagination.encode(user.getId()));
     }
 
     /**
@@ -100,13 +132,20 @@ public class UserService {
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("Пользователь", "id", userId);
         }
+        // Приемы пищи удаляются в базе каскадно, поэтому их вклад в популярность блюд вычитается заранее
+        Map<Long, Long> foodUsage = mealRepository.countFoodUsageByUserId(userId).stream()
+                .collect(Collectors.toMap(FoodUsageCount::foodId, count -> -count.usageCount()));
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        if (!foodUsage.isEmpty()) {
+            eventPublisher.publishEvent(new FoodUsageChangedEvent(foodUsage));
+        }
     }
 
     /**
      * Расчет дневной нормы калорий по формуле Харриса-Бенедикта
      */
-    private Integer calculateDailyCalorieTarget(Integer age, Double weight, Integer height, Goal goal) {
+    Integer calculateDailyCalorieTarget(Integer age, Double weight, Integer height, Goal goal) {
         double bmr = 10 * weight + 6.25 * height - 5 * age + 5;
 
         double maintenanceCalories = bmr * 1.55;
@@ -0,0 +1,7 @@
+-- Последовательности с шагом 50 для пакетной вставки приемов пищи и их состава.
+-- Начальные значения выставляются выше текущих максимальных id.
+CREATE SEQUENCE IF NOT EXISTS meals_seq INCREMENT BY 50;
+SELECT setval('meals_seq', (SELECT COALESCE(MAX(id), 0) FROM meals) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS meal_foods_seq INCREMENT BY 50;
+SELECT setval('meal_foods_seq', (SELECT COALESCE(MAX(id), 0) FROM meal_foods) + 50, false);
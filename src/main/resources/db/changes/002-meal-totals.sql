@@ -0,0 +1,22 @@
+-- Сохраненные итоги питательных веществ по приему пищи.
+ALTER TABLE meals
+    ADD COLUMN IF NOT EXISTS total_calories INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS total_proteins DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS total_fats DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS total_carbohydrates DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+-- Заполнение итогов для существующих приемов пищи
+UPDATE meals m
+SET total_calories = t.calories,
+    total_proteins = t.proteins,
+    total_fats = t.fats,
+    total_carbohydrates = t.carbohydrates
+FROM (SELECT mf.meal_id,
+             SUM(FLOOR(mf.servings * f.calories_per_serving)) AS calories,
+             SUM(mf.servings * f.proteins) AS proteins,
+             SUM(mf.servings * f.fats) AS fats,
+             SUM(mf.servings * f.carbohydrates) AS carbohydrates
+      FROM meal_foods mf
+               JOIN foods f ON f.id = mf.food_id
+      GROUP BY mf.meal_id) t
+WHERE m.id = t.meal_id;
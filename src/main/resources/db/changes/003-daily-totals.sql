@@ -0,0 +1,21 @@
+-- Итоги питания пользователя по дням, поддерживаются вместе с приемами пищи.
+CREATE TABLE IF NOT EXISTS daily_totals (
+    user_id             BIGINT           NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    meal_date           DATE             NOT NULL,
+    meal_count          INTEGER          NOT NULL,
+    total_calories      INTEGER          NOT NULL,
+    total_proteins      DOUBLE PRECISION NOT NULL,
+    total_fats          DOUBLE PRECISION NOT NULL,
+    total_carbohydrates DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (user_id, meal_date)
+);
+
+-- Индекс для выборки приемов пищи пользователя за день при пересчете итогов
+CREATE INDEX IF NOT EXISTS idx_meals_user_date ON meals (user_id, meal_date);
+
+-- Заполнение итогов по существующим приемам пищи
+INSERT INTO daily_totals (user_id, meal_date, meal_count, total_calories, total_proteins, total_fats, total_carbohydrates)
+SELECT user_id, meal_date, COUNT(*), SUM(total_calories), SUM(total_proteins), SUM(total_fats), SUM(total_carbohydrates)
+FROM meals
+GROUP BY user_id, meal_date
+ON CONFLICT (user_id, meal_date) DO NOTHING;
@@ -0,0 +1,5 @@
+-- Индекс для постраничной выдачи приемов пищи пользователя по (meal_date, meal_time, id).
+-- Он покрывает и поиск по пользователю и дате, поэтому прежний индекс удаляется.
+CREATE INDEX IF NOT EXISTS idx_meals_user_date_time_id ON meals (user_id, meal_date, meal_time, id);
+
+DROP INDEX IF EXISTS idx_meals_user_date;
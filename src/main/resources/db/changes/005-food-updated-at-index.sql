@@ -0,0 +1,2 @@
+-- Индекс для инкрементальной выгрузки каталога блюд по времени изменения.
+CREATE INDEX IF NOT EXISTS idx_foods_updated_at ON foods (updated_at);
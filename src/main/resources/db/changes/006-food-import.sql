@@ -0,0 +1,7 @@
+-- Последовательность с шагом 50 для пакетной вставки блюд при импорте каталога.
+-- Начальное значение выставляется выше текущего максимального id.
+CREATE SEQUENCE IF NOT EXISTS foods_seq INCREMENT BY 50;
+SELECT setval('foods_seq', (SELECT COALESCE(MAX(id), 0) FROM foods) + 50, false);
+
+-- Индекс для поиска существующих блюд по названию без учета регистра.
+CREATE INDEX IF NOT EXISTS idx_foods_lower_name ON foods (lower(name));
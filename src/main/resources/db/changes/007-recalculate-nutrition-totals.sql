@@ -0,0 +1,43 @@
+-- Пересчет сохраненных итогов по правилам NutritionAccumulator.
+-- 002 заполнил итоги приемов пищи как сумму калорий, округленных вниз по каждому блюду, и неокругленных граммов,
+-- 003 сложил эти значения в daily_totals. Теперь итог приема пищи округляется один раз:
+-- калории до целых, граммы до сотых, половина вверх; порции и ценность порции берутся с точностью до тысячных.
+UPDATE meals m
+SET total_calories = t.calories,
+    total_proteins = t.proteins,
+    total_fats = t.fats,
+    total_carbohydrates = t.carbohydrates
+FROM (SELECT mf.meal_id,
+             ROUND(SUM(ROUND(CAST(mf.servings AS NUMERIC), 3) * f.calories_per_serving)) AS calories,
+             ROUND(SUM(ROUND(CAST(mf.servings AS NUMERIC), 3) * ROUND(CAST(f.proteins AS NUMERIC), 3)), 2) AS proteins,
+             ROUND(SUM(ROUND(CAST(mf.servings AS NUMERIC), 3) * ROUND(CAST(f.fats AS NUMERIC), 3)), 2) AS fats,
+             ROUND(SUM(ROUND(CAST(mf.servings AS NUMERIC), 3)
+                 * ROUND(CAST(f.carbohydrates AS NUMERIC), 3)), 2) AS carbohydrates
+      FROM meal_foods mf
+               JOIN foods f ON f.id = mf.food_id
+      GROUP BY mf.meal_id) t
+WHERE m.id = t.meal_id
+  AND (m.total_calories, m.total_proteins, m.total_fats, m.total_carbohydrates)
+    IS DISTINCT FROM (t.calories, t.proteins, t.fats, t.carbohydrates);
+
+-- Итоги дня - сумма итогов приемов пищи, как при пересчете в DailyTotalService
+INSERT INTO daily_totals (user_id, meal_date, meal_count, total_calories, total_proteins, total_fats, total_carbohydrates)
+SELECT user_id,
+       meal_date,
+       COUNT(*),
+       SUM(total_calories),
+       ROUND(CAST(SUM(total_proteins) AS NUMERIC), 2),
+       ROUND(CAST(SUM(total_fats) AS NUMERIC), 2),
+       ROUND(CAST(SUM(total_carbohydrates) AS NUMERIC), 2)
+FROM meals
+GROUP BY user_id, meal_date
+ON CONFLICT (user_id, meal_date) DO UPDATE
+    SET meal_count = EXCLUDED.meal_count,
+        total_calories = EXCLUDED.total_calories,
+        total_proteins = EXCLUDED.total_proteins,
+        total_fats = EXCLUDED.total_fats,
+        total_carbohydrates = EXCLUDED.total_carbohydrates;
+
+-- Дни, у которых не осталось приемов пищи
+DELETE FROM daily_totals d
+WHERE NOT EXISTS (SELECT 1 FROM meals m WHERE m.user_id = d.user_id AND m.meal_date = d.meal_date);
@@ -0,0 +1,12 @@
+-- Популярность блюд для подсказок. Поддерживается приращениями при записи приемов пищи,
+-- поэтому перестроение подсказок не группирует meal_foods. Здесь заполняется один раз.
+CREATE TABLE IF NOT EXISTS food_usage (
+    food_id     BIGINT NOT NULL PRIMARY KEY REFERENCES foods (id) ON DELETE CASCADE,
+    usage_count BIGINT NOT NULL
+);
+
+INSERT INTO food_usage (food_id, usage_count)
+SELECT food_id, COUNT(*)
+FROM meal_foods
+GROUP BY food_id
+ON CONFLICT (food_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- Значение по умолчанию для foods.id берется из foods_seq, старая последовательность serial удаляется,
+-- чтобы вставки без Hibernate не выдавали id из диапазонов, уже зарезервированных импортом.
+-- Последовательность продвигается выше id, выданных старой последовательностью после 006.
+SELECT setval('foods_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM foods), (SELECT last_value FROM foods_seq)) + 50, false);
+ALTER TABLE foods ALTER COLUMN id SET DEFAULT nextval('foods_seq');
+ALTER SEQUENCE foods_seq OWNED BY foods.id;
+DROP SEQUENCE IF EXISTS foods_id_seq;
@@ -0,0 +1,13 @@
+-- Значения по умолчанию для meals.id и meal_foods.id берутся из meals_seq и meal_foods_seq, старые
+-- последовательности serial удаляются, как для foods в 009: иначе вставки без Hibernate выдают id
+-- из диапазонов, уже зарезервированных пакетной вставкой приемов пищи.
+-- Последовательности продвигаются выше id, выданных старыми последовательностями после 001.
+SELECT setval('meals_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM meals), (SELECT last_value FROM meals_seq)) + 50, false);
+ALTER TABLE meals ALTER COLUMN id SET DEFAULT nextval('meals_seq');
+ALTER SEQUENCE meals_seq OWNED BY meals.id;
+DROP SEQUENCE IF EXISTS meals_id_seq;
+
+SELECT setval('meal_foods_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM meal_foods), (SELECT last_value FROM meal_foods_seq)) + 50, false);
+ALTER TABLE meal_foods ALTER COLUMN id SET DEFAULT nextval('meal_foods_seq');
+ALTER SEQUENCE meal_foods_seq OWNED BY meal_foods.id;
+DROP SEQUENCE IF EXISTS meal_foods_id_seq;
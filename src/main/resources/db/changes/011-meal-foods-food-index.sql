@@ -0,0 +1,5 @@
+-- Индекс для поиска приемов пищи по блюду при изменении его пищевой ценности
+-- (recalculateTotalsByFoodIds, пересчет daily_totals по блюдам). PostgreSQL не создает индексы
+-- для внешних ключей, и без него каждое изменение блюда читает всю таблицу meal_foods.
+-- CONCURRENTLY не блокирует запись в meal_foods на время построения; команда выполняется вне транзакции.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_meal_foods_food_id ON meal_foods (food_id);
@@ -0,0 +1,13 @@
+-- Уникальность названия блюда без учета регистра. Проверка в приложении видит только зафиксированные строки,
+-- поэтому два параллельных импорта или импорт и создание блюда могли добавить "Рис" и "рис".
+-- Существующие повторы переименовываются: к названию всех блюд, кроме самого раннего, добавляется id.
+-- Блюда не объединяются, чтобы не менять состав и итоги уже записанных приемов пищи.
+UPDATE foods f
+SET name = left(f.name, 100 - length(' (' || f.id || ')')) || ' (' || f.id || ')',
+    updated_at = now()
+WHERE EXISTS (SELECT 1 FROM foods o WHERE lower(o.name) = lower(f.name) AND o.id < f.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_foods_lower_name_unique ON foods (lower(name));
+
+-- Уникальный индекс заменяет обычный из 006 для поиска блюд по названию
+DROP INDEX IF EXISTS idx_foods_lower_name;
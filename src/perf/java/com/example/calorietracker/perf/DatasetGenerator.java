@@ -0,0 +1,333 @@
+package com.example.calorietracker.perf;
+
+import com.example.calorietracker.model.Goal;
+import com.example.calorietracker.model.NutritionAccumulator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетического набора данных для нагрузочных испытаний: пользователи, каталог блюд,
+ * приемы пищи с составом и дневные итоги.
+ * Данные каждого пользователя строятся от собственного seed, поэтому результат не зависит от размера пачки.
+ * Запуск: ./gradlew generateDataset -Pdataset.users=1000 -Pdataset.days=30
+ */
+@Slf4j
+public final class DatasetGenerator {
+
+    private static final String[] MEAL_TYPES = {"Завтрак", "Обед", "Ужин", "Перекус"};
+    private static final int BREAKFAST = 0;
+    private static final int LUNCH = 1;
+    private static final int DINNER = 2;
+    private static final int SNACK = 3;
+
+    // Среднее время и разброс в минутах для каждого типа приема пищи
+    private static final int[] MEAL_TIME_MEAN = {8 * 60, 13 * 60, 19 * 60, 16 * 60};
+    private static final int[] MEAL_TIME_STDDEV = {45, 40, 60, 150};
+
+    // Размеры порций и накопленные вероятности их выбора
+    private static final double[] SERVINGS = {0.5, 1.0, 1.5, 2.0, 3.0};
+    private static final double[] SERVINGS_CUMULATIVE = {0.15, 0.70, 0.85, 0.97, 1.0};
+
+    private static final int FOODS_CHUNK = 10_000;
+
+    private static final FoodCategory[] CATEGORIES = {
+            new FoodCategory(new String[]{"Овсяная каша", "Гречневая каша", "Рисовая каша", "Пшенная каша"}, 5, 3, 27),
+            new FoodCategory(new String[]{"Куриная грудка", "Говядина", "Индейка", "Свинина", "Котлета"}, 28, 10, 1),
+            new FoodCategory(new String[]{"Лосось", "Треска", "Тунец", "Сельдь"}, 22, 8, 0),
+            new FoodCategory(new String[]{"Творог", "Йогурт", "Кефир", "Сыр", "Сырники"}, 12, 6, 8),
+            new FoodCategory(new String[]{"Картофельное пюре", "Рис", "Макароны", "Булгур"}, 5, 3, 35),
+            new FoodCategory(new String[]{"Борщ", "Щи", "Куриный суп", "Солянка"}, 8, 6, 12),
+            new FoodCategory(new String[]{"Овощной салат", "Винегрет", "Тушеные овощи", "Омлет"}, 6, 7, 9),
+            new FoodCategory(new String[]{"Яблоко", "Банан", "Апельсин", "Груша"}, 1, 0.3, 22),
+            new FoodCategory(new String[]{"Хлеб", "Блины", "Пирожок", "Печенье"}, 6, 8, 40),
+            new FoodCategory(new String[]{"Чай с сахаром", "Кофе с молоком", "Компот", "Сок"}, 1, 1.5, 15)
+    };
+    private static final String[] FOOD_VARIANTS = {
+            "", "по-домашнему", "на пару", "с зеленью", "без соли", "с овощами", "по-деревенски", "из столовой"
+    };
+    private static final String[] FIRST_NAMES = {"Иван", "Анна", "Алексей", "Мария", "Дмитрий", "Елена", "Айгерим", "Нурлан"};
+    private static final String[] LAST_NAMES = {"Иванов", "Смирнова", "Петров", "Ким", "Ахметов", "Соколова", "Жанов"};
+
+    private final DatasetSettings settings;
+
+    // Пищевая ценность блюда с id = индекс + 1
+    private final int[] foodCalories;
+    private final double[] foodProteins;
+    private final double[] foodFats;
+    private final double[] foodCarbohydrates;
+
+    // У каждого типа приема пищи свой порядок популярности блюд
+    private final int[][] foodPopularity;
+    private final ZipfDistribution foodRanks;
+
+    // Число позиций приемов пищи с блюдом для food_usage
+    private final long[] foodUsage;
+
+    private long mealId;
+    private long mealFoodId;
+
+    public static void main(String[] args) throws Exception {
+        new DatasetGenerator(DatasetSettings.fromSystemProperties()).run();
+    }
+
+    DatasetGenerator(DatasetSettings settings) {
+        this.settings = settings;
+        this.foodCalories = new int[settings.foods()];
+        this.foodProteins = new double[settings.foods()];
+        this.foodFats = new double[settings.foods()];
+        this.foodCarbohydrates = new double[settings.foods()];
+        this.foodPopularity = new int[MEAL_TYPES.length][];
+        this.foodRanks = new ZipfDistribution(settings.foods(), settings.zipfExponent());
+        this.foodUsage = new long[settings.foods()];
+    }
+
+    void run() throws SQLException, IOException {
+        long startedAt = System.nanoTime();
+        try (DatasetWriter writer = new DatasetWriter(settings)) {
+            writer.prepareTables(settings.truncate());
+            writeFoods(writer);
+            long rows = settings.foods() + writeUsers(writer, startedAt);
+            rows += writeFoodUsage(writer);
+            writer.resetSequences(settings.users(), settings.foods(), mealId, mealFoodId);
+
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            log.info("Сгенерировано {} строк за {} с: пользователей {}, блюд {}, приемов пищи {}, позиций {}",
+                    rows, String.format("%.1f", seconds), settings.users(), settings.foods(), mealId, mealFoodId);
+        }
+    }
+
+    private void writeFoods(DatasetWriter writer) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        LocalDateTime createdAt = settings.startDate().atStartOfDay();
+        List<String> baseNames = new ArrayList<>();
+        List<FoodCategory> baseCategories = new ArrayList<>();
+        for (FoodCategory category : CATEGORIES) {
+            for (String name : category.names()) {
+                baseNames.add(name);
+                baseCategories.add(category);
+            }
+        }
+
+        TableBuffer foods = new TableBuffer("foods",
+                "id", "name", "calories_per_serving", "proteins", "fats", "carbohydrates", "created_at", "updated_at");
+        for (int i = 0; i < settings.foods(); i++) {
+            int base = i % baseNames.size();
+            int variant = (i / baseNames.size()) % FOOD_VARIANTS.length;
+            int repeat = i / (baseNames.size() * FOOD_VARIANTS.length);
+            String name = baseNames.get(base)
+                    + (FOOD_VARIANTS[variant].isEmpty() ? "" : " " + FOOD_VARIANTS[variant])
+                    + (repeat > 0 ? " №" + (repeat + 1) : "");
+
+            FoodCategory category = baseCategories.get(base);
+            foodProteins[i] = tenths(category.proteins() * jitter(random));
+            foodFats[i] = tenths(category.fats() * jitter(random));
+            foodCarbohydrates[i] = tenths(category.carbohydrates() * jitter(random));
+            double energy = 4 * foodProteins[i] + 9 * foodFats[i] + 4 * foodCarbohydrates[i];
+            foodCalories[i] = (int) Math.max(1, Math.round(energy * (0.95 + 0.1 * random.nextDouble())));
+
+            foods.add((long) i + 1, name, foodCalories[i], foodProteins[i], foodFats[i], foodCarbohydrates[i],
+                    createdAt, createdAt);
+            if (foods.size() == FOODS_CHUNK) {
+                writer.write(foods);
+                writer.commit();
+            }
+        }
+        writer.write(foods);
+        writer.commit();
+
+        for (int type = 0; type < MEAL_TYPES.length; type++) {
+            foodPopularity[type] = shuffledIndexes(settings.foods(), random);
+        }
+    }
+
+    private long writeUsers(DatasetWriter writer, long startedAt) throws SQLException, IOException {
+        TableBuffer users = new TableBuffer("users",
+                "id", "name", "email", "age", "weight", "height", "goal", "daily_calorie_target", "created_at", "updated_at");
+        TableBuffer meals = new TableBuffer("meals",
+                "id", "user_id", "meal_date", "meal_time", "meal_type",
+                "total_calories", "total_proteins", "total_fats", "total_carbohydrates", "created_at", "updated_at");
+        TableBuffer mealFoods = new TableBuffer("meal_foods", "id", "meal_id", "food_id", "servings", "created_at");
+        TableBuffer dailyTotals = new TableBuffer("daily_totals",
+                "user_id", "meal_date", "meal_count", "total_calories", "total_proteins", "total_fats", "total_carbohydrates");
+
+        long rows = 0;
+        for (long userId = 1; userId <= settings.users(); userId++) {
+            SplittableRandom random = new SplittableRandom(settings.seed() * 0x9E3779B97F4A7C15L + userId);
+            addUser(users, userId, random);
+            for (LocalDate date = settings.startDate(); !date.isAfter(settings.endDate()); date = date.plusDays(1)) {
+                addDay(meals, mealFoods, dailyTotals, userId, date, random);
+            }
+
+            if (userId % settings.chunkUsers() == 0 || userId == settings.users()) {
+                rows += users.size() + meals.size() + mealFoods.size() + dailyTotals.size();
+                // Порядок записи соответствует внешним ключам
+                writer.write(users);
+                writer.write(meals);
+                writer.write(mealFoods);
+                writer.write(dailyTotals);
+                writer.commit();
+
+                double seconds = (System.nanoTime() - startedAt) / 1e9;
+                log.info("Пользователи {}/{}, приемов пищи {}, позиций {}, {} строк/с",
+                        userId, settings.users(), mealId, mealFoodId, Math.round(rows / seconds));
+            }
+        }
+        return rows;
+    }
+
+    private long writeFoodUsage(DatasetWriter writer) throws SQLException, IOException {
+        TableBuffer usage = new TableBuffer("food_usage", "food_id", "usage_count");
+        long rows = 0;
+        for (int i = 0; i < settings.foods(); i++) {
+            if (foodUsage[i] == 0) {
+                continue;
+            }
+            usage.add((long) i + 1, foodUsage[i]);
+            rows++;
+            if (usage.size() == FOODS_CHUNK) {
+                writer.write(usage);
+            }
+        }
+        writer.write(usage);
+        writer.commit();
+        return rows;
+    }
+
+    private void addUser(TableBuffer users, long userId, SplittableRandom random) {
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int age = 18 + (int) (52 * Math.pow(random.nextDouble(), 1.5));
+        int height = (int) clamp(Math.round(172 + 9 * random.nextGaussian()), 150, 205);
+        double bodyMassIndex = clamp(25.5 + 4 * random.nextGaussian(), 17, 40);
+        double weight = tenths(bodyMassIndex * height * height / 10_000.0);
+        double goalDraw = random.nextDouble();
+        Goal goal = goalDraw < 0.5 ? Goal.WEIGHT_LOSS : goalDraw < 0.85 ? Goal.MAINTENANCE : Goal.WEIGHT_GAIN;
+        LocalDateTime createdAt = settings.startDate().atStartOfDay();
+
+        users.add(userId, name, "user" + userId + "@example.com", age, weight, height, goal.name(),
+                dailyCalorieTarget(age, weight, height, goal), createdAt, createdAt);
+    }
+
+    private void addDay(TableBuffer meals, TableBuffer mealFoods, TableBuffer dailyTotals, long userId,
+                        LocalDate date, SplittableRandom random) {
+        int mealCount = Math.max(1, settings.mealsPerDay() + spread(random));
+        List<MealSlot> slots = new ArrayList<>(mealCount);
+        for (int type : mealTypes(mealCount)) {
+            int minutes = (int) clamp(Math.round(MEAL_TIME_MEAN[type] + MEAL_TIME_STDDEV[type] * random.nextGaussian()),
+                    5 * 60, 23 * 60 + 59);
+            slots.add(new MealSlot(type, LocalTime.of(minutes / 60, minutes % 60)));
+        }
+        slots.sort(Comparator.comparing(MealSlot::time));
+
+        NutritionAccumulator dayTotals = new NutritionAccumulator();
+        NutritionAccumulator mealTotals = new NutritionAccumulator();
+        for (MealSlot slot : slots) {
+            long id = ++mealId;
+            LocalDateTime createdAt = LocalDateTime.of(date, slot.time());
+            int items = Math.max(1, settings.itemsPerMeal() + spread(random));
+            mealTotals.reset();
+            for (int item = 0; item < items; item++) {
+                int food = foodPopularity[slot.type()][foodRanks.sample(random)];
+                double servings = servings(random);
+                mealTotals.addPortion(foodCalories[food], foodProteins[food], foodFats[food], foodCarbohydrates[food],
+                        servings);
+                mealFoods.add(++mealFoodId, id, (long) food + 1, servings, createdAt);
+                foodUsage[food]++;
+            }
+            meals.add(id, userId, date, slot.time(), MEAL_TYPES[slot.type()], mealTotals.calories(),
+                    mealTotals.proteins(), mealTotals.fats(), mealTotals.carbohydrates(), createdAt, createdAt);
+            dayTotals.addTotals(mealTotals.calories(), mealTotals.proteins(), mealTotals.fats(),
+                    mealTotals.carbohydrates());
+        }
+        dailyTotals.add(userId, date, slots.size(), dayTotals.calories(), dayTotals.proteins(), dayTotals.fats(),
+                dayTotals.carbohydrates());
+    }
+
+    /**
+     * Типы приемов пищи за день: основные приемы по порядку важности, остальное перекусы
+     */
+    private static int[] mealTypes(int count) {
+        if (count == 1) {
+            return new int[]{LUNCH};
+        }
+        if (count == 2) {
+            return new int[]{LUNCH, DINNER};
+        }
+        int[] types = new int[count];
+        types[0] = BREAKFAST;
+        types[1] = LUNCH;
+        types[2] = DINNER;
+        for (int i = 3; i < count; i++) {
+            types[i] = SNACK;
+        }
+        return types;
+    }
+
+    /**
+     * Та же формула, что в UserService, чтобы нормы совпадали с рассчитанными приложением
+     */
+    private static int dailyCalorieTarget(int age, double weight, int height, Goal goal) {
+        double maintenanceCalories = (10 * weight + 6.25 * height - 5 * age + 5) * 1.55;
+        return switch (goal) {
+            case WEIGHT_LOSS -> (int) (maintenanceCalories * 0.8);
+            case WEIGHT_GAIN -> (int) (maintenanceCalories * 1.15);
+            case MAINTENANCE -> (int) maintenanceCalories;
+        };
+    }
+
+    private static double servings(SplittableRandom random) {
+        double draw = random.nextDouble();
+        for (int i = 0; i < SERVINGS.length - 1; i++) {
+            if (draw < SERVINGS_CUMULATIVE[i]) {
+                return SERVINGS[i];
+            }
+        }
+        return SERVINGS[SERVINGS.length - 1];
+    }
+
+    // Отклонение от среднего на -1, 0 или +1 с вероятностями 1/4, 1/2, 1/4
+    private static int spread(SplittableRandom random) {
+        int draw = random.nextInt(4);
+        return draw == 0 ? -1 : draw == 3 ? 1 : 0;
+    }
+
+    private static int[] shuffledIndexes(int size, SplittableRandom random) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+
+    private static double jitter(SplittableRandom random) {
+        return 0.7 + 0.6 * random.nextDouble();
+    }
+
+    private static double tenths(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private record FoodCategory(String[] names, double proteins, double fats, double carbohydrates) {
+    }
+
+    private record MealSlot(int type, LocalTime time) {
+    }
+}
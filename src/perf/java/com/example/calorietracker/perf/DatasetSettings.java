@@ -0,0 +1,65 @@
+package com.example.calorietracker.perf;
+
+import java.time.LocalDate;
+
+/**
+ * Параметры генерации набора данных, задаются системными свойствами dataset.*
+ *
+ * @param url            JDBC URL целевой базы, H2 или PostgreSQL
+ * @param username       имя пользователя базы
+ * @param password       пароль базы
+ * @param seed           начальное значение генератора, одинаковый seed дает одинаковые данные
+ * @param users          количество пользователей
+ * @param foods          размер каталога блюд
+ * @param days           количество дней истории на пользователя
+ * @param endDate        последний день истории
+ * @param mealsPerDay    среднее количество приемов пищи в день
+ * @param itemsPerMeal   среднее количество блюд в приеме пищи
+ * @param zipfExponent   показатель распределения Ципфа для популярности блюд
+ * @param chunkUsers     количество пользователей в одной транзакции
+ * @param truncate       очистить таблицы перед генерацией
+ */
+public record DatasetSettings(String url, String username, String password, long seed, int users, int foods,
+                              int days, LocalDate endDate, int mealsPerDay, int itemsPerMeal, double zipfExponent,
+                              int chunkUsers, boolean truncate) {
+
+    public static DatasetSettings fromSystemProperties() {
+        DatasetSettings settings = new DatasetSettings(
+                property("url", "jdbc:h2:file:./build/dataset/calorie_tracker;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"),
+                property("username", "sa"),
+                property("password", ""),
+                Long.parseLong(property("seed", "42")),
+                Integer.parseInt(property("users", "1000")),
+                Integer.parseInt(property("foods", "2000")),
+                Integer.parseInt(property("days", "30")),
+                LocalDate.parse(property("endDate", LocalDate.now().toString())),
+                Integer.parseInt(property("mealsPerDay", "4")),
+                Integer.parseInt(property("itemsPerMeal", "3")),
+                Double.parseDouble(property("zipfExponent", "1.07")),
+                Integer.parseInt(property("chunkUsers", "100")),
+                Boolean.parseBoolean(property("truncate", "false")));
+        settings.validate();
+        return settings;
+    }
+
+    public boolean isPostgres() {
+        return url.startsWith("jdbc:postgresql:");
+    }
+
+    public LocalDate startDate() {
+        return endDate.minusDays(days - 1L);
+    }
+
+    private void validate() {
+        if (users < 1 || foods < 1 || days < 1 || mealsPerDay < 1 || itemsPerMeal < 1 || chunkUsers < 1) {
+            throw new IllegalArgumentException("Количества в параметрах dataset.* должны быть положительными");
+        }
+        if (zipfExponent <= 0) {
+            throw new IllegalArgumentException("dataset.zipfExponent должен быть положительным");
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("dataset." + name, defaultValue);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.calorietracker.perf;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+/**
+ * Запись сгенерированных строк в базу самым быстрым доступным способом:
+ * COPY FROM STDIN для PostgreSQL и пакетные INSERT через JDBC для H2
+ */
+final class DatasetWriter implements AutoCloseable {
+
+    private static final int JDBC_BATCH_SIZE = 1_000;
+
+    // Порядок удаления учитывает внешние ключи
+    private static final String[] TABLES = {"food_usage", "daily_totals", "meal_foods", "meals", "foods", "users"};
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+
+    DatasetWriter(DatasetSettings settings) throws SQLException {
+        this.connection = DriverManager.getConnection(settings.url(), settings.username(), settings.password());
+        this.connection.setAutoCommit(false);
+        if (settings.isPostgres()) {
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            execute("SET synchronous_commit TO OFF");
+        } else {
+            this.copyManager = null;
+            createH2Schema();
+        }
+    }
+
+    /**
+     * Очистка таблиц или проверка, что они пусты: идентификаторы назначаются генератором с единицы
+     */
+    void prepareTables(boolean truncate) throws SQLException {
+        if (truncate) {
+            if (copyManager != null) {
+                execute("TRUNCATE " + String.join(", ", TABLES));
+            } else {
+                for (String table : TABLES) {
+                    execute("DELETE FROM " + table);
+                }
+            }
+            connection.commit();
+            return;
+        }
+        for (String table : TABLES) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                resultSet.next();
+                if (resultSet.getLong(1) > 0) {
+                    throw new IllegalStateException("Таблица " + table + " не пуста, используйте -Pdataset.truncate=true");
+                }
+            }
+        }
+    }
+
+    void write(TableBuffer buffer) throws SQLException, IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        if (copyManager != null) {
+            copy(buffer);
+        } else {
+            insert(buffer);
+        }
+        buffer.clear();
+    }
+
+    void commit() throws SQLException {
+        connection.commit();
+    }
+
+    /**
+     * Продолжение последовательностей после загруженных идентификаторов.
+     * Для последовательностей с шагом 50 значение выставляется так же, как в миграциях
+     */
+    void resetSequences(long maxUserId, long maxFoodId, long maxMealId, long maxMealFoodId) throws SQLException {
+        if (copyManager != null) {
+            execute("SELECT setval(pg_get_serial_sequence('users', 'id'), " + Math.max(maxUserId, 1) + ", " + (maxUserId > 0) + ")");
+            execute("SELECT setval('foods_seq', " + (maxFoodId + 50) + ", false)");
+            execute("SELECT setval('meals_seq', " + (maxMealId + 50) + ", false)");
+            execute("SELECT setval('meal_foods_seq', " + (maxMealFoodId + 50) + ", false)");
+        } else {
+            execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (maxUserId + 1));
+            execute("ALTER SEQUENCE foods_seq RESTART WITH " + (maxFoodId + 50));
+            execute("ALTER SEQUENCE meals_seq RESTART WITH " + (maxMealId + 50));
+            execute("ALTER SEQUENCE meal_foods_seq RESTART WITH " + (maxMealFoodId + 50));
+        }
+        connection.commit();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    private void copy(TableBuffer buffer) throws SQLException, IOException {
+        StringBuilder data = new StringBuilder(buffer.size() * 64);
+        for (Object[] row : buffer.rows()) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    data.append('\t');
+                }
+                appendCopyValue(data, row[i]);
+            }
+            data.append('\n');
+        }
+        String sql = "COPY " + buffer.table() + " (" + String.join(", ", buffer.columns()) + ") FROM STDIN";
+        copyManager.copyIn(sql, new StringReader(data.toString()));
+    }
+
+    private void insert(TableBuffer buffer) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(buffer.columns().size(), "?"));
+        String sql = "INSERT INTO " + buffer.table() + " (" + String.join(", ", buffer.columns()) + ") VALUES (" + placeholders + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (Object[] row : buffer.rows()) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+                if (++pending == JDBC_BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    // Текстовый формат COPY: NULL как \N, спецсимволы экранируются обратной косой чертой
+    private static void appendCopyValue(StringBuilder data, Object value) {
+        if (value == null) {
+            data.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> data.append("\\\\");
+                case '\t' -> data.append("\\t");
+                case '\n' -> data.append("\\n");
+                case '\r' -> data.append("\\r");
+                default -> data.append(c);
+            }
+        }
+    }
+
+    private void createH2Schema() throws SQLException {
+        String script;
+        try (InputStream input = DatasetWriter.class.getResourceAsStream("/dataset/h2-schema.sql")) {
+            if (input == null) {
+                throw new IllegalStateException("Не найден скрипт схемы dataset/h2-schema.sql");
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось прочитать скрипт схемы", e);
+        }
+        for (String sql : script.split(";")) {
+            String statement = sql.lines()
+                    .filter(line -> !line.startsWith("--"))
+                    .collect(Collectors.joining("\n"))
+                    .trim();
+            if (!statement.isEmpty()) {
+                execute(statement);
+            }
+        }
+        connection.commit();
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.calorietracker.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки по сценариям. Значения хранятся в микросекундах в HdrHistogram с тремя значащими цифрами
+ */
+final class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Scenario, Histogram> histograms = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> dropped = new EnumMap<>(Scenario.class);
+
+    LatencyStats() {
+        for (Scenario scenario : Scenario.values()) {
+            histograms.put(scenario, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(scenario, new LongAdder());
+            dropped.put(scenario, new LongAdder());
+        }
+    }
+
+    void record(Scenario scenario, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        histograms.get(scenario).recordValue(Math.max(micros, 1));
+        if (!success) {
+            errors.get(scenario).increment();
+        }
+    }
+
+    void dropped(Scenario scenario) {
+        dropped.get(scenario).increment();
+    }
+
+    /**
+     * Сводная таблица по сценариям и файлы .hgrm с полным распределением задержек в миллисекундах
+     */
+    void report(Duration measured, Path outputDir, PrintStream out) throws IOException {
+        Files.createDirectories(outputDir);
+        double seconds = measured.toMillis() / 1000.0;
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "%-14s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "req/s", "errors", "dropped", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = histograms.get(scenario);
+            if (histogram.getTotalCount() == 0 && dropped.get(scenario).sum() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            appendRow(summary, scenario.key(), histogram, seconds, errors.get(scenario).sum(), dropped.get(scenario).sum());
+            try (PrintStream file = new PrintStream(Files.newOutputStream(outputDir.resolve(scenario.key() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(file, MICROS_PER_MILLI);
+            }
+        }
+        long totalErrors = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        long totalDropped = dropped.values().stream().mapToLong(LongAdder::sum).sum();
+        appendRow(summary, "total", total, seconds, totalErrors, totalDropped);
+
+        out.print(summary);
+        Files.writeString(outputDir.resolve("summary.txt"), summary);
+    }
+
+    private static void appendRow(StringBuilder summary, String name, Histogram histogram, double seconds,
+                                  long errors, long dropped) {
+        summary.append(String.format(Locale.ROOT, "%-14s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), histogram.getTotalCount() / seconds, errors, dropped,
+                millis(histogram, 50), millis(histogram, 95), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
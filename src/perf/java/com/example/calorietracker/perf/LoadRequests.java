@@ -0,0 +1,212 @@
+package com.example.calorietracker.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Построение запросов по сценариям с учетом их долей. Пользователи, блюда и даты берутся из диапазонов,
+ * заполненных генератором набора данных; обновляются приемы пищи, созданные в этом же прогоне
+ */
+final class LoadRequests {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] MEAL_TYPES = {"Завтрак", "Обед", "Ужин", "Перекус"};
+    // Запросы поиска вместе с опечатками и неполными словами, как их вводят пользователи
+    private static final String[] SEARCH_QUERIES = {
+            "кур", "Куриная грудка", "греч", "Гречневая каша", "твор", "Тварог", "борщ", "яблок", "Лосось на пару",
+            "каша", "Овсянная каша", "сырники", "Котлета по-домашнему", "макар", "Кефир"
+    };
+    private static final int CREATED_MEALS_CAPACITY = 4096;
+
+    private final URI baseUri;
+    private final DatasetSettings dataset;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ZipfDistribution foodRanks;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final int batchSize;
+
+    // Кольцевой буфер последних созданных приемов пищи для сценария обновления
+    private final AtomicReferenceArray<CreatedMeal> createdMeals = new AtomicReferenceArray<>(CREATED_MEALS_CAPACITY);
+    private final AtomicLong createdCount = new AtomicLong();
+
+    LoadRequests(URI baseUri, DatasetSettings dataset, Map<Scenario, Integer> mix, int batchSize) {
+        this.baseUri = baseUri;
+        this.dataset = dataset;
+        this.batchSize = batchSize;
+        this.foodRanks = new ZipfDistribution(dataset.foods(), dataset.zipfExponent());
+        this.scenarios = mix.keySet().toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += mix.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    LoadRequest next(RandomGenerator random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (draw >= cumulativeWeights[index]) {
+            index++;
+        }
+        return build(scenarios[index], random);
+    }
+
+    /**
+     * Запоминание созданного приема пищи, чтобы затем обновлять его
+     */
+    void onResponse(Scenario scenario, byte[] body) {
+        if (scenario != Scenario.MEAL_CREATE) {
+            return;
+        }
+        try {
+            JsonNode meal = objectMapper.readTree(body);
+            CreatedMeal createdMeal = new CreatedMeal(meal.get("id").asLong(), meal.get("userId").asLong(),
+                    LocalDate.parse(meal.get("mealDate").asText()));
+            long index = createdCount.getAndIncrement();
+            createdMeals.set((int) (index % CREATED_MEALS_CAPACITY), createdMeal);
+        } catch (IOException | RuntimeException e) {
+            // Ответ без идентификатора не мешает прогону, такой прием пищи просто не обновляется
+        }
+    }
+
+    private LoadRequest build(Scenario scenario, RandomGenerator random) {
+        return switch (scenario) {
+            case MEAL_CREATE -> mealCreate(random);
+            case MEAL_BATCH -> mealBatch(random);
+            case MEAL_UPDATE -> mealUpdate(random);
+            case DAILY_REPORT -> get(scenario, "/api/reports/daily/" + randomUser(random) + "/" + reportDate(random));
+            case HISTORY -> history(random);
+            case FOOD_SEARCH -> get(scenario, "/api/foods/search?name="
+                    + URLEncoder.encode(SEARCH_QUERIES[random.nextInt(SEARCH_QUERIES.length)], StandardCharsets.UTF_8));
+        };
+    }
+
+    private LoadRequest mealCreate(RandomGenerator random) {
+        long userId = randomUser(random);
+        LocalDate date = latestDate().minusDays(random.nextInt(Math.min(dataset.days(), 7)));
+        return send(Scenario.MEAL_CREATE, "POST", "/api/meals", mealBody(userId, date, random));
+    }
+
+    /**
+     * Пакет из batchSize приемов пищи одного пользователя, как при импорте из носимых устройств
+     */
+    private LoadRequest mealBatch(RandomGenerator random) {
+        long userId = randomUser(random);
+        List<Map<String, Object>> meals = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            LocalDate date = latestDate().minusDays(random.nextInt(Math.min(dataset.days(), 7)));
+            meals.add(meal(userId, date, random));
+        }
+        return send(Scenario.MEAL_BATCH, "POST", "/api/meals/batch", toJson(meals));
+    }
+
+    private LoadRequest mealUpdate(RandomGenerator random) {
+        long created = createdCount.get();
+        if (created == 0) {
+            return mealCreate(random);
+        }
+        int window = (int) Math.min(created, CREATED_MEALS_CAPACITY);
+        CreatedMeal meal = createdMeals.get((int) ((created - 1 - random.nextInt(window)) % CREATED_MEALS_CAPACITY));
+        if (meal == null) {
+            return mealCreate(random);
+        }
+        return send(Scenario.MEAL_UPDATE, "PUT", "/api/meals/" + meal.id(), mealBody(meal.userId(), meal.date(), random));
+    }
+
+    private LoadRequest history(RandomGenerator random) {
+        LocalDate endDate = reportDate(random);
+        int days = random.nextBoolean() ? 7 : 30;
+        return get(Scenario.HISTORY, "/api/reports/history/" + randomUser(random)
+                + "?startDate=" + endDate.minusDays(days - 1L) + "&endDate=" + endDate);
+    }
+
+    private byte[] mealBody(long userId, LocalDate date, RandomGenerator random) {
+        return toJson(meal(userId, date, random));
+    }
+
+    private Map<String, Object> meal(long userId, LocalDate date, RandomGenerator random) {
+        List<Map<String, Object>> mealFoods = new ArrayList<>();
+        int items = 1 + random.nextInt(Math.max(1, dataset.itemsPerMeal()) + 1);
+        for (int i = 0; i < items; i++) {
+            mealFoods.add(Map.of(
+                    "foodId", (long) foodRanks.sample(random) + 1,
+                    "servings", (1 + random.nextInt(8)) * 0.25));
+        }
+        Map<String, Object> meal = new LinkedHashMap<>();
+        meal.put("userId", userId);
+        meal.put("mealDate", date.toString());
+        meal.put("mealTime", LocalTime.of(7 + random.nextInt(15), random.nextInt(60)).toString() + ":00");
+        meal.put("mealType", MEAL_TYPES[random.nextInt(MEAL_TYPES.length)]);
+        meal.put("mealFoods", mealFoods);
+        return meal;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Большая часть отчетов запрашивается за последний день, остальные за случайный день истории
+    private LocalDate reportDate(RandomGenerator random) {
+        if (random.nextInt(10) < 7) {
+            return dataset.endDate();
+        }
+        return dataset.endDate().minusDays(random.nextInt(dataset.days()));
+    }
+
+    // Прием пищи не может быть в будущем, даже если набор данных сгенерирован с endDate позже сегодняшнего дня
+    private LocalDate latestDate() {
+        LocalDate today = LocalDate.now();
+        return dataset.endDate().isAfter(today) ? today : dataset.endDate();
+    }
+
+    private long randomUser(RandomGenerator random) {
+        return 1 + random.nextInt(dataset.users());
+    }
+
+    private LoadRequest get(Scenario scenario, String path) {
+        return new LoadRequest(scenario, HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build());
+    }
+
+    private LoadRequest send(Scenario scenario, String method, String path, byte[] body) {
+        return new LoadRequest(scenario, HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .build());
+    }
+
+    record LoadRequest(Scenario scenario, HttpRequest request) {
+    }
+
+    private record CreatedMeal(long id, long userId, LocalDate date) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.calorietracker.perf;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного прогона, задаются системными свойствами load.*
+ *
+ * @param model       модель нагрузки: open - запросы с постоянной частотой независимо от ответов,
+ *                    closed - фиксированное число клиентов, каждый ждет ответа перед следующим запросом
+ * @param rate        запросов в секунду для открытой модели
+ * @param clients     число клиентов для закрытой модели
+ * @param thinkTime   пауза клиента между запросами в закрытой модели
+ * @param warmup      прогрев, запросы которого не попадают в статистику
+ * @param duration    длительность измерения
+ * @param maxInFlight предел одновременных запросов открытой модели, сверх него запросы считаются отброшенными
+ * @param baseUrl     адрес уже запущенного приложения; если не задан, приложение запускается внутри прогона
+ * @param outputDir   каталог для гистограмм задержек
+ * @param mix         доли запросов по сценариям
+ * @param threads     потоки обработки запросов в запускаемом приложении: platform или virtual;
+ *                    если не задано, используется spring.threads.virtual.enabled из конфигурации
+ * @param batchSize   приемов пищи в одном запросе сценария meal-batch
+ */
+public record LoadSettings(Model model, int rate, int clients, Duration thinkTime, Duration warmup, Duration duration,
+                           int maxInFlight, String baseUrl, Path outputDir, Map<Scenario, Integer> mix,
+                           String threads, int batchSize) {
+
+    public enum Model {
+        OPEN,
+        CLOSED
+    }
+
+    public static LoadSettings fromSystemProperties() {
+        LoadSettings settings = new LoadSettings(
+                Model.valueOf(property("model", "open").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(property("rate", "200")),
+                Integer.parseInt(property("clients", "32")),
+                Duration.ofMillis(Long.parseLong(property("thinkTimeMs", "0"))),
+                Duration.ofSeconds(Long.parseLong(property("warmupSeconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(property("durationSeconds", "60"))),
+                Integer.parseInt(property("maxInFlight", "2000")),
+                property("baseUrl", ""),
+                Path.of(property("outputDir", "build/load")),
+                parseMix(property("mix", "meal-create=10,meal-update=5,daily-report=40,history=15,food-search=30")),
+                property("threads", "").toLowerCase(Locale.ROOT),
+                Integer.parseInt(property("batchSize", "100")));
+        if (settings.rate() < 1 || settings.clients() < 1 || settings.maxInFlight() < 1 || settings.duration().isZero()
+                || settings.batchSize() < 1) {
+            throw new IllegalArgumentException("load.rate, load.clients, load.maxInFlight, load.durationSeconds "
+                    + "и load.batchSize должны быть положительными");
+        }
+        if (!settings.threads().isEmpty() && !settings.threads().equals("platform") && !settings.threads().equals("virtual")) {
+            throw new IllegalArgumentException("load.threads должен быть platform или virtual");
+        }
+        return settings;
+    }
+
+    /**
+     * Разбор строки вида "daily-report=40,food-search=60"
+     */
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.trim().split("=");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Неверный элемент load.mix: " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.fromKey(entry[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix не содержит ни одного сценария");
+        }
+        return mix;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("load." + name, defaultValue);
+    }
+}
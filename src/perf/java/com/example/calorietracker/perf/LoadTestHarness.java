@@ -0,0 +1,193 @@
+package com.example.calorietracker.perf;
+
+import com.example.calorietracker.CalorieTrackerApplication;
+import com.example.calorietracker.perf.LoadRequests.LoadRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный прогон по HTTP с распределением задержек по сценариям.
+ * Без load.baseUrl запускает CalorieTrackerApplication на случайном порту с базой из параметров dataset.*,
+ * поэтому перед прогоном на H2 набор данных нужно сгенерировать задачей generateDataset.
+ * Запуск: ./gradlew loadTest -Pload.model=open -Pload.rate=300
+ */
+@Slf4j
+public final class LoadTestHarness {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadSettings settings;
+    private final LoadRequests requests;
+    private final LatencyStats stats = new LatencyStats();
+    private final HttpClient client;
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+        DatasetSettings dataset = DatasetSettings.fromSystemProperties();
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = settings.baseUrl();
+        if (baseUrl.isEmpty()) {
+            context = startApplication(dataset, settings);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        try {
+            new LoadTestHarness(settings, new LoadRequests(URI.create(baseUrl), dataset, settings.mix(), settings.batchSize())).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    LoadTestHarness(LoadSettings settings, LoadRequests requests) {
+        this.settings = settings;
+        this.requests = requests;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    void run() throws Exception {
+        log.info("Нагрузка {}: прогрев {} с, измерение {} с, сценарии {}, потоки приложения {}", settings.model(),
+                settings.warmup().toSeconds(), settings.duration().toSeconds(), settings.mix(),
+                settings.threads().isEmpty() ? "по конфигурации" : settings.threads());
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + settings.warmup().toNanos();
+        long endAt = measureFrom + settings.duration().toNanos();
+
+        if (settings.model() == LoadSettings.Model.OPEN) {
+            runOpen(startedAt, measureFrom, endAt);
+        } else {
+            runClosed(measureFrom, endAt);
+        }
+        stats.report(settings.duration(), settings.outputDir(), System.out);
+        log.info("Гистограммы задержек сохранены в {}", settings.outputDir().toAbsolutePath());
+    }
+
+    /**
+     * Открытая модель: запросы отправляются по расписанию независимо от ответов.
+     * Задержка считается от запланированного момента отправки, поэтому очередь на стороне клиента
+     * при перегрузке сервера тоже попадает в статистику
+     */
+    private void runOpen(long startedAt, long measureFrom, long endAt) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / (double) settings.rate();
+        for (long i = 0; ; i++) {
+            long scheduledAt = startedAt + Math.round(i * intervalNanos);
+            if (scheduledAt >= endAt) {
+                break;
+            }
+            parkUntil(scheduledAt);
+
+            LoadRequest request = requests.next(ThreadLocalRandom.current());
+            boolean measured = scheduledAt >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    stats.dropped(request.scenario());
+                }
+                continue;
+            }
+            client.sendAsync(request.request(), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        complete(request, response, error, System.nanoTime() - scheduledAt, measured);
+                    });
+        }
+        if (!inFlight.tryAcquire(settings.maxInFlight(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Не все запросы завершились за {} с", DRAIN_TIMEOUT.toSeconds());
+        }
+    }
+
+    /**
+     * Закрытая модель: каждый клиент отправляет следующий запрос только после ответа и паузы
+     */
+    private void runClosed(long measureFrom, long endAt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.clients());
+        try {
+            List<Future<?>> clients = new ArrayList<>(settings.clients());
+            for (int i = 0; i < settings.clients(); i++) {
+                clients.add(executor.submit(() -> {
+                    while (System.nanoTime() < endAt && !Thread.currentThread().isInterrupted()) {
+                        LoadRequest request = requests.next(ThreadLocalRandom.current());
+                        long sentAt = System.nanoTime();
+                        HttpResponse<byte[]> response = null;
+                        Throwable error = null;
+                        try {
+                            response = client.send(request.request(), HttpResponse.BodyHandlers.ofByteArray());
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            error = e;
+                        }
+                        complete(request, response, error, System.nanoTime() - sentAt, sentAt >= measureFrom);
+                        if (!settings.thinkTime().isZero()) {
+                            LockSupport.parkNanos(settings.thinkTime().toNanos());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void complete(LoadRequest request, HttpResponse<byte[]> response, Throwable error, long latencyNanos,
+                          boolean measured) {
+        boolean success = error == null && response.statusCode() < 400;
+        if (success) {
+            requests.onResponse(request.scenario(), response.body());
+        }
+        if (measured) {
+            stats.record(request.scenario(), latencyNanos, success);
+        }
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(DatasetSettings dataset, LoadSettings settings) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        if (!settings.threads().isEmpty()) {
+            args.add("--spring.threads.virtual.enabled=" + settings.threads().equals("virtual"));
+        }
+        args.add("--spring.datasource.username=" + dataset.username());
+        args.add("--spring.datasource.password=" + dataset.password());
+        if (dataset.isPostgres()) {
+            args.add("--spring.datasource.url=" + dataset.url());
+        } else {
+            // Параметры драйвера PostgreSQL из application.properties H2 не знает
+            args.add("--spring.datasource.url=" + dataset.url() + ";IGNORE_UNKNOWN_SETTINGS=TRUE");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+            args.add("--spring.jpa.hibernate.ddl-auto=none");
+        }
+        return new SpringApplicationBuilder(CalorieTrackerApplication.class).run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.calorietracker.perf;
+
+/**
+ * Сценарии нагрузочного прогона, соответствующие реальным эндпоинтам
+ */
+public enum Scenario {
+    MEAL_CREATE("meal-create"),
+    MEAL_BATCH("meal-batch"),
+    MEAL_UPDATE("meal-update"),
+    DAILY_REPORT("daily-report"),
+    HISTORY("history"),
+    FOOD_SEARCH("food-search");
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static Scenario fromKey(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный сценарий: " + key);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.calorietracker.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Строки одной таблицы, накопленные для записи одной пачкой
+ */
+final class TableBuffer {
+
+    private final String table;
+    private final List<String> columns;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    TableBuffer(String table, String... columns) {
+        this.table = table;
+        this.columns = List.of(columns);
+    }
+
+    void add(Object... values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Ожидалось " + columns.size() + " значений для таблицы " + table);
+        }
+        rows.add(values);
+    }
+
+    String table() {
+        return table;
+    }
+
+    List<String> columns() {
+        return columns;
+    }
+
+    List<Object[]> rows() {
+        return rows;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    void clear() {
+        rows.clear();
+    }
+}
@@ -0,0 +1,70 @@
+-- Схема для генерации набора данных в H2, повторяет таблицы PostgreSQL с учетом изменений из db/changes.
+CREATE TABLE IF NOT EXISTS users (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                 VARCHAR(255)     NOT NULL,
+    email                VARCHAR(255)     NOT NULL UNIQUE,
+    age                  INTEGER          NOT NULL,
+    weight               DOUBLE PRECISION NOT NULL,
+    height               INTEGER          NOT NULL,
+    goal                 VARCHAR(32)      NOT NULL,
+    daily_calorie_target INTEGER          NOT NULL,
+    created_at           TIMESTAMP,
+    updated_at           TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS foods (
+    id                   BIGINT PRIMARY KEY,
+    name                 VARCHAR(255)     NOT NULL,
+    calories_per_serving INTEGER          NOT NULL,
+    proteins             DOUBLE PRECISION NOT NULL,
+    fats                 DOUBLE PRECISION NOT NULL,
+    carbohydrates        DOUBLE PRECISION NOT NULL,
+    created_at           TIMESTAMP,
+    updated_at           TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS meals (
+    id                  BIGINT PRIMARY KEY,
+    user_id             BIGINT           NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    meal_date           DATE             NOT NULL,
+    meal_time           TIME             NOT NULL,
+    meal_type           VARCHAR(255)     NOT NULL,
+    total_calories      INTEGER          NOT NULL DEFAULT 0,
+    total_proteins      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_fats          DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_carbohydrates DOUBLE PRECISION NOT NULL DEFAULT 0,
+    created_at          TIMESTAMP,
+    updated_at          TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS meal_foods (
+    id         BIGINT PRIMARY KEY,
+    meal_id    BIGINT           NOT NULL REFERENCES meals (id) ON DELETE CASCADE,
+    food_id    BIGINT           NOT NULL REFERENCES foods (id),
+    servings   DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS daily_totals (
+    user_id             BIGINT           NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    meal_date           DATE             NOT NULL,
+    meal_count          INTEGER          NOT NULL,
+    total_calories      INTEGER          NOT NULL,
+    total_proteins      DOUBLE PRECISION NOT NULL,
+    total_fats          DOUBLE PRECISION NOT NULL,
+    total_carbohydrates DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (user_id, meal_date)
+);
+
+CREATE TABLE IF NOT EXISTS food_usage (
+    food_id     BIGINT NOT NULL PRIMARY KEY REFERENCES foods (id) ON DELETE CASCADE,
+    usage_count BIGINT NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS foods_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS meals_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS meal_foods_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_meals_user_date_time_id ON meals (user_id, meal_date, meal_time, id);
+CREATE INDEX IF NOT EXISTS idx_foods_updated_at ON foods (updated_at);
+CREATE INDEX IF NOT EXISTS idx_meal_foods_food_id ON meal_foods (food_id);
@@ -0,0 +1,89 @@
+package com.example.calorietracker.controller;
+
+import com.example.calorietracker.config.AdminProperties;
+import com.example.calorietracker.config.AdminTokenInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Доступ к административному API по заголовку X-Admin-Token: без верного токена
+ * и при незаданном токене любой эндпоинт /api/admin отвечает 401
+ */
+@SpringBootTest(properties = "calorie-tracker.admin.token=" + AdminControllerTest.TOKEN)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminControllerTest {
+
+    static final String TOKEN = "test-admin-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdminProperties adminProperties;
+
+    @Test
+    void getCacheStatistics_WhenTokenHeaderMissing_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/admin/caches"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getCacheStatistics_WhenTokenIsWrong_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/admin/caches").header(AdminTokenInterceptor.TOKEN_HEADER, "wrong-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getCacheStatistics_WhenTokenIsCorrect_ReturnsOk() throws Exception {
+        mockMvc.perform(get("/api/admin/caches").header(AdminTokenInterceptor.TOKEN_HEADER, TOKEN))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void startFlightRecording_WhenTokenIsWrong_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/admin/jfr/start").header(AdminTokenInterceptor.TOKEN_HEADER, "wrong-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void startFlightRecording_WhenTokenIsCorrect_ReturnsOk() throws Exception {
+        mockMvc.perform(post("/api/admin/jfr/start")
+                        .header(AdminTokenInterceptor.TOKEN_HEADER, TOKEN)
+                        .param("settings", "default")
+                        .param("duration", "60"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/admin/jfr/stop").header(AdminTokenInterceptor.TOKEN_HEADER, TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"));
+    }
+
+    @Test
+    void getFlightRecording_WhenTokenHeaderMissing_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/admin/jfr"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getCacheStatistics_WhenTokenNotConfigured_ReturnsUnauthorized() throws Exception {
+        adminProperties.setToken("");
+        try {
+            mockMvc.perform(get("/api/admin/caches").header(AdminTokenInterceptor.TOKEN_HEADER, ""))
+                    .andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/api/admin/jfr").header(AdminTokenInterceptor.TOKEN_HEADER, TOKEN))
+                    .andExpect(status().isUnauthorized());
+        } finally {
+            adminProperties.setToken(TOKEN);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.calorietracker.controller;
+
+import com.example.calorietracker.config.AdminTokenInterceptor;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealBatchResultDto;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.model.Goal;
+import com.example.calorietracker.monitoring.QueryStats;
+import com.example.calorietracker.service.FoodService;
+import com.example.calorietracker.service.MealService;
+import com.example.calorietracker.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджеты обращений к базе для эндпоинтов: число JDBC-команд не должно расти с количеством
+ * приемов пищи и блюд, иначе в сервис вернулась проблема N+1.
+ * Каждый тест получает собственного пользователя с 10 приемами пищи по 3 блюда за один день
+ * и собственные блюда, поэтому изменяющие запросы не влияют на остальные тесты.
+ * Бюджеты равны числу команд, наблюдаемому на тестовой базе.
+ */
+@SpringBootTest(properties = "calorie-tracker.admin.token=" + AdminControllerTest.TOKEN)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryBudgetTest {
+
+    private static final int MEALS_PER_DAY = 10;
+    private static final int FOODS_PER_MEAL = 3;
+    private static final LocalDate DATE = LocalDate.now().minusDays(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private MealService mealService;
+
+    private String suffix;
+    private Long userId;
+    private final List<Long> foodIds = new ArrayList<>();
+    private final List<Long> mealIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        suffix = Long.toString(System.nanoTime(), 36);
+        userId = userService.createUser(user(email())).getId();
+        for (int i = 0; i < FOODS_PER_MEAL * 2; i++) {
+            foodIds.add(foodService.createFood(food(foodName(i), 100 + i)).getId());
+        }
+        List<MealDto> meals = new ArrayList<>();
+        for (int i = 0; i < MEALS_PER_DAY; i++) {
+            meals.add(meal(DATE, LocalTime.of(8 + i, 0)));
+        }
+        MealBatchResultDto result = mealService.createMeals(meals);
+        result.getItems().forEach(item -> mealIds.add(item.getMealId()));
+    }
+
+    @Test
+    void getUserById_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(get("/api/users/{id}", userId), status().isOk()));
+    }
+
+    @Test
+    void getUsers_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/users").param("size", "20"), status().isOk()));
+    }
+
+    @Test
+    void createUser_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(2, perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json(user("new-" + email()))), status().isCreated()));
+    }
+
+    @Test
+    void updateUser_StaysWithinBudget() throws Exception {
+        UserDto changed = user(email());
+        changed.setWeight(74.0);
+
+        assertStatementsAtMost(1, perform(put("/api/users/{id}", userId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(changed)), status().isOk()));
+    }
+
+    @Test
+    void deleteUser_StaysWithinBudget() throws Exception {
+        // В тестовой схеме приемы пищи не удаляются каскадно, поэтому удаляется пользователь без них;
+        // запрос популярности блюд пользователя выполняется в любом случае
+        Long deletedUserId = userService.createUser(user("deleted-" + email())).getId();
+
+        assertStatementsAtMost(3, perform(delete("/api/users/{id}", deletedUserId), status().isNoContent()));
+    }
+
+    @Test
+    void getFoodById_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(get("/api/foods/{id}", foodIds.get(0)), status().isOk()));
+    }
+
+    @Test
+    void getFoods_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/foods").param("size", "20"), status().isOk()));
+    }
+
+    @Test
+    void searchFoods_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(get("/api/foods/search").param("name", "бюджет"), status().isOk()));
+    }
+
+    @Test
+    void autocompleteFoods_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(get("/api/foods/autocomplete").param("prefix", "бюд"), status().isOk()));
+    }
+
+    @Test
+    void createFood_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(2, perform(post("/api/foods").contentType(MediaType.APPLICATION_JSON)
+                .content(json(food("Новое бюджетное блюдо " + suffix, 90))), status().isCreated()));
+    }
+
+    @Test
+    void updateFood_WhenNutritionChanges_StaysWithinBudget() throws Exception {
+        Long foodId = foodIds.get(0);
+
+        // Пересчет итогов всех приемов пищи с блюдом выполняется пакетными запросами, а не по одному
+        assertStatementsAtMost(4, perform(put("/api/foods/{id}", foodId).contentType(MediaType.APPLICATION_JSON)
+                .content(json(food(foodName(0), 150))), status().isOk()));
+    }
+
+    @Test
+    void deleteFood_StaysWithinBudget() throws Exception {
+        Long foodId = foodService.createFood(food("Удаляемое бюджетное блюдо " + suffix, 80)).getId();
+
+        assertStatementsAtMost(2, perform(delete("/api/foods/{id}", foodId), status().isNoContent()));
+    }
+
+    @Test
+    void importFoods_StaysWithinBudget() throws Exception {
+        StringBuilder csv = new StringBuilder("name,caloriesPerServing,proteins,fats,carbohydrates\n");
+        csv.append(foodName(0)).append(",150,10.0,5.0,12.0\n");
+        for (int i = 0; i < 20; i++) {
+            csv.append("Импортированное бюджетное блюдо ").append(i).append(' ').append(suffix)
+                    .append(",").append(50 + i).append(",1.0,1.0,1.0\n");
+        }
+
+        // Поиск по названиям, номер последовательности, пакеты INSERT и UPDATE, пересчет итогов
+        // приемов пищи и дней с измененным блюдом; число команд не зависит от числа строк файла
+        assertStatementsAtMost(7, perform(post("/api/foods/import").contentType("text/csv")
+                .content(csv.toString()), status().isOk()));
+    }
+
+    @Test
+    void createMeal_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(8, perform(post("/api/meals").contentType(MediaType.APPLICATION_JSON)
+                .content(json(meal(DATE.minusDays(1), LocalTime.NOON))), status().isCreated()));
+    }
+
+    @Test
+    void createMealsBatch_StaysWithinBudget() throws Exception {
+        List<MealDto> meals = new ArrayList<>();
+        for (int i = 0; i < MEALS_PER_DAY; i++) {
+            meals.add(meal(DATE.minusDays(2), LocalTime.of(8 + i, 30)));
+        }
+
+        assertStatementsAtMost(7, perform(post("/api/meals/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(json(meals)), status().isOk()));
+    }
+
+    @Test
+    void getMealById_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/meals/{id}", mealIds.get(0)), status().isOk()));
+    }
+
+    @Test
+    void getUserMealsByDate_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(2, perform(get("/api/meals/user/{userId}/date/{date}", userId, DATE),
+                status().isOk()));
+    }
+
+    @Test
+    void getUserMealsByPeriod_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(2, perform(get("/api/meals/user/{userId}/period", userId)
+                .param("startDate", DATE.minusDays(6).toString())
+                .param("endDate", DATE.toString()), status().isOk()));
+    }
+
+    @Test
+    void getUserMealTimeline_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(3, perform(get("/api/meals/user/{userId}/timeline", userId).param("size", "20"),
+                status().isOk()));
+    }
+
+    @Test
+    void updateMeal_StaysWithinBudget() throws Exception {
+        MealDto changed = meal(DATE, LocalTime.of(7, 45));
+
+        assertStatementsAtMost(6, perform(put("/api/meals/{id}", mealIds.get(1)).contentType(MediaType.APPLICATION_JSON)
+                .content(json(changed)), status().isOk()));
+    }
+
+    @Test
+    void deleteMeal_StaysWithinBudget() throws Exception {
+        Long mealId = mealService.createMeal(meal(DATE.minusDays(3), LocalTime.NOON)).getId();
+
+        assertStatementsAtMost(7, perform(delete("/api/meals/{id}", mealId), status().isNoContent()));
+    }
+
+    @Test
+    void getDailyReport_StaysWithinBudget() throws Exception {
+        QueryStats stats = perform(get("/api/reports/daily/{userId}/{date}", userId, DATE), status().isOk());
+
+        assertStatementsAtMost(1, stats);
+        assertTrue(stats.getRows() <= MEALS_PER_DAY * FOODS_PER_MEAL + 1,
+                () -> "Прочитано лишних строк: " + stats);
+    }
+
+    @Test
+    void getDailySummary_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/reports/daily/{userId}/{date}", userId, DATE)
+                .param("view", "summary"), status().isOk()));
+    }
+
+    @Test
+    void checkCalorieTarget_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/reports/calorie-check/{userId}/{date}", userId, DATE),
+                status().isOk()));
+    }
+
+    @Test
+    void getHistory_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/reports/history/{userId}", userId)
+                .param("startDate", DATE.minusDays(6).toString())
+                .param("endDate", DATE.toString()), status().isOk()));
+    }
+
+    @Test
+    void getHistorySummary_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(1, perform(get("/api/reports/history/{userId}/summary", userId)
+                .param("startDate", DATE.minusDays(29).toString())
+                .param("endDate", DATE.toString()), status().isOk()));
+    }
+
+    @Test
+    void getMealDates_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(2, perform(get("/api/reports/meal-dates/{userId}", userId), status().isOk()));
+    }
+
+    @Test
+    void rebuildDailyTotals_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(3, perform(post("/api/reports/daily-totals/{userId}/rebuild", userId)
+                .param("startDate", DATE.minusDays(6).toString())
+                .param("endDate", DATE.toString()), status().isOk()));
+    }
+
+    @Test
+    void getCacheStatistics_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(admin(get("/api/admin/caches")), status().isOk()));
+    }
+
+    @Test
+    void getReportCoalescingStatistics_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(admin(get("/api/admin/report-coalescing")), status().isOk()));
+    }
+
+    @Test
+    void getSlowQueries_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(admin(get("/api/admin/slow-queries")), status().isOk()));
+    }
+
+    @Test
+    void flightRecording_StaysWithinBudget() throws Exception {
+        assertStatementsAtMost(0, perform(admin(post("/api/admin/jfr/start")
+                .param("settings", "default")
+                .param("duration", "60")), status().isOk()));
+        assertStatementsAtMost(0, perform(admin(get("/api/admin/jfr")), status().isOk()));
+        assertStatementsAtMost(0, perform(admin(post("/api/admin/jfr/stop")), status().isOk()));
+    }
+
+    private static MockHttpServletRequestBuilder admin(MockHttpServletRequestBuilder request) {
+        return request.header(AdminTokenInterceptor.TOKEN_HEADER, AdminControllerTest.TOKEN);
+    }
+
+    private QueryStats perform(MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        try (QueryStats stats = QueryStats.begin()) {
+            mockMvc.perform(request).andExpect(expectedStatus);
+            return stats;
+        }
+    }
+
+    private static void assertStatementsAtMost(long budget, QueryStats stats) {
+        assertTrue(stats.getStatements() <= budget,
+                () -> "Ожидалось не более " + budget + " команд, выполнено: " + stats);
+    }
+
+    private String email() {
+        return "budget-" + suffix + "@example.com";
+    }
+
+    private String foodName(int index) {
+        return "Бюджетное блюдо " + index + " " + suffix;
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static UserDto user(String email) {
+        return UserDto.builder()
+                .name("Иван Иванов")
+                .email(email)
+                .age(30)
+                .weight(75.0)
+                .height(180)
+                .goal(Goal.MAINTENANCE)
+                .build();
+    }
+
+    private static FoodDto food(String name, int calories) {
+        return FoodDto.builder()
+                .name(name)
+                .caloriesPerServing(calories)
+                .proteins(10.0)
+                .fats(5.0)
+                .carbohydrates(12.0)
+                .build();
+    }
+
+    private MealDto meal(LocalDate date, LocalTime time) {
+        List<MealFoodDto> mealFoods = new ArrayList<>();
+        for (int i = 0; i < FOODS_PER_MEAL; i++) {
+            mealFoods.add(MealFoodDto.builder()
+                    .foodId(foodIds.get(i))
+                    .servings(1.5)
+                    .build());
+        }
+        return MealDto.builder()
+                .userId(userId)
+                .mealDate(date)
+                .mealTime(time)
+                .mealType("Обед")
+                .mealFoods(mealFoods)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.calorietracker.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutritionAccumulatorTest {
+
+    @Test
+    void addPortion_WhenFractionalServingsRepeat_DoesNotDrift() {
+        NutritionAccumulator accumulator = new NutritionAccumulator();
+        for (int i = 0; i < 3; i++) {
+            accumulator.addPortion(165, 31.0, 3.6, 0.1, 0.333);
+        }
+
+        assertEquals(165, accumulator.calories());
+        assertEquals(30.97, accumulator.proteins());
+        assertEquals(3.6, accumulator.fats());
+        assertEquals(0.1, accumulator.carbohydrates());
+    }
+
+    @Test
+    void addPortion_WhenServingsEndWithFive_RoundsLikeDatabase() {
+        // 0.3335 * 1000 в double меньше 333.5, но порция округляется до 0.334, как ROUND(0.3335, 3)
+        NutritionAccumulator accumulator = new NutritionAccumulator().addPortion(150, 31.0, 3.6, 0.1, 0.3335);
+
+        assertEquals(50, accumulator.calories());
+        assertEquals(10.35, accumulator.proteins());
+        assertEquals(1.2, accumulator.fats());
+        assertEquals(0.03, accumulator.carbohydrates());
+    }
+
+    @Test
+    void calories_WhenTotalIsHalf_RoundsUpOnce() {
+        NutritionAccumulator accumulator = new NutritionAccumulator()
+                .addPortion(99, 0.0, 0.0, 0.0, 0.5)
+                .addPortion(99, 0.0, 0.0, 0.0, 0.5);
+
+        // Каждое слагаемое 49.5, но округляется только итог
+        assertEquals(99, accumulator.calories());
+        assertEquals(50, accumulator.reset().addPortion(99, 0.0, 0.0, 0.0, 0.5).calories());
+    }
+
+    @Test
+    void addTotals_SumsRoundedMealTotals() {
+        NutritionAccumulator accumulator = new NutritionAccumulator()
+                .addTotals(410, 30.97, 3.6, 12.05)
+                .addTotals(132, 4.5, 0.9, 25.0);
+
+        assertEquals(542, accumulator.calories());
+        assertEquals(35.47, accumulator.proteins());
+        assertEquals(4.5, accumulator.fats());
+        assertEquals(37.05, accumulator.carbohydrates());
+    }
+
+    @Test
+    void add_SumsUnroundedPortions() {
+        NutritionAccumulator portion = new NutritionAccumulator().addPortion(165, 13.8, 3.6, 0.1, 0.333);
+        NutritionAccumulator accumulator = new NutritionAccumulator().add(portion).add(portion);
+
+        // Каждая порция по отдельности округлилась бы до 4.6 г белка и 55 ккал
+        assertEquals(4.6, portion.proteins());
+        assertEquals(9.19, accumulator.proteins());
+        assertEquals(110, accumulator.calories());
+        assertEquals(2.4, accumulator.fats());
+        assertEquals(0.07, accumulator.carbohydrates());
+    }
+}
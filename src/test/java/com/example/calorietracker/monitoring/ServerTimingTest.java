@@ -0,0 +1,72 @@
+package com.example.calorietracker.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingTest {
+
+    @Test
+    void header_ListsAllPhasesInOrder() {
+        ServerTiming serverTiming = ServerTiming.begin();
+        serverTiming.close();
+
+        String header = serverTiming.header();
+
+        assertTrue(header.matches("db;desc=\"0 statements\";dur=[\\d.]+, mapping;dur=[\\d.]+, aggregation;dur=[\\d.]+, " +
+                "serialization;dur=[\\d.]+, app;dur=[\\d.]+, total;dur=[\\d.]+"), header);
+    }
+
+    @Test
+    void start_ExcludesDatabaseTimeFromPhase() throws Exception {
+        ServerTiming serverTiming = ServerTiming.begin();
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.MAPPING)) {
+            Thread.sleep(20);
+            // Ленивая загрузка внутри преобразования в DTO
+            QueryStats.recordStatement(15_000_000);
+        }
+        serverTiming.close();
+
+        String header = serverTiming.header();
+
+        assertTrue(header.startsWith("db;desc=\"1 statements\";dur=15.00"), header);
+        assertTrue(duration(header, "mapping") >= 5, header);
+        assertTrue(duration(header, "mapping") + 15 <= duration(header, "total") + 0.01, header);
+    }
+
+    @Test
+    void start_WhenPhaseNested_CountsOnlyOuterPhase() throws Exception {
+        ServerTiming serverTiming = ServerTiming.begin();
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.MAPPING)) {
+            try (ServerTiming.PhaseTimer nested = ServerTiming.start(ServerTiming.Phase.AGGREGATION)) {
+                Thread.sleep(5);
+            }
+        }
+        serverTiming.close();
+
+        String header = serverTiming.header();
+
+        assertTrue(duration(header, "mapping") >= 5, header);
+        assertEquals(0.0, duration(header, "aggregation"), header);
+    }
+
+    @Test
+    void start_WithoutScope_DoesNothing() {
+        try (ServerTiming.PhaseTimer ignored = ServerTiming.start(ServerTiming.Phase.SERIALIZATION)) {
+            assertNotNull(ignored);
+        }
+
+        ServerTiming serverTiming = ServerTiming.begin();
+        serverTiming.close();
+        assertEquals(0.0, duration(serverTiming.header(), "serialization"));
+    }
+
+    private static double duration(String header, String metric) {
+        Matcher matcher = Pattern.compile(metric + ";dur=([\\d.]+)").matcher(header);
+        assertTrue(matcher.find(), header);
+        return Double.parseDouble(matcher.group(1));
+    }
+}
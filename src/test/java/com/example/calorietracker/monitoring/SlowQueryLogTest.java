@@ -0,0 +1,76 @@
+package com.example.calorietracker.monitoring;
+
+import com.example.calorietracker.config.SlowQueryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    private SlowQueryProperties properties;
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SlowQueryProperties();
+        slowQueryLog = new SlowQueryLog(properties);
+    }
+
+    @Test
+    void shape_WhenQueryHasLiteralsAndParameterList_NormalizesThem() {
+        String shape = SlowQueryLog.shape("select *  from foods f1_0\n where f1_0.id in (?, ?,?) and f1_0.name = 'Рис' limit 10");
+
+        assertEquals("select * from foods f1_0 where f1_0.id in (?, ...) and f1_0.name = ? limit ?", shape);
+    }
+
+    @Test
+    void topQueries_MergesSameShapeAndSortsByMaxTime() {
+        slowQueryLog.record("select * from meals where id in (?, ?)", Duration.ofMillis(5).toNanos());
+        slowQueryLog.record("select * from meals where id in (?, ?, ?)", Duration.ofMillis(15).toNanos());
+        slowQueryLog.record("select * from users where id = ?", Duration.ofMillis(10).toNanos());
+
+        List<SlowQueryLog.QueryShape> top = slowQueryLog.topQueries();
+
+        assertEquals(2, top.size());
+        assertEquals("select * from meals where id in (?, ...)", top.get(0).sql());
+        assertEquals(2, top.get(0).count());
+        assertEquals(Duration.ofMillis(20), top.get(0).totalTime());
+        assertEquals(Duration.ofMillis(15), top.get(0).maxTime());
+        assertEquals(Duration.ofMillis(10), top.get(0).averageTime());
+        assertEquals("select * from users where id = ?", top.get(1).sql());
+    }
+
+    @Test
+    void topQueries_WhenShapesLimitReached_EvictsFastestShape() {
+        properties.setMaxShapes(2);
+
+        slowQueryLog.record("select 1 from users", Duration.ofMillis(2).toNanos());
+        slowQueryLog.record("select 1 from foods", Duration.ofMillis(10).toNanos());
+        slowQueryLog.record("select 1 from meals", Duration.ofMillis(5).toNanos());
+
+        List<SlowQueryLog.QueryShape> top = slowQueryLog.topQueries();
+
+        assertEquals(List.of("select ? from foods", "select ? from meals"),
+                top.stream().map(SlowQueryLog.QueryShape::sql).toList());
+    }
+
+    @Test
+    void topQueries_WhenQueriesDifferOnlyInLiterals_UsesOneShapeSlot() {
+        properties.setMaxShapes(1);
+        properties.setTopSize(1);
+
+        slowQueryLog.record("select * from foods where id = 1", 1);
+        slowQueryLog.record("select * from foods where id = 2", 2);
+        slowQueryLog.record("select * from foods where id = 3", 3);
+
+        List<SlowQueryLog.QueryShape> top = slowQueryLog.topQueries();
+
+        assertEquals(1, top.size());
+        assertEquals("select * from foods where id = ?", top.get(0).sql());
+        assertEquals(3, top.get(0).count());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.DailyReportCacheProperties;
+import com.example.calorietracker.config.MetricsConfig;
+import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.event.MealsChangedEvent;
+import com.example.calorietracker.event.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DailyReportCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 30);
+
+    private DailyReportCache dailyReportCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        dailyReportCache = new DailyReportCache(new DailyReportCacheProperties());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_WhenCalledTwice_BuildsReportOnce() {
+        DailyReportDto first = dailyReportCache.get(1L, DATE, this::load);
+        DailyReportDto second = dailyReportCache.get(1L, DATE, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void dailyReportCacheMetrics_ExposesHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MetricsConfig().dailyReportCacheMetrics(dailyReportCache).bindTo(registry);
+
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE, this::load);
+
+        assertEquals(1.0, registry.get("cache.gets")
+                .tags("cache", MetricsConfig.DAILY_REPORTS_CACHE, "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets")
+                .tags("cache", MetricsConfig.DAILY_REPORTS_CACHE, "result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size")
+                .tags("cache", MetricsConfig.DAILY_REPORTS_CACHE).gauge().value());
+    }
+
+    @Test
+    void onMealsChanged_EvictsOnlyAffectedDays() {
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE.plusDays(1), this::load);
+        dailyReportCache.get(2L, DATE, this::load);
+
+        dailyReportCache.onMealsChanged(new MealsChangedEvent(1L, DATE));
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE.plusDays(1), this::load);
+        dailyReportCache.get(2L, DATE, this::load);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void onMealsChanged_WithRange_EvictsAllDaysInRange() {
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE.plusDays(1), this::load);
+        dailyReportCache.get(1L, DATE.plusDays(5), this::load);
+
+        dailyReportCache.onMealsChanged(new MealsChangedEvent(1L, DATE, DATE.plusDays(2)));
+
+        assertEquals(1, dailyReportCache.size());
+    }
+
+    @Test
+    void onUserChanged_EvictsAllDaysOfUser() {
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE.plusDays(1), this::load);
+        dailyReportCache.get(2L, DATE, this::load);
+
+        dailyReportCache.onUserChanged(new UserChangedEvent(1L));
+
+        assertEquals(1, dailyReportCache.size());
+    }
+
+    @Test
+    void onFoodChanged_EvictsAllReports() {
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(2L, DATE, this::load);
+
+        dailyReportCache.onFoodChanged(FoodChangedEvent.updated(FoodDto.builder().id(1L).name("Овсянка").build()));
+
+        assertEquals(0, dailyReportCache.size());
+    }
+
+    @Test
+    void onFoodChanged_WhenFoodCreated_KeepsReports() {
+        dailyReportCache.get(1L, DATE, this::load);
+
+        dailyReportCache.onFoodChanged(FoodChangedEvent.created(FoodDto.builder().id(5L).name("Овсянка").build()));
+
+        assertEquals(1, dailyReportCache.size());
+    }
+
+    @Test
+    void onFoodsImported_WhenOnlyFoodsCreated_KeepsReports() {
+        dailyReportCache.get(1L, DATE, this::load);
+
+        dailyReportCache.onFoodsImported(new FoodsImportedEvent(
+                List.of(FoodDto.builder().id(5L).name("Овсянка").build()), List.of()));
+        assertEquals(1, dailyReportCache.size());
+
+        dailyReportCache.onFoodsImported(new FoodsImportedEvent(
+                List.of(), List.of(FoodDto.builder().id(1L).name("Овсянка").build())));
+        assertEquals(0, dailyReportCache.size());
+    }
+
+    @Test
+    void onUserChanged_WhenReportIsBeingBuilt_DoesNotKeepStaleReport() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        CompletableFuture<DailyReportDto> staleReport = CompletableFuture.supplyAsync(
+                () -> dailyReportCache.get(1L, DATE, () -> {
+                    loading.countDown();
+                    await(changed);
+                    return load();
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        dailyReportCache.onUserChanged(new UserChangedEvent(1L));
+        changed.countDown();
+        staleReport.get(5, TimeUnit.SECONDS);
+        dailyReportCache.get(1L, DATE, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onMealsChanged_WithRange_WhenReportIsBeingBuilt_DoesNotKeepStaleReport() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        CompletableFuture<DailyReportDto> staleReport = CompletableFuture.supplyAsync(
+                () -> dailyReportCache.get(1L, DATE.plusDays(1), () -> {
+                    loading.countDown();
+                    await(changed);
+                    return load();
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        dailyReportCache.onMealsChanged(new MealsChangedEvent(1L, DATE, DATE.plusDays(2)));
+        changed.countDown();
+        staleReport.get(5, TimeUnit.SECONDS);
+        dailyReportCache.get(1L, DATE.plusDays(1), this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenLoaderFails_DoesNotCacheFailure() {
+        assertThrows(IllegalStateException.class, () -> dailyReportCache.get(1L, DATE, () -> {
+            throw new IllegalStateException("Ошибка построения отчета");
+        }));
+
+        dailyReportCache.get(1L, DATE, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, dailyReportCache.size());
+    }
+
+    @Test
+    void get_WhenDisabled_AlwaysBuildsReport() {
+        DailyReportCacheProperties properties = new DailyReportCacheProperties();
+        properties.setEnabled(false);
+        dailyReportCache = new DailyReportCache(properties);
+
+        dailyReportCache.get(1L, DATE, this::load);
+        dailyReportCache.get(1L, DATE, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DailyReportDto load() {
+        loads.incrementAndGet();
+        return DailyReportDto.builder()
+                .userId(1L)
+                .date(DATE)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.exception.ResourceNotFoundException;
+import com.example.calorietracker.model.DailyTotal;
+import com.example.calorietracker.model.FoodUsage;
+import com.example.calorietracker.model.Goal;
+import com.example.calorietracker.repository.FoodUsageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Одновременная запись приемов пищи пользователя: все записи должны пройти, строка daily_totals - учесть
+ * каждый прием пищи, а перенос и удаление одного приема пищи - не оставить его в итогах прежних дней
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyTotalConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int DAYS = 10;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private DailyTotalService dailyTotalService;
+
+    @Autowired
+    private FoodUsageCounter foodUsageCounter;
+
+    @Autowired
+    private FoodUsageRepository foodUsageRepository;
+
+    private ExecutorService executor;
+    private Long userId;
+    private Long foodId;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(WRITERS);
+        userId = userService.createUser(UserDto.builder()
+                .name("Иван Иванов")
+                .email("concurrent-" + System.nanoTime() + "@example.com")
+                .age(30)
+                .weight(75.0)
+                .height(180)
+                .goal(Goal.MAINTENANCE)
+                .build()).getId();
+        foodId = foodService.createFood(FoodDto.builder()
+                .name("Рис " + System.nanoTime())
+                .caloriesPerServing(130)
+                .proteins(2.7)
+                .fats(0.3)
+                .carbohydrates(28.0)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void createMeal_WhenFirstMealsOfDayWrittenConcurrently_CountsAllMeals() throws Exception {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        for (int day = 0; day < DAYS; day++) {
+            LocalDate date = startDate.plusDays(day);
+            CyclicBarrier barrier = new CyclicBarrier(WRITERS);
+            List<Future<MealDto>> results = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                LocalTime time = LocalTime.of(8 + writer, 0);
+                results.add(executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    return mealService.createMeal(meal(date, time));
+                }));
+            }
+            for (Future<MealDto> result : results) {
+                assertNotNull(result.get(30, TimeUnit.SECONDS).getId());
+            }
+        }
+
+        List<DailyTotal> totals = dailyTotalService.getDailyTotals(userId, startDate, startDate.plusDays(DAYS - 1));
+        assertEquals(DAYS, totals.size());
+        for (DailyTotal total : totals) {
+            assertEquals(WRITERS, total.getMealCount());
+            assertEquals(WRITERS * 130, total.getTotalCalories());
+        }
+    }
+
+    @Test
+    void updateAndDeleteMeal_WhenSameMealChangedConcurrently_LeavesNoStaleDays() throws Exception {
+        LocalDate date = LocalDate.of(2025, 2, 1);
+        for (int round = 0; round < ROUNDS; round++) {
+            Long mealId = mealService.createMeal(meal(date, LocalTime.NOON)).getId();
+            CyclicBarrier barrier = new CyclicBarrier(3);
+            List<Future<Object>> results = List.of(
+                    submit(barrier, () -> mealService.updateMeal(mealId, meal(date.plusDays(1), LocalTime.NOON))),
+                    submit(barrier, () -> mealService.updateMeal(mealId, meal(date.minusDays(1), LocalTime.NOON))),
+                    submit(barrier, () -> {
+                        mealService.deleteMeal(mealId);
+                        return null;
+                    }));
+            for (Future<Object> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // Перенос после удаления не находит прием пищи
+                    assertInstanceOf(ResourceNotFoundException.class, e.getCause());
+                }
+            }
+
+            // Удаление всегда проходит, поэтому прием пищи не должен остаться ни в одном из трех дней
+            List<DailyTotal> totals = dailyTotalService.getDailyTotals(userId, date.minusDays(1), date.plusDays(1));
+            assertEquals(List.of(), totals, "Раунд " + round);
+        }
+
+        foodUsageCounter.flush();
+        assertEquals(0L, foodUsageRepository.findById(foodId).map(FoodUsage::getUsageCount).orElse(0L));
+    }
+
+    private Future<Object> submit(CyclicBarrier barrier, Callable<Object> write) {
+        return executor.submit(() -> {
+            barrier.await(5, TimeUnit.SECONDS);
+            return write.call();
+        });
+    }
+
+    private MealDto meal(LocalDate date, LocalTime time) {
+        return MealDto.builder()
+                .userId(userId)
+                .mealDate(date)
+                .mealTime(time)
+                .mealType("Обед")
+                .mealFoods(List.of(MealFoodDto.builder().foodId(foodId).servings(1.0).build()))
+                .build();
+    }
+}
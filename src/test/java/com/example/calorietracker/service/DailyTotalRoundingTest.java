@@ -0,0 +1,168 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.DailySummaryDto;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.model.DailyTotal;
+import com.example.calorietracker.model.Goal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Итоги дня с дробными порциями: daily_totals, сводка и полный отчет должны совпадать
+ * и не содержать погрешности сложения double, а пересчет после изменения блюда - совпадать с записью приема пищи
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyTotalRoundingTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 30);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private DailyTotalService dailyTotalService;
+
+    private Long userId;
+    private Long foodId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userService.createUser(UserDto.builder()
+                .name("Иван Иванов")
+                .email("rounding-" + System.nanoTime() + "@example.com")
+                .age(30)
+                .weight(75.0)
+                .height(180)
+                .goal(Goal.MAINTENANCE)
+                .build()).getId();
+        foodId = foodService.createFood(FoodDto.builder()
+                .name("Творог " + System.nanoTime())
+                .caloriesPerServing(165)
+                .proteins(13.8)
+                .fats(3.6)
+                .carbohydrates(0.1)
+                .build()).getId();
+    }
+
+    @Test
+    void dailyTotals_WhenServingsAreFractional_MatchSummaryAndReport() {
+        // 13.8 + 13.8 + 13.8 в double дает 41.400000000000006
+        for (int hour = 8; hour < 11; hour++) {
+            mealService.createMeal(meal(LocalTime.of(hour, 0), 1.0));
+        }
+        // Две порции по 4.5954 г белка: округленные по отдельности дали бы 9.2, итог приема пищи - 9.19
+        mealService.createMeal(meal(LocalTime.of(12, 0), 0.333, 0.333));
+
+        List<DailyTotal> dailyTotals = dailyTotalService.getDailyTotals(userId, DATE, DATE);
+        DailySummaryDto summary = reportService.getDailySummary(userId, DATE);
+        DailySummaryDto historySummary = reportService.getDailySummaryHistory(userId, DATE, DATE).get(0);
+        DailyReportDto report = reportService.getDailyReport(userId, DATE);
+
+        assertEquals(1, dailyTotals.size());
+        DailyTotal dailyTotal = dailyTotals.get(0);
+        assertEquals(605, report.getTotalCaloriesConsumed());
+        assertEquals(50.59, report.getTotalProteinsConsumed());
+        assertEquals(13.2, report.getTotalFatsConsumed());
+        assertEquals(0.37, report.getTotalCarbohydratesConsumed());
+
+        assertEquals(report.getTotalCaloriesConsumed(), dailyTotal.getTotalCalories());
+        assertEquals(report.getTotalProteinsConsumed(), dailyTotal.getTotalProteins());
+        assertEquals(report.getTotalFatsConsumed(), dailyTotal.getTotalFats());
+        assertEquals(report.getTotalCarbohydratesConsumed(), dailyTotal.getTotalCarbohydrates());
+
+        for (DailySummaryDto daySummary : List.of(summary, historySummary)) {
+            assertEquals(4, daySummary.getMealCount());
+            assertEquals(report.getTotalCaloriesConsumed(), daySummary.getTotalCaloriesConsumed());
+            assertEquals(report.getTotalProteinsConsumed(), daySummary.getTotalProteinsConsumed());
+            assertEquals(report.getTotalFatsConsumed(), daySummary.getTotalFatsConsumed());
+            assertEquals(report.getTotalCarbohydratesConsumed(), daySummary.getTotalCarbohydratesConsumed());
+        }
+    }
+
+    @Test
+    void rebuildDailyTotals_WhenServingsAreFractional_StoresRoundedSums() {
+        for (int hour = 8; hour < 11; hour++) {
+            mealService.createMeal(meal(LocalTime.of(hour, 0), 1.0));
+        }
+
+        assertEquals(1, reportService.rebuildDailyTotals(userId, DATE, DATE));
+
+        DailyTotal dailyTotal = dailyTotalService.getDailyTotals(userId, DATE, DATE).get(0);
+        assertEquals(41.4, dailyTotal.getTotalProteins());
+        assertEquals(10.8, dailyTotal.getTotalFats());
+        assertEquals(0.3, dailyTotal.getTotalCarbohydrates());
+    }
+
+    @Test
+    void updateFood_WhenServingsHaveFourDecimals_RecalculatesTotalsLikeCreateMeal() {
+        Long changedFoodId = foodService.createFood(food("Курица", 100, 20.0)).getId();
+        Long referenceFoodId = foodService.createFood(food("Индейка", 150, 31.0)).getId();
+        Long changedMealId = mealService.createMeal(meal(changedFoodId, LocalTime.of(8, 0), 0.3335)).getId();
+        Long referenceMealId = mealService.createMeal(meal(referenceFoodId, LocalTime.of(9, 0), 0.3335)).getId();
+
+        // После изменения блюда итоги пересчитываются запросом UPDATE, а не через NutritionAccumulator
+        FoodDto changedFood = food("Курица", 150, 31.0);
+        foodService.updateFood(changedFoodId, changedFood);
+
+        MealDto recalculated = mealService.getMealById(changedMealId);
+        MealDto reference = mealService.getMealById(referenceMealId);
+        // 0.3335 порции округляются до 0.334: 0.334 * 31 = 10.354, без округления было бы 10.3385
+        assertEquals(10.35, reference.getTotalProteins());
+        assertEquals(reference.getTotalCalories(), recalculated.getTotalCalories());
+        assertEquals(reference.getTotalProteins(), recalculated.getTotalProteins());
+        assertEquals(reference.getTotalFats(), recalculated.getTotalFats());
+        assertEquals(reference.getTotalCarbohydrates(), recalculated.getTotalCarbohydrates());
+    }
+
+    private static FoodDto food(String name, int calories, double proteins) {
+        return FoodDto.builder()
+                .name(name + " " + System.nanoTime())
+                .caloriesPerServing(calories)
+                .proteins(proteins)
+                .fats(3.6)
+                .carbohydrates(0.1)
+                .build();
+    }
+
+    private MealDto meal(LocalTime time, double... servings) {
+        return meal(foodId, time, servings);
+    }
+
+    private MealDto meal(Long mealFoodId, LocalTime time, double... servings) {
+        List<MealFoodDto> mealFoods = new ArrayList<>();
+        for (double serving : servings) {
+            mealFoods.add(MealFoodDto.builder().foodId(mealFoodId).servings(serving).build());
+        }
+        return MealDto.builder()
+                .userId(userId)
+                .mealDate(DATE)
+                .mealTime(time)
+                .mealType("Обед")
+                .mealFoods(mealFoods)
+                .build();
+    }
+}
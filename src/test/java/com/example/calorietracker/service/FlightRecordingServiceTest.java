@@ -0,0 +1,93 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.AdminProperties;
+import com.example.calorietracker.exception.InvalidDataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingServiceTest {
+
+    private FlightRecordingService flightRecordingService;
+
+    @BeforeEach
+    void setUp() {
+        flightRecordingService = new FlightRecordingService(new AdminProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (flightRecordingService.status().isPresent()) {
+            Files.deleteIfExists(flightRecordingService.stop());
+        }
+    }
+
+    @Test
+    void start_WhenNoRecording_StartsRecording() {
+        FlightRecordingService.RecordingStatus status = flightRecordingService.start("default", Duration.ofMinutes(1));
+
+        assertEquals("RUNNING", status.state());
+        assertEquals("default", status.settings());
+        assertEquals(Duration.ofMinutes(1), status.duration());
+        assertEquals(status, flightRecordingService.status().orElseThrow());
+    }
+
+    @Test
+    void start_WhenRecordingRunning_ThrowsInvalidDataException() {
+        FlightRecordingService.RecordingStatus first = flightRecordingService.start("default", Duration.ofMinutes(1));
+
+        assertThrows(InvalidDataException.class,
+                () -> flightRecordingService.start("profile", Duration.ofMinutes(1)));
+        assertEquals(first.id(), flightRecordingService.status().orElseThrow().id());
+    }
+
+    @Test
+    void start_WhenDurationExceedsMaximum_ThrowsInvalidDataException() {
+        assertThrows(InvalidDataException.class,
+                () -> flightRecordingService.start("default", Duration.ofHours(1)));
+        assertTrue(flightRecordingService.status().isEmpty());
+    }
+
+    @Test
+    void stop_WhenNoRecording_ThrowsInvalidDataException() {
+        assertThrows(InvalidDataException.class, () -> flightRecordingService.stop());
+    }
+
+    @Test
+    void stop_WhenRecordingRunning_DumpsRecordingAndClearsStatus() throws Exception {
+        flightRecordingService.start("default", Duration.ofMinutes(1));
+
+        Path file = flightRecordingService.stop();
+        try {
+            assertTrue(Files.size(file) > 0);
+            assertTrue(flightRecordingService.status().isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void stop_WhenDurationExpired_DumpsStoppedRecording() throws Exception {
+        flightRecordingService.start("default", Duration.ofSeconds(1));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!"STOPPED".equals(flightRecordingService.status().orElseThrow().state())) {
+            assertTrue(System.nanoTime() < deadline, "Запись не остановилась по истечении длительности");
+            Thread.sleep(50);
+        }
+
+        Path file = flightRecordingService.stop();
+        try {
+            assertTrue(Files.size(file) > 0);
+            assertTrue(flightRecordingService.status().isEmpty());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
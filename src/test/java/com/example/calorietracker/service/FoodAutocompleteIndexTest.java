@@ -0,0 +1,85 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.dto.FoodSuggestionDto;
+import com.example.calorietracker.repository.FoodPopularityRow;
+import com.example.calorietracker.repository.FoodRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FoodAutocompleteIndexTest {
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private FoodUsageCounter foodUsageCounter;
+
+    private FoodAutocompleteIndex foodAutocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        foodAutocompleteIndex = new FoodAutocompleteIndex(foodRepository, foodUsageCounter, new FoodSearchProperties());
+        when(foodRepository.findAllWithUsageCount()).thenReturn(List.of(
+                new FoodPopularityRow(1L, "Куриная грудка", 165, 10L),
+                new FoodPopularityRow(2L, "Куриный суп", 120, 50L),
+                new FoodPopularityRow(3L, "Суп с курицей", 110, 5L),
+                new FoodPopularityRow(4L, "Гречневая каша", 132, 100L),
+                new FoodPopularityRow(5L, "Кукуруза", 96, 0L)
+        ));
+        foodAutocompleteIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        foodAutocompleteIndex.shutdown();
+    }
+
+    @Test
+    void suggest_RanksByPopularity() {
+        List<FoodSuggestionDto> result = foodAutocompleteIndex.suggest("кури", 10);
+
+        assertEquals(List.of(2L, 1L, 3L), ids(result));
+    }
+
+    @Test
+    void suggest_WhenPrefixIsShort_UsesPrecomputedTop() {
+        assertEquals(List.of(4L, 2L, 1L, 3L, 5L), ids(foodAutocompleteIndex.suggest("к", 10)));
+        assertEquals(List.of(2L, 1L), ids(foodAutocompleteIndex.suggest("Ку", 2)));
+    }
+
+    @Test
+    void suggest_MatchesAcrossWords() {
+        assertEquals(List.of(1L), ids(foodAutocompleteIndex.suggest("куриная гр", 10)));
+        assertEquals(List.of(4L), ids(foodAutocompleteIndex.suggest("каш", 10)));
+    }
+
+    @Test
+    void suggest_ReturnsOnlyIdNameAndCalories() {
+        FoodSuggestionDto suggestion = foodAutocompleteIndex.suggest("греч", 1).get(0);
+
+        assertEquals(4L, suggestion.getId());
+        assertEquals("Гречневая каша", suggestion.getName());
+        assertEquals(132, suggestion.getCaloriesPerServing());
+    }
+
+    @Test
+    void suggest_WhenNothingMatches_ReturnsEmptyList() {
+        assertTrue(foodAutocompleteIndex.suggest("шоколад", 10).isEmpty());
+        assertTrue(foodAutocompleteIndex.suggest("", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<FoodSuggestionDto> suggestions) {
+        return suggestions.stream().map(FoodSuggestionDto::getId).toList();
+    }
+}
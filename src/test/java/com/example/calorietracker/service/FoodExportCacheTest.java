@@ -0,0 +1,51 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.model.Food;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Выгрузка каталога не должна заполнять регион foods кэша второго уровня
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FoodExportCacheTest {
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void exportFoods_DoesNotPutFoodsIntoSecondLevelCache() {
+        List<Long> foodIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            foodIds.add(foodService.createFood(FoodDto.builder()
+                    .name("Выгрузка " + i + " " + System.nanoTime())
+                    .caloriesPerServing(100)
+                    .proteins(1.0)
+                    .fats(1.0)
+                    .carbohydrates(1.0)
+                    .build()).getId());
+        }
+        entityManagerFactory.getCache().evict(Food.class);
+
+        List<Long> exported = new ArrayList<>();
+        foodService.exportFoods(null, food -> exported.add(food.getId()));
+
+        assertTrue(exported.containsAll(foodIds));
+        for (Long foodId : foodIds) {
+            assertFalse(entityManagerFactory.getCache().contains(Food.class, foodId));
+        }
+    }
+}
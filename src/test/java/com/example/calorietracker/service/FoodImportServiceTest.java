@@ -0,0 +1,203 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodImportProperties;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.FoodImportResultDto;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import com.example.calorietracker.exception.InvalidDataException;
+import com.example.calorietracker.model.Food;
+import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.MealRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FoodImportServiceTest {
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private DailyTotalService dailyTotalService;
+
+    @Mock
+    private FoodService foodService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private FoodImportProperties importProperties = new FoodImportProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FoodImportService foodImportService;
+
+    private Food food;
+
+    @BeforeEach
+    void setUp() {
+        food = Food.builder()
+                .id(1L)
+                .name("Куриная грудка")
+                .caloriesPerServing(165)
+                .proteins(31.0)
+                .fats(3.6)
+                .carbohydrates(0.0)
+                .build();
+    }
+
+    @Test
+    void importFoods_WhenCsvHasNewChangedAndInvalidRows_ReturnsSummary() throws Exception {
+        String csv = "name,caloriesPerServing,proteins,fats,carbohydrates\n" +
+                "Куриная грудка,170,31.0,3.6,0.0\n" +
+                "\"Гречка, отварная\",110,4.0,1.0,21.0\n" +
+                "КУРИНАЯ ГРУДКА,165,31.0,3.6,0.0\n" +
+                "Суп,много,1.0,1.0,1.0\n";
+
+        when(foodRepository.findByLowerNameIn(anyCollection())).thenReturn(List.of(food));
+        when(foodService.mapToDto(any(Food.class))).thenAnswer(invocation -> {
+            Food mapped = invocation.getArgument(0);
+            return FoodDto.builder().id(mapped.getId()).name(mapped.getName()).build();
+        });
+
+        FoodImportResultDto result = foodImportService.importFoods(input(csv), FoodImportService.Format.CSV);
+
+        assertEquals(4, result.getTotal());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(0, result.getUnchanged());
+        assertEquals(2, result.getRejected());
+        assertEquals(List.of(4, 5), result.getErrors().stream().map(FoodImportResultDto.RowError::getLine).toList());
+        assertEquals(170, food.getCaloriesPerServing());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Food>> insertedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(foodRepository, times(1)).saveAll(insertedCaptor.capture());
+        assertEquals(List.of("Гречка, отварная"), insertedCaptor.getValue().stream().map(Food::getName).toList());
+        verify(mealRepository, times(1)).recalculateTotalsByFoodIds(List.of(1L));
+        verify(dailyTotalService, times(1)).refreshForFoods(List.of(1L));
+
+        ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        FoodsImportedEvent event = assertInstanceOf(FoodsImportedEvent.class, eventCaptor.getValue());
+        assertEquals(List.of("Гречка, отварная"), event.created().stream().map(FoodDto::getName).toList());
+        assertEquals(List.of(1L), event.updated().stream().map(FoodDto::getId).toList());
+    }
+
+    @Test
+    void importFoods_WhenNdjsonMatchesCatalog_CountsUnchangedFoods() throws Exception {
+        String ndjson = "{\"name\":\"Куриная грудка\",\"caloriesPerServing\":165,\"proteins\":31.0,\"fats\":3.6,\"carbohydrates\":0.0}\n" +
+                "{\"name\":\"Творог\",\n";
+
+        when(foodRepository.findByLowerNameIn(anyCollection())).thenReturn(List.of(food));
+
+        FoodImportResultDto result = foodImportService.importFoods(input(ndjson), FoodImportService.Format.NDJSON);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        verify(mealRepository, never()).recalculateTotalsByFoodIds(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void importFoods_WhenCsvHeaderMissesColumns_ThrowsInvalidDataException() {
+        String csv = "name,calories\nКуриная грудка,165\n";
+
+        assertThrows(InvalidDataException.class, () -> {
+            foodImportService.importFoods(input(csv), FoodImportService.Format.CSV);
+        });
+
+        verify(foodRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void importFoods_WhenTooManyRows_ThrowsInvalidDataException() {
+        importProperties.setMaxRows(1);
+        String ndjson = "{\"name\":\"Творог\"}\n{\"name\":\"Кефир\"}\n";
+
+        assertThrows(InvalidDataException.class, () -> {
+            foodImportService.importFoods(input(ndjson), FoodImportService.Format.NDJSON);
+        });
+    }
+
+    @Test
+    void importFoods_WhenNameInsertedConcurrently_RetriesAndUpdatesFood() throws Exception {
+        String csv = "name,caloriesPerServing,proteins,fats,carbohydrates\n" +
+                "куриная грудка,170,31.0,3.6,0.0\n";
+
+        // Первая попытка не видит блюдо, добавленное параллельной транзакцией, и натыкается на уникальный индекс
+        when(foodRepository.findByLowerNameIn(anyCollection())).thenReturn(List.of(), List.of(food));
+        doThrow(new DataIntegrityViolationException("idx_foods_lower_name_unique"))
+                .doNothing()
+                .when(foodRepository).flush();
+
+        FoodImportResultDto result = foodImportService.importFoods(input(csv), FoodImportService.Format.CSV);
+
+        assertEquals(1, result.getTotal());
+        assertEquals(0, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals("куриная грудка", food.getName());
+        assertEquals(170, food.getCaloriesPerServing());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(mealRepository, times(1)).recalculateTotalsByFoodIds(List.of(1L));
+    }
+
+    @Test
+    void importFoods_WhenConflictPersists_ThrowsInvalidDataException() {
+        String csv = "name,caloriesPerServing,proteins,fats,carbohydrates\n" +
+                "Гречка,110,4.0,1.0,21.0\n";
+
+        doThrow(new DataIntegrityViolationException("idx_foods_lower_name_unique"))
+                .when(foodRepository).flush();
+
+        assertThrows(InvalidDataException.class, () -> {
+            foodImportService.importFoods(input(csv), FoodImportService.Format.CSV);
+        });
+
+        verify(foodRepository, times(3)).flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
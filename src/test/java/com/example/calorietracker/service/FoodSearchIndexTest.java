@@ -0,0 +1,143 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.event.FoodChangedEvent;
+import com.example.calorietracker.event.FoodsImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodSearchIndexTest {
+
+    private FoodSearchIndex foodSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        foodSearchIndex = new FoodSearchIndex(new FoodSearchProperties());
+        foodSearchIndex.rebuild(() -> List.of(
+                food(1L, "Куриная грудка"),
+                food(2L, "Куриный суп"),
+                food(3L, "Суп с курицей"),
+                food(4L, "Гречневая каша"),
+                food(5L, "Chicken breast"),
+                food(6L, "Свёкла отварная")
+        ));
+    }
+
+    @Test
+    void rebuild_MarksIndexReady() {
+        assertTrue(foodSearchIndex.isReady());
+        assertEquals(6, foodSearchIndex.size());
+    }
+
+    @Test
+    void search_RanksNamePrefixBeforeWordPrefix() {
+        List<FoodDto> result = foodSearchIndex.search("кури", 10);
+
+        assertEquals(List.of(2L, 1L, 3L), ids(result));
+    }
+
+    @Test
+    void search_WhenLimitIsSmaller_ReturnsTopResults() {
+        List<FoodDto> result = foodSearchIndex.search("кури", 1);
+
+        assertEquals(List.of(2L), ids(result));
+    }
+
+    @Test
+    void search_WhenEnoughNamesContainQuery_MatchesLargerLimit() {
+        List<FoodDto> catalog = new ArrayList<>();
+        String[] names = {"Куриная грудка", "Куриный суп", "Суп с курицей", "Курага", "Шашлык из курицы", "Окурок"};
+        for (int i = 0; i < 120; i++) {
+            catalog.add(food((long) i + 1, names[i % names.length] + (i < names.length ? "" : " №" + i)));
+        }
+        foodSearchIndex.rebuild(() -> catalog);
+
+        // При малом лимите нечеткий поиск пропускается, порядок должен совпасть с полным поиском
+        for (String query : List.of("кур", "кури", "курица", "суп с")) {
+            List<Long> all = ids(foodSearchIndex.search(query, catalog.size() + 1));
+            for (int limit : new int[]{1, 5, 20}) {
+                assertEquals(all.subList(0, Math.min(limit, all.size())), ids(foodSearchIndex.search(query, limit)),
+                        query + " / " + limit);
+            }
+        }
+    }
+
+    @Test
+    void search_WhenQueryHasTypo_FindsFood() {
+        List<FoodDto> result = foodSearchIndex.search("гречнивая", 10);
+
+        assertEquals(List.of(4L), ids(result));
+    }
+
+    @Test
+    void search_IgnoresCaseAndYo() {
+        assertEquals(List.of(6L), ids(foodSearchIndex.search("СВЕКЛА", 10)));
+        assertEquals(List.of(5L), ids(foodSearchIndex.search("chick", 10)));
+    }
+
+    @Test
+    void search_WhenNothingMatches_ReturnsEmptyList() {
+        assertTrue(foodSearchIndex.search("шоколад", 10).isEmpty());
+        assertTrue(foodSearchIndex.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void onFoodChanged_KeepsIndexInSync() {
+        foodSearchIndex.onFoodChanged(FoodChangedEvent.created(food(7L, "Овсяная каша")));
+        foodSearchIndex.onFoodChanged(FoodChangedEvent.updated(food(4L, "Гречка")));
+        foodSearchIndex.onFoodChanged(FoodChangedEvent.deleted(2L));
+
+        assertEquals(List.of(7L), ids(foodSearchIndex.search("каша", 10)));
+        assertEquals(List.of(4L), ids(foodSearchIndex.search("гречка", 10)));
+        assertEquals(List.of(1L, 3L), ids(foodSearchIndex.search("кури", 10)));
+    }
+
+    @Test
+    void onFoodsImported_AppliesWholeChunk() {
+        foodSearchIndex.onFoodsImported(new FoodsImportedEvent(
+                List.of(food(7L, "Овсяная каша"), food(8L, "Творог")),
+                List.of(food(4L, "Гречка"))));
+
+        assertEquals(List.of(7L), ids(foodSearchIndex.search("каша", 10)));
+        assertEquals(List.of(8L), ids(foodSearchIndex.search("творог", 10)));
+        assertEquals(List.of(4L), ids(foodSearchIndex.search("гречка", 10)));
+    }
+
+    @Test
+    void rebuild_ReappliesChangesReceivedWhileLoading() {
+        foodSearchIndex.rebuild(() -> {
+            foodSearchIndex.onFoodChanged(FoodChangedEvent.created(food(8L, "Творог")));
+            return List.of(food(1L, "Куриная грудка"));
+        });
+
+        assertEquals(2, foodSearchIndex.size());
+        assertEquals(List.of(8L), ids(foodSearchIndex.search("творог", 10)));
+    }
+
+    @Test
+    void editDistance_WhenAboveLimit_ReturnsMinusOne() {
+        assertEquals(1, FoodSearchIndex.editDistance("курица", "курина", 2));
+        assertEquals(-1, FoodSearchIndex.editDistance("курица", "гречка", 2));
+    }
+
+    private static FoodDto food(Long id, String name) {
+        return FoodDto.builder()
+                .id(id)
+                .name(name)
+                .caloriesPerServing(100)
+                .proteins(1.0)
+                .fats(1.0)
+                .carbohydrates(1.0)
+                .build();
+    }
+
+    private static List<Long> ids(List<FoodDto> foods) {
+        return foods.stream().map(FoodDto::getId).toList();
+    }
+}
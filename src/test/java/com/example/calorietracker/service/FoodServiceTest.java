@@ -1,20 +1,33 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.FoodSearchProperties;
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.FoodSuggestionDto;
 import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.Food;
 import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.MealRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +40,30 @@ class FoodServiceTest {
     @Mock
     private FoodRepository foodRepository;
 
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private DailyTotalService dailyTotalService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FoodSearchIndex foodSearchIndex;
+
+    @Mock
+    private FoodAutocompleteIndex foodAutocompleteIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private FoodSearchProperties searchProperties = new FoodSearchProperties();
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     @InjectMocks
     private FoodService foodService;
 
@@ -79,6 +116,20 @@ class FoodServiceTest {
         verify(foodRepository, never()).save(any(Food.class));
     }
 
+    @Test
+    void createFood_WhenNameInsertedConcurrently_ThrowsInvalidDataException() {
+        when(foodRepository.findByNameIgnoreCase(anyString())).thenReturn(Optional.empty());
+        when(foodRepository.save(any(Food.class))).thenReturn(food);
+        doThrow(new DataIntegrityViolationException("idx_foods_lower_name_unique"))
+                .when(foodRepository).flush();
+
+        assertThrows(InvalidDataException.class, () -> {
+            foodService.createFood(foodDto);
+        });
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void updateFood_WhenFoodExists_ReturnsUpdatedFoodDto() {
         Food updatedFood = Food.builder()
@@ -109,6 +160,29 @@ class FoodServiceTest {
         assertEquals(updatedFoodDto.getName(), result.getName());
         assertEquals(updatedFoodDto.getCaloriesPerServing(), result.getCaloriesPerServing());
         verify(foodRepository, times(1)).save(any(Food.class));
+        verify(mealRepository, times(1)).recalculateTotalsByFoodIds(List.of(1L));
+        verify(dailyTotalService, times(1)).refreshForFoods(List.of(1L));
+    }
+
+    @Test
+    void updateFood_WhenOnlyNameChanged_DoesNotRecalculateMeals() {
+        FoodDto renamedFoodDto = FoodDto.builder()
+                .id(1L)
+                .name("Куриное филе")
+                .caloriesPerServing(165)
+                .proteins(31.0)
+                .fats(3.6)
+                .carbohydrates(0.0)
+                .build();
+
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
+        when(foodRepository.findByNameIgnoreCase(anyString())).thenReturn(Optional.empty());
+        when(foodRepository.save(any(Food.class))).thenReturn(food);
+
+        foodService.updateFood(1L, renamedFoodDto);
+
+        verify(mealRepository, never()).recalculateTotalsByFoodIds(anyCollection());
+        verify(dailyTotalService, never()).refreshForFoods(anyCollection());
     }
 
     @Test
@@ -144,7 +218,7 @@ class FoodServiceTest {
     }
 
     @Test
-    void getAllFoods_ReturnsListOfFoodDto() {
+    void getFoods_WhenMoreRowsThanPageSize_ReturnsCursorToNextPage() {
         Food food2 = Food.builder()
                 .id(2L)
                 .name("Гречневая каша")
@@ -154,14 +228,45 @@ class FoodServiceTest {
                 .carbohydrates(25.0)
                 .build();
 
-        when(foodRepository.findAll()).thenReturn(Arrays.asList(food, food2));
+        when(foodRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(food, food2));
 
-        List<FoodDto> result = foodService.getAllFoods();
+        CursorPageDto<FoodDto> result = foodService.getFoods(null, 1);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(food.getId(), result.get(0).getId());
-        assertEquals(food2.getId(), result.get(1).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(food.getId(), result.getItems().get(0).getId());
+        assertTrue(result.getHasMore());
+        assertNotNull(result.getNextCursor());
+
+        when(foodRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(food2));
+
+        CursorPageDto<FoodDto> nextPage = foodService.getFoods(result.getNextCursor(), 1);
+
+        assertEquals(food2.getId(), nextPage.getItems().get(0).getId());
+        assertFalse(nextPage.getHasMore());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void getFoods_WhenCursorIsMalformed_ThrowsInvalidDataException() {
+        assertThrows(InvalidDataException.class, () -> {
+            foodService.getFoods("не курсор", null);
+        });
+    }
+
+    @Test
+    void exportFoods_WhenUpdatedSinceIsSet_StreamsChangedFoodsAndDetachesThem() {
+        LocalDateTime updatedSince = LocalDateTime.of(2025, 3, 30, 0, 0);
+        when(foodRepository.streamUpdatedSince(updatedSince)).thenReturn(Stream.of(food));
+
+        List<FoodDto> exported = new ArrayList<>();
+        foodService.exportFoods(updatedSince, exported::add);
+
+        assertEquals(1, exported.size());
+        assertEquals(food.getName(), exported.get(0).getName());
+        verify(entityManager, times(1)).detach(food);
+        verify(foodRepository, never()).streamAll();
     }
 
     @Test
@@ -177,7 +282,7 @@ class FoodServiceTest {
 
         when(foodRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(Arrays.asList(food, food2));
 
-        List<FoodDto> result = foodService.searchFoodByName("кур");
+        List<FoodDto> result = foodService.searchFoodByName("кур", null);
 
         assertNotNull(result);
         assertEquals(2, result.size());
@@ -185,6 +290,50 @@ class FoodServiceTest {
         assertTrue(result.get(1).getName().toLowerCase().contains("кур"));
     }
 
+    @Test
+    void searchFoodByName_WhenIndexReady_UsesIndex() {
+        when(foodSearchIndex.isReady()).thenReturn(true);
+        when(foodSearchIndex.search("кур", 5)).thenReturn(List.of(foodDto));
+
+        List<FoodDto> result = foodService.searchFoodByName("кур", 5);
+
+        assertEquals(1, result.size());
+        verify(foodRepository, never()).findByNameContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void searchFoodByName_WhenLimitTooLarge_ThrowsInvalidDataException() {
+        assertThrows(InvalidDataException.class, () -> {
+            foodService.searchFoodByName("кур", 1000);
+        });
+
+        verify(foodSearchIndex, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void autocompleteFoods_WhenIndexNotReady_QueriesDatabase() {
+        when(foodRepository.findByNameStartingWithIgnoreCaseOrderByName(eq("кур"), any(Pageable.class)))
+                .thenReturn(List.of(food));
+
+        List<FoodSuggestionDto> result = foodService.autocompleteFoods("кур", null);
+
+        assertEquals(1, result.size());
+        assertEquals(food.getId(), result.get(0).getId());
+        assertEquals(food.getCaloriesPerServing(), result.get(0).getCaloriesPerServing());
+    }
+
+    @Test
+    void autocompleteFoods_WhenIndexReady_UsesIndex() {
+        FoodSuggestionDto suggestion = FoodSuggestionDto.builder().id(1L).name("Куриная грудка").caloriesPerServing(165).build();
+        when(foodAutocompleteIndex.isReady()).thenReturn(true);
+        when(foodAutocompleteIndex.suggest("кур", 10)).thenReturn(List.of(suggestion));
+
+        List<FoodSuggestionDto> result = foodService.autocompleteFoods("кур", null);
+
+        assertEquals(List.of(suggestion), result);
+        verify(foodRepository, never()).findByNameStartingWithIgnoreCaseOrderByName(anyString(), any(Pageable.class));
+    }
+
     @Test
     void deleteFood_WhenFoodExists_DeletesFood() {
         when(foodRepository.existsById(anyLong())).thenReturn(true);
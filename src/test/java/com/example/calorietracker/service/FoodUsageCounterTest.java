@@ -0,0 +1,84 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.event.FoodUsageChangedEvent;
+import com.example.calorietracker.model.Food;
+import com.example.calorietracker.model.FoodUsage;
+import com.example.calorietracker.repository.FoodRepository;
+import com.example.calorietracker.repository.FoodUsageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FoodUsageCounterTest {
+
+    @Mock
+    private FoodUsageRepository foodUsageRepository;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FoodUsageCounter foodUsageCounter;
+
+    @BeforeEach
+    void setUp() {
+        foodUsageCounter = new FoodUsageCounter(foodUsageRepository, foodRepository, transactionManager);
+    }
+
+    @Test
+    void flush_MergesDeltasOfSeveralWrites() {
+        when(foodUsageRepository.addUsage(anyLong(), anyLong())).thenReturn(1);
+
+        foodUsageCounter.onFoodUsageChanged(new FoodUsageChangedEvent(Map.of(1L, 2L, 2L, 1L)));
+        foodUsageCounter.onFoodUsageChanged(new FoodUsageChangedEvent(Map.of(1L, 1L, 2L, -1L)));
+        foodUsageCounter.flush();
+
+        verify(foodUsageRepository, times(1)).addUsage(1L, 3L);
+        verify(foodUsageRepository, never()).addUsage(eq(2L), anyLong());
+        verifyNoInteractions(foodRepository);
+
+        // Приращения записываются один раз
+        foodUsageCounter.flush();
+        verifyNoMoreInteractions(foodUsageRepository);
+    }
+
+    @Test
+    void flush_WhenFoodHasNoRow_CreatesRowForExistingFood() {
+        when(foodUsageRepository.addUsage(anyLong(), anyLong())).thenReturn(0);
+        when(foodRepository.findAllById(any())).thenReturn(List.of(Food.builder().id(1L).build()));
+
+        foodUsageCounter.onFoodUsageChanged(new FoodUsageChangedEvent(Map.of(1L, 2L, 3L, 1L)));
+        foodUsageCounter.flush();
+
+        // Блюдо 3 удалено до записи, строка для него не создается
+        verify(foodUsageRepository, times(1)).saveAll(List.of(new FoodUsage(1L, 2L)));
+    }
+
+    @Test
+    void flush_WhenWriteFails_RetriesOnNextFlush() {
+        when(foodUsageRepository.addUsage(1L, 2L))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        foodUsageCounter.onFoodUsageChanged(new FoodUsageChangedEvent(Map.of(1L, 2L)));
+        foodUsageCounter.flush();
+        foodUsageCounter.flush();
+
+        verify(foodUsageRepository, times(2)).addUsage(1L, 2L);
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.MealBatchProperties;
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealBatchResultDto;
 import com.example.calorietracker.dto.MealDto;
 import com.example.calorietracker.dto.MealFoodDto;
 import com.example.calorietracker.exception.InvalidDataException;
@@ -8,13 +12,21 @@ import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.*;
 import com.example.calorietracker.repository.FoodRepository;
 import com.example.calorietracker.repository.MealRepository;
+import com.example.calorietracker.repository.MealTimelineKey;
 import com.example.calorietracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -26,6 +38,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -44,6 +58,24 @@ class MealServiceTest {
     @Mock
     private FoodService foodService;
 
+    @Mock
+    private DailyTotalService dailyTotalService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private MealBatchProperties batchProperties = new MealBatchProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     @InjectMocks
     private MealService mealService;
 
@@ -110,6 +142,7 @@ class MealServiceTest {
 
         meal.getMealFoods().add(mealFood1);
         meal.getMealFoods().add(mealFood2);
+        meal.calculateTotals();
 
         // Настройка DTO
         MealFoodDto mealFoodDto1 = MealFoodDto.builder()
@@ -134,9 +167,8 @@ class MealServiceTest {
 
     @Test
     void createMeal_WhenMealDtoIsValid_ReturnsMealDto() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(foodRepository.findById(1L)).thenReturn(Optional.of(food1));
-        when(foodRepository.findById(2L)).thenReturn(Optional.of(food2));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food2));
         when(mealRepository.save(any(Meal.class))).thenReturn(meal);
         when(foodService.mapToDto(food1)).thenReturn(
                 FoodDto.builder()
@@ -172,9 +204,31 @@ class MealServiceTest {
         verify(mealRepository, times(1)).save(any(Meal.class));
     }
 
+    @Test
+    void createMeal_StoresMealTotals() {
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food2));
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(foodService.mapToDto(any(Food.class))).thenReturn(FoodDto.builder()
+                .name("Тестовое блюдо")
+                .caloriesPerServing(100)
+                .proteins(10.0)
+                .fats(5.0)
+                .carbohydrates(10.0)
+                .build());
+
+        MealDto result = mealService.createMeal(mealDto);
+
+        ArgumentCaptor<Meal> mealCaptor = ArgumentCaptor.forClass(Meal.class);
+        verify(mealRepository).save(mealCaptor.capture());
+        assertEquals(363, mealCaptor.getValue().getTotalCalories());
+        assertEquals(37.75, mealCaptor.getValue().getTotalProteins(), 0.001);
+        assertEquals(363, result.getTotalCalories());
+    }
+
     @Test
     void createMeal_WhenUserNotFound_ThrowsResourceNotFoundException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             mealService.createMeal(mealDto);
@@ -186,7 +240,7 @@ class MealServiceTest {
     @Test
     void createMeal_WhenNoFoods_ThrowsInvalidDataException() {
         mealDto.setMealFoods(new ArrayList<>());
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
 
         assertThrows(InvalidDataException.class, () -> {
             mealService.createMeal(mealDto);
@@ -195,6 +249,149 @@ class MealServiceTest {
         verify(mealRepository, never()).save(any(Meal.class));
     }
 
+    @Test
+    void createMeal_WhenFoodsNotFound_ReportsAllMissingIds() {
+        MealFoodDto missingFoodDto = MealFoodDto.builder()
+                .foodId(3L)
+                .servings(1.0)
+                .build();
+        mealDto.setMealFoods(Arrays.asList(mealDto.getMealFoods().get(0), mealDto.getMealFoods().get(1), missingFoodDto));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
+            mealService.createMeal(mealDto);
+        });
+
+        assertTrue(exception.getMessage().contains("[2, 3]"));
+        verify(foodRepository, times(1)).findAllById(anyCollection());
+        verify(mealRepository, never()).save(any(Meal.class));
+    }
+
+    @Test
+    void updateMeal_WhenOneServingChanged_KeepsExistingItems() {
+        MealFood mealFood1 = meal.getMealFoods().get(0);
+        MealFood mealFood2 = meal.getMealFoods().get(1);
+        mealDto.setMealFoods(Arrays.asList(
+                MealFoodDto.builder().id(1L).foodId(1L).servings(1.0).build(),
+                MealFoodDto.builder().id(2L).foodId(2L).servings(2.0).build()));
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.of(user.getId()));
+        when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food2));
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(foodService.mapToDto(any(Food.class))).thenReturn(FoodDto.builder()
+                .name("Тестовое блюдо")
+                .caloriesPerServing(100)
+                .proteins(10.0)
+                .fats(5.0)
+                .carbohydrates(10.0)
+                .build());
+
+        mealService.updateMeal(1L, mealDto);
+
+        assertEquals(2, meal.getMealFoods().size());
+        assertSame(mealFood1, meal.getMealFoods().get(0));
+        assertSame(mealFood2, meal.getMealFoods().get(1));
+        assertEquals(1.0, mealFood1.getServings());
+        assertEquals(2.0, mealFood2.getServings());
+    }
+
+    @Test
+    void updateMeal_WhenItemRemovedAndAdded_ReplacesOnlyChangedItems() {
+        MealFood mealFood1 = meal.getMealFoods().get(0);
+        mealDto.setMealFoods(Arrays.asList(
+                MealFoodDto.builder().foodId(1L).servings(1.0).build(),
+                MealFoodDto.builder().foodId(3L).servings(0.5).build()));
+        Food food3 = Food.builder()
+                .id(3L)
+                .name("Овсянка")
+                .caloriesPerServing(88)
+                .proteins(3.0)
+                .fats(1.7)
+                .carbohydrates(15.0)
+                .build();
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.of(user.getId()));
+        when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food3));
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(foodService.mapToDto(any(Food.class))).thenReturn(FoodDto.builder()
+                .name("Тестовое блюдо")
+                .caloriesPerServing(100)
+                .proteins(10.0)
+                .fats(5.0)
+                .carbohydrates(10.0)
+                .build());
+
+        mealService.updateMeal(1L, mealDto);
+
+        assertEquals(2, meal.getMealFoods().size());
+        assertSame(mealFood1, meal.getMealFoods().get(0));
+        assertNull(meal.getMealFoods().get(1).getId());
+        assertEquals(food3, meal.getMealFoods().get(1).getFood());
+    }
+
+    @Test
+    void updateMeal_WhenItemBelongsToAnotherMeal_ThrowsInvalidDataException() {
+        mealDto.setMealFoods(Arrays.asList(MealFoodDto.builder().id(99L).foodId(1L).servings(1.0).build()));
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.of(user.getId()));
+        when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1));
+
+        assertThrows(InvalidDataException.class, () -> {
+            mealService.updateMeal(1L, mealDto);
+        });
+
+        verify(mealRepository, never()).save(any(Meal.class));
+    }
+
+    @Test
+    void createMeals_WhenSomeItemsInvalid_PersistsValidItemsAndReportsErrors() {
+        MealDto unknownUserMeal = MealDto.builder()
+                .userId(2L)
+                .mealDate(LocalDate.now())
+                .mealTime(LocalTime.of(19, 0))
+                .mealType("Ужин")
+                .mealFoods(Arrays.asList(MealFoodDto.builder().foodId(1L).servings(1.0).build()))
+                .build();
+        MealDto emptyMeal = MealDto.builder()
+                .userId(1L)
+                .mealDate(LocalDate.now())
+                .mealTime(LocalTime.of(8, 0))
+                .mealType("Завтрак")
+                .mealFoods(new ArrayList<>())
+                .build();
+        when(userRepository.findAllByIdForUpdate(anyCollection())).thenReturn(Arrays.asList(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food2));
+
+        MealBatchResultDto result = mealService.createMeals(Arrays.asList(mealDto, unknownUserMeal, emptyMeal));
+
+        assertEquals(3, result.getTotal());
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getItems().get(0).getSuccess());
+        assertFalse(result.getItems().get(1).getSuccess());
+        assertFalse(result.getItems().get(2).getSuccess());
+        verify(userRepository, times(1)).findAllByIdForUpdate(anyCollection());
+        verify(foodRepository, times(1)).findAllById(anyCollection());
+        verify(mealRepository, times(1)).saveAll(anyList());
+        verify(entityManager, times(1)).flush();
+        verify(dailyTotalService, times(1)).rebuild(1L, mealDto.getMealDate(), mealDto.getMealDate());
+    }
+
+    @Test
+    void createMeals_WhenBatchTooLarge_ThrowsInvalidDataException() {
+        batchProperties.setMaxSize(1);
+
+        assertThrows(InvalidDataException.class, () -> {
+            mealService.createMeals(Arrays.asList(mealDto, mealDto));
+        });
+
+        verify(mealRepository, never()).saveAll(anyList());
+    }
+
     @Test
     void getMealById_WhenMealExists_ReturnsMealDto() {
         when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
@@ -233,7 +430,14 @@ class MealServiceTest {
         when(mealRepository.findByUserIdAndMealDateOrderByMealTime(anyLong(), any(LocalDate.class)))
                 .thenReturn(Arrays.asList(meal));
         when(foodService.mapToDto(any(Food.class))).thenReturn(
-                FoodDto.builder().build()
+                FoodDto.builder()
+                        .id(1L)
+                        .name("Тестовое блюдо")
+                        .caloriesPerServing(100)
+                        .proteins(10.0)
+                        .fats(5.0)
+                        .carbohydrates(10.0)
+                        .build()
         );
 
         List<MealDto> result = mealService.getUserMealsByDate(1L, LocalDate.now());
@@ -252,26 +456,102 @@ class MealServiceTest {
         });
     }
 
+    @Test
+    void getUserMealTimeline_WhenMoreRowsThanPageSize_ReturnsCursorOfLastMeal() {
+        MealTimelineKey firstKey = new MealTimelineKey(meal.getMealDate(), meal.getMealTime(), meal.getId());
+        MealTimelineKey secondKey = new MealTimelineKey(meal.getMealDate(), LocalTime.of(19, 0), 2L);
+
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(mealRepository.findTimelineKeys(eq(1L), any(Pageable.class))).thenReturn(List.of(firstKey, secondKey));
+        when(mealRepository.findByIdIn(List.of(1L))).thenReturn(List.of(meal));
+        when(foodService.mapToDto(any(Food.class))).thenAnswer(invocation -> {
+            Food food = invocation.getArgument(0);
+            return FoodDto.builder()
+                    .id(food.getId())
+                    .name(food.getName())
+                    .caloriesPerServing(food.getCaloriesPerServing())
+                    .proteins(food.getProteins())
+                    .fats(food.getFats())
+                    .carbohydrates(food.getCarbohydrates())
+                    .build();
+        });
+
+        CursorPageDto<MealDto> page = mealService.getUserMealTimeline(1L, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(meal.getId(), page.getItems().get(0).getId());
+        assertTrue(page.getHasMore());
+
+        when(mealRepository.findTimelineKeysAfter(eq(1L), eq(meal.getMealDate()), eq(meal.getMealTime()), eq(1L),
+                any(Pageable.class))).thenReturn(List.of());
+
+        CursorPageDto<MealDto> nextPage = mealService.getUserMealTimeline(1L, page.getNextCursor(), 1);
+
+        assertTrue(nextPage.getItems().isEmpty());
+        assertFalse(nextPage.getHasMore());
+    }
+
+    @Test
+    void getUserMealTimeline_WhenUserDoesNotExist_ThrowsResourceNotFoundException() {
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            mealService.getUserMealTimeline(1L, null, null);
+        });
+    }
+
     @Test
     void deleteMeal_WhenMealExists_DeletesMeal() {
-        when(mealRepository.existsById(anyLong())).thenReturn(true);
-        doNothing().when(mealRepository).deleteById(anyLong());
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.of(user.getId()));
+        when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        doNothing().when(mealRepository).delete(any(Meal.class));
 
         assertDoesNotThrow(() -> {
             mealService.deleteMeal(1L);
         });
 
-        verify(mealRepository, times(1)).deleteById(anyLong());
+        verify(mealRepository, times(1)).delete(meal);
+        verify(dailyTotalService, times(1)).refreshDay(user.getId(), meal.getMealDate());
+        // Прием пищи читается только после блокировки пользователя
+        InOrder inOrder = inOrder(userRepository, mealRepository);
+        inOrder.verify(userRepository).findByIdForUpdate(user.getId());
+        inOrder.verify(mealRepository).findById(1L);
     }
 
     @Test
     void deleteMeal_WhenMealDoesNotExist_ThrowsResourceNotFoundException() {
-        when(mealRepository.existsById(anyLong())).thenReturn(false);
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             mealService.deleteMeal(1L);
         });
 
-        verify(mealRepository, never()).deleteById(anyLong());
+        verify(mealRepository, never()).delete(any(Meal.class));
+        verify(dailyTotalService, never()).refreshDay(anyLong(), any(LocalDate.class));
+        verify(userRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void updateMeal_WhenDateChanged_RefreshesBothDays() {
+        LocalDate previousDate = meal.getMealDate();
+        mealDto.setMealDate(previousDate.minusDays(1));
+        when(mealRepository.findUserIdById(anyLong())).thenReturn(Optional.of(user.getId()));
+        when(mealRepository.findById(anyLong())).thenReturn(Optional.of(meal));
+        when(userRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(user));
+        when(foodRepository.findAllById(anyCollection())).thenReturn(Arrays.asList(food1, food2));
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(foodService.mapToDto(any(Food.class))).thenReturn(FoodDto.builder()
+                .name("Тестовое блюдо")
+                .caloriesPerServing(100)
+                .proteins(10.0)
+                .fats(5.0)
+                .carbohydrates(10.0)
+                .build());
+
+        mealService.updateMeal(1L, mealDto);
+
+        verify(dailyTotalService, times(1)).refreshDay(user.getId(), previousDate.minusDays(1));
+        verify(dailyTotalService, times(1)).refreshDay(user.getId(), previousDate);
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.config.MetricsConfig;
+import com.example.calorietracker.config.ReportCoalescingProperties;
+import com.example.calorietracker.event.MealsChangedEvent;
+import com.example.calorietracker.exception.ResourceNotFoundException;
+import com.example.calorietracker.service.ReportRequestCoalescer.ReportType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportRequestCoalescerTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 30);
+
+    private ReportCoalescingProperties properties;
+    private ReportRequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReportCoalescingProperties();
+        coalescer = new ReportRequestCoalescer(properties);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_WhenIdenticalRequestsOverlap_RunsComputationOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> coalescer.execute(ReportType.DAILY, 1L, DATE, DATE, () -> {
+                computations.incrementAndGet();
+                await(release);
+                return "отчет";
+            })));
+        }
+        waitUntilCoalesced(ReportType.DAILY, 2);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("отчет", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, coalescer.executionCount(ReportType.DAILY));
+        assertEquals(2, coalescer.coalescedCount(ReportType.DAILY));
+    }
+
+    @Test
+    void execute_WhenComputationFails_PropagatesErrorToWaitingRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> first = executor.submit(() -> coalescer.execute(ReportType.HISTORY, 1L, DATE, DATE, () -> {
+            await(release);
+            throw new ResourceNotFoundException("Пользователь", "id", 1L);
+        }));
+        waitUntilStarted(ReportType.HISTORY);
+        Future<Object> second = executor.submit(() -> coalescer.execute(ReportType.HISTORY, 1L, DATE, DATE,
+                () -> fail("Построение не должно повторяться")));
+        waitUntilCoalesced(ReportType.HISTORY, 1);
+        release.countDown();
+
+        for (Future<Object> result : List.of(first, second)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, e.getCause());
+        }
+
+        // После завершения следующий запрос строит отчет заново
+        assertEquals("повтор", coalescer.execute(ReportType.HISTORY, 1L, DATE, DATE, () -> "повтор"));
+    }
+
+    @Test
+    void execute_WhenParametersDiffer_DoesNotShareComputation() {
+        assertEquals("1", coalescer.execute(ReportType.DAILY, 1L, DATE, DATE, () ->
+                coalescer.execute(ReportType.DAILY, 2L, DATE, DATE, () -> "1")));
+
+        assertEquals(2, coalescer.executionCount(ReportType.DAILY));
+        assertEquals(0, coalescer.coalescedCount(ReportType.DAILY));
+    }
+
+    @Test
+    void execute_WhenReportTypeDisabled_RunsEachRequest() {
+        properties.setDailySummary(false);
+
+        String result = coalescer.execute(ReportType.DAILY_SUMMARY, 1L, DATE, DATE, () ->
+                coalescer.execute(ReportType.DAILY_SUMMARY, 1L, DATE, DATE, () -> "итоги"));
+
+        assertEquals("итоги", result);
+        assertFalse(coalescer.isEnabled(ReportType.DAILY_SUMMARY));
+        assertEquals(2, coalescer.executionCount(ReportType.DAILY_SUMMARY));
+    }
+
+    @Test
+    void execute_WhenMealsChangeDuringBuild_StartsNewBuild() {
+        // Построение началось до фиксации изменений, поэтому следующий запрос не должен его ждать
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                coalescer.execute(ReportType.HISTORY, 1L, DATE.minusDays(6), DATE, () -> {
+                    coalescer.onMealsChanged(new MealsChangedEvent(1L, DATE.minusDays(2)));
+                    return coalescer.execute(ReportType.HISTORY, 1L, DATE.minusDays(6), DATE, () -> "новый");
+                }));
+
+        assertEquals("новый", result);
+        assertEquals(2, coalescer.executionCount(ReportType.HISTORY));
+        assertEquals(0, coalescer.coalescedCount(ReportType.HISTORY));
+    }
+
+    @Test
+    void execute_WhenOtherDayChangesDuringBuild_KeepsSharedBuild() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = executor.submit(() -> coalescer.execute(ReportType.DAILY, 1L, DATE, DATE, () -> {
+            await(release);
+            return "отчет";
+        }));
+        waitUntilStarted(ReportType.DAILY);
+        coalescer.onMealsChanged(new MealsChangedEvent(1L, DATE.minusDays(1)));
+        coalescer.onMealsChanged(new MealsChangedEvent(2L, DATE));
+        Future<String> second = executor.submit(() -> coalescer.execute(ReportType.DAILY, 1L, DATE, DATE,
+                () -> fail("Построение не должно повторяться")));
+        waitUntilCoalesced(ReportType.DAILY, 1);
+        release.countDown();
+
+        assertEquals("отчет", first.get(5, TimeUnit.SECONDS));
+        assertEquals("отчет", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void reportCoalescingMetrics_ExposesExecutedAndCoalescedCounts() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MetricsConfig().reportCoalescingMetrics(coalescer).bindTo(registry);
+
+        coalescer.execute(ReportType.DAILY, 1L, DATE, DATE, () -> "отчет");
+
+        assertEquals(1.0, registry.get(MetricsConfig.REPORT_REQUESTS)
+                .tags("type", "DAILY", "outcome", "executed").functionCounter().count());
+        assertEquals(0.0, registry.get(MetricsConfig.REPORT_REQUESTS)
+                .tags("type", "DAILY", "outcome", "coalesced").functionCounter().count());
+    }
+
+    private void waitUntilStarted(ReportType type) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.executionCount(type) < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void waitUntilCoalesced(ReportType type, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.coalescedCount(type) < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
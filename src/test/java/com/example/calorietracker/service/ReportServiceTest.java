@@ -0,0 +1,179 @@
+package com.example.calorietracker.service;
+
+import com.example.calorietracker.dto.DailyReportDto;
+import com.example.calorietracker.dto.FoodDto;
+import com.example.calorietracker.dto.MealDto;
+import com.example.calorietracker.dto.MealFoodDto;
+import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.model.Goal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Потоковая история питания на реальной базе: дни собираются из строк приема пищи с блюдами
+ * и должны совпадать с обычной историей за тот же период.
+ * В периоде из 7 дней пустые дни стоят в начале, в середине и в конце.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReportServiceTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2025, 2, 1);
+    private static final LocalDate END_DATE = START_DATE.plusDays(6);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FoodService foodService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+    private final List<Long> foodIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userId = userService.createUser(UserDto.builder()
+                .name("Иван Иванов")
+                .email("history-" + System.nanoTime() + "@example.com")
+                .age(30)
+                .weight(75.0)
+                .height(180)
+                .goal(Goal.MAINTENANCE)
+                .build()).getId();
+        foodIds.clear();
+        for (int i = 0; i < 3; i++) {
+            foodIds.add(foodService.createFood(FoodDto.builder()
+                    .name("Блюдо истории " + i + " " + System.nanoTime())
+                    .caloriesPerServing(100 + i * 50)
+                    .proteins(5.0 + i)
+                    .fats(2.5)
+                    .carbohydrates(12.25)
+                    .build()).getId());
+        }
+
+        // 1 февраля пустой, 2 февраля - два приема пищи, первый с тремя блюдами
+        mealService.createMeal(meal(START_DATE.plusDays(1), LocalTime.of(8, 0), 0, 1, 2));
+        mealService.createMeal(meal(START_DATE.plusDays(1), LocalTime.of(13, 30), 0));
+        // 3 февраля пустой, 4 февраля - один прием пищи, 5 февраля пустой
+        mealService.createMeal(meal(START_DATE.plusDays(3), LocalTime.of(19, 0), 1));
+        // 6 февраля - прием пищи с двумя блюдами, 7 февраля пустой
+        mealService.createMeal(meal(START_DATE.plusDays(5), LocalTime.of(9, 15), 2, 0));
+    }
+
+    @Test
+    void streamFeedingHistory_EmitsEveryDayInOrder() {
+        List<DailyReportDto> reports = stream();
+
+        assertEquals(7, reports.size());
+        for (int i = 0; i < reports.size(); i++) {
+            assertEquals(START_DATE.plusDays(i), reports.get(i).getDate());
+        }
+        assertEquals(List.of(0, 2, 0, 1, 0, 1, 0), reports.stream()
+                .map(report -> report.getMeals().size())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamFeedingHistory_WhenMealHasSeveralFoods_GroupsRowsIntoOneMeal() {
+        DailyReportDto day = stream().get(1);
+
+        assertEquals(2, day.getMeals().size());
+        assertEquals(3, day.getMeals().get(0).getMealFoods().size());
+        assertEquals(1, day.getMeals().get(1).getMealFoods().size());
+        assertEquals(LocalTime.of(8, 0), day.getMeals().get(0).getMealTime());
+        assertEquals(100 + 150 + 200 + 100, day.getTotalCaloriesConsumed());
+    }
+
+    @Test
+    void streamFeedingHistory_WhenDayIsEmpty_ReportsZeroTotals() {
+        List<DailyReportDto> reports = stream();
+
+        for (DailyReportDto day : List.of(reports.get(0), reports.get(2), reports.get(6))) {
+            assertTrue(day.getMeals().isEmpty());
+            assertEquals(0, day.getTotalCaloriesConsumed());
+            assertEquals(0.0, day.getTotalProteinsConsumed());
+        }
+    }
+
+    @Test
+    void streamFeedingHistory_MatchesFeedingHistoryForSameRange() {
+        List<DailyReportDto> history = reportService.getFeedingHistoryByDateRange(userId, START_DATE, END_DATE);
+
+        assertEquals(history, stream());
+    }
+
+    @Test
+    void streamFeedingHistory_WritesOneNdjsonLinePerDay() throws Exception {
+        String body = mockMvc.perform(get("/api/reports/history/{userId}/stream", userId)
+                        .param("startDate", START_DATE.toString())
+                        .param("endDate", END_DATE.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<DailyReportDto> lines = Arrays.stream(body.split("\n"))
+                .map(this::read)
+                .collect(Collectors.toList());
+
+        assertTrue(body.endsWith("\n"));
+        assertEquals(stream(), lines);
+    }
+
+    private List<DailyReportDto> stream() {
+        List<DailyReportDto> reports = new ArrayList<>();
+        reportService.streamFeedingHistory(userId, START_DATE, END_DATE, reports::add);
+        return reports;
+    }
+
+    private DailyReportDto read(String line) {
+        try {
+            return objectMapper.readValue(line, DailyReportDto.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MealDto meal(LocalDate date, LocalTime time, int... foodIndexes) {
+        List<MealFoodDto> mealFoods = new ArrayList<>();
+        for (int foodIndex : foodIndexes) {
+            mealFoods.add(MealFoodDto.builder().foodId(foodIds.get(foodIndex)).servings(1.0).build());
+        }
+        return MealDto.builder()
+                .userId(userId)
+                .mealDate(date)
+                .mealTime(time)
+                .mealType("Прием пищи")
+                .mealFoods(mealFoods)
+                .build();
+    }
+}
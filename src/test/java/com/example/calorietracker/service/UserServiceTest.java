@@ -1,20 +1,26 @@
 package com.example.calorietracker.service;
 
+import com.example.calorietracker.config.PaginationProperties;
+import com.example.calorietracker.dto.CursorPageDto;
 import com.example.calorietracker.dto.UserDto;
+import com.example.calorietracker.event.UserChangedEvent;
 import com.example.calorietracker.exception.InvalidDataException;
 import com.example.calorietracker.exception.ResourceNotFoundException;
 import com.example.calorietracker.model.Goal;
 import com.example.calorietracker.model.User;
+import com.example.calorietracker.repository.MealRepository;
 import com.example.calorietracker.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +33,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     @InjectMocks
     private UserService userService;
 
@@ -116,6 +131,21 @@ class UserServiceTest {
         assertEquals(updatedUserDto.getWeight(), result.getWeight());
         assertNotNull(result.getDailyCalorieTarget());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(new UserChangedEvent(1L));
+    }
+
+    @Test
+    void updateUser_WhenReportFieldsUnchanged_DoesNotPublishEvent() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userService.updateUser(1L, userDto);
+        reset(eventPublisher);
+
+        userDto.setEmail("ivan.ivanov@example.com");
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        userService.updateUser(1L, userDto);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     @Test
@@ -151,7 +181,7 @@ class UserServiceTest {
     }
 
     @Test
-    void getAllUsers_ReturnsListOfUserDto() {
+    void getUsers_ReturnsFirstPageOfUserDto() {
         User user2 = User.builder()
                 .id(2L)
                 .name("Петр Петров")
@@ -163,14 +193,26 @@ class UserServiceTest {
                 .dailyCalorieTarget(2200)
                 .build();
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user, user2));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(user, user2));
 
-        List<UserDto> result = userService.getAllUsers();
+        CursorPageDto<UserDto> result = userService.getUsers(null, null);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(user.getId(), result.get(0).getId());
-        assertEquals(user2.getId(), result.get(1).getId());
+        assertEquals(2, result.getItems().size());
+        assertEquals(user.getId(), result.getItems().get(0).getId());
+        assertEquals(user2.getId(), result.getItems().get(1).getId());
+        assertFalse(result.getHasMore());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getUsers_WhenPageSizeTooLarge_ThrowsInvalidDataException() {
+        assertThrows(InvalidDataException.class, () -> {
+            userService.getUsers(null, 1000);
+        });
+
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
     }
 
     @Test